@@ -0,0 +1,57 @@
+package pt.up.fe.comp2024.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp2024.analysis.AnalysisPass;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each pass in 'analysis/passes' on its own, over the ASTs and symbol tables of a whole corpus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnalysisPassBenchmarks {
+
+    private static final String PASSES_PACKAGE = "pt.up.fe.comp2024.analysis.passes.";
+
+    @Param({"cpf", "synthetic-100", "synthetic-1000"})
+    public String corpus;
+
+    @Param({"UndeclaredVariable", "BinaryOperation", "ArrayAccess", "Assignment", "ConditionExpression",
+            "ThisDeclaration", "MethodCalls", "ImportChecks", "DuplicatedInstances", "Varargs", "LengthMethod"})
+    public String pass;
+
+    private List<JmmSemanticsResult> semantics;
+    private AnalysisPass analysisPass;
+
+    @Setup(Level.Trial)
+    public void setup() throws ReflectiveOperationException {
+        semantics = Corpus.load(corpus).analyse();
+        analysisPass = (AnalysisPass) Class.forName(PASSES_PACKAGE + pass).getConstructor().newInstance();
+    }
+
+    @Benchmark
+    public void analyse(Blackhole blackhole) {
+        for (var result : semantics) {
+            blackhole.consume(analysisPass.analyze(result.getRootNode(), result.getSymbolTable()));
+        }
+    }
+}
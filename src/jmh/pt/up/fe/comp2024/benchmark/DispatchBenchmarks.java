@@ -0,0 +1,254 @@
+package pt.up.fe.comp2024.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pt.up.fe.comp.jmm.ast.AJmmVisitor;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.ast.VisitDispatchTable;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import static pt.up.fe.comp2024.ast.Kind.*;
+
+/**
+ * Compares the lookup of node kinds and visit methods, before and after the kind map and the dispatch table:
+ * <ul>
+ *     <li>'fromString' converts the kind of every node, with a scan of all kinds ('scan') or with the map ('map'), and
+ *     'kindOfNode' gets it from the node;</li>
+ *     <li>'dispatch' finds the visit method of every node, through its hierarchy ('hierarchy') or through the
+ *     dispatch table ('table');</li>
+ *     <li>'walk' reads the kind of every node and the name of every variable, as a read-only pass does, over the
+ *     node objects, getting the children through copies of their lists ('ChildLists', as the comp-lib visitors do)
+ *     or by index ('ChildIndices'), or over a struct-of-arrays index of the same tree, built beforehand ('FlatIndex')
+ *     or as part of the walk ('FlatIndexWithBuild', since every compilation has a new tree).</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DispatchBenchmarks {
+
+    @Param({"cpf", "synthetic-1000"})
+    public String corpus;
+
+    private List<JmmNode> roots;
+    private List<JmmNode> nodes;
+    private List<String> kinds;
+    private List<FlatIndex> flatIndices;
+
+    private DispatchVisitor hierarchyVisitor;
+    private DispatchVisitor tableVisitor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        roots = Corpus.load(corpus).analyse().stream()
+                .map(result -> result.getRootNode())
+                .toList();
+        nodes = roots.stream()
+                .flatMap(JmmNode::getDescendantsAndSelfStream)
+                .toList();
+        kinds = nodes.stream().map(JmmNode::getKind).toList();
+        flatIndices = roots.stream().map(FlatIndex::build).toList();
+
+        hierarchyVisitor = new DispatchVisitor(false);
+        tableVisitor = new DispatchVisitor(true);
+    }
+
+    @Benchmark
+    public void fromStringScan(Blackhole blackhole) {
+        for (var kind : kinds) {
+            blackhole.consume(scan(kind));
+        }
+    }
+
+    @Benchmark
+    public void fromStringMap(Blackhole blackhole) {
+        for (var kind : kinds) {
+            blackhole.consume(Kind.fromString(kind));
+        }
+    }
+
+    @Benchmark
+    public void kindOfNode(Blackhole blackhole) {
+        for (var node : nodes) {
+            blackhole.consume(Kind.of(node));
+        }
+    }
+
+    @Benchmark
+    public void dispatchHierarchy(Blackhole blackhole) {
+        for (var node : nodes) {
+            blackhole.consume(hierarchyVisitor.getVisit(node));
+        }
+    }
+
+    @Benchmark
+    public void dispatchTable(Blackhole blackhole) {
+        for (var node : nodes) {
+            blackhole.consume(tableVisitor.getVisit(node));
+        }
+    }
+
+    @Benchmark
+    public void walkChildLists(Blackhole blackhole) {
+        for (var root : roots) {
+            walkChildLists(root, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void walkChildIndices(Blackhole blackhole) {
+        for (var root : roots) {
+            walkChildIndices(root, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void walkFlatIndex(Blackhole blackhole) {
+        for (var index : flatIndices) {
+            index.walk(blackhole);
+        }
+    }
+
+    @Benchmark
+    public void walkFlatIndexWithBuild(Blackhole blackhole) {
+        for (var root : roots) {
+            FlatIndex.build(root).walk(blackhole);
+        }
+    }
+
+    private static void walkChildLists(JmmNode node, Blackhole blackhole) {
+        visitNode(node, blackhole);
+        for (var child : node.getChildren()) {
+            walkChildLists(child, blackhole);
+        }
+    }
+
+    private static void walkChildIndices(JmmNode node, Blackhole blackhole) {
+        visitNode(node, blackhole);
+        for (int i = 0; i < node.getNumChildren(); i++) {
+            walkChildIndices(node.getJmmChild(i), blackhole);
+        }
+    }
+
+    private static void visitNode(JmmNode node, Blackhole blackhole) {
+        var kind = Kind.of(node);
+        blackhole.consume(kind);
+        if (kind == VAR_REF_EXPR) {
+            blackhole.consume(node.get("name"));
+        }
+    }
+
+    // How Kind.fromString used to find a kind
+    private static Kind scan(String kind) {
+        for (Kind k : Kind.values()) {
+            if (k.getNodeName().equals(kind)) {
+                return k;
+            }
+        }
+
+        throw new RuntimeException("Could not convert string '" + kind + "' to a Kind");
+    }
+
+    /**
+     * Visitor with the same visit methods as OllirGeneratorVisitor, that can find them with or without the table.
+     */
+    private static class DispatchVisitor extends AJmmVisitor<Void, Void> {
+
+        private final boolean useTable;
+        private final VisitDispatchTable<Void, Void> dispatchTable = new VisitDispatchTable<>(super::getVisit);
+
+        DispatchVisitor(boolean useTable) {
+            this.useTable = useTable;
+        }
+
+        @Override
+        protected BiFunction<JmmNode, Void, Void> getVisit(JmmNode node) {
+            return useTable ? dispatchTable.getVisit(node) : super.getVisit(node);
+        }
+
+        @Override
+        protected void buildVisitor() {
+            for (var kind : List.of(PROGRAM, CLASS_DECL, METHOD_DECL, PARAM, EXPR_STMT, RETURN_STMT, ASSIGN_STMT,
+                    FUNCTION_CALL, CONDITIONAL_STMT, WHILE_STMT, PARENTHESIS, CURLY_STMT)) {
+                addVisit(kind, this::noOp);
+            }
+            setDefaultVisit(this::noOp);
+        }
+
+        private Void noOp(JmmNode node, Void unused) {
+            return null;
+        }
+    }
+
+    /**
+     * The kinds, names and parents of the nodes of a tree in arrays, in pre-order, so that the descendants of a node
+     * come right after it, up to the end of its subtree.
+     */
+    private static class FlatIndex {
+
+        private final Kind[] kinds;
+        private final String[] names;
+        private final int[] parents;
+        private final int[] subtreeEnds;
+        private int size;
+
+        private FlatIndex(int capacity) {
+            kinds = new Kind[capacity];
+            names = new String[capacity];
+            parents = new int[capacity];
+            subtreeEnds = new int[capacity];
+        }
+
+        static FlatIndex build(JmmNode root) {
+            var index = new FlatIndex(count(root));
+            index.add(root, -1);
+            return index;
+        }
+
+        private static int count(JmmNode node) {
+            int count = 1;
+            for (int i = 0; i < node.getNumChildren(); i++) {
+                count += count(node.getJmmChild(i));
+            }
+            return count;
+        }
+
+        private void add(JmmNode node, int parent) {
+            int id = size++;
+            kinds[id] = Kind.of(node);
+            names[id] = kinds[id] == VAR_REF_EXPR ? node.get("name") : null;
+            parents[id] = parent;
+            for (int i = 0; i < node.getNumChildren(); i++) {
+                add(node.getJmmChild(i), id);
+            }
+            subtreeEnds[id] = size;
+        }
+
+        void walk(Blackhole blackhole) {
+            for (int id = 0; id < size; id++) {
+                blackhole.consume(kinds[id]);
+                if (kinds[id] == VAR_REF_EXPR) {
+                    blackhole.consume(names[id]);
+                }
+            }
+        }
+    }
+}
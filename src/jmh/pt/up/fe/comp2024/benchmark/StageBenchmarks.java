@@ -0,0 +1,115 @@
+package pt.up.fe.comp2024.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2024.backend.JasminGenerator;
+import pt.up.fe.comp2024.optimization.ConstantFolding;
+import pt.up.fe.comp2024.optimization.ConstantPropagation;
+import pt.up.fe.comp2024.optimization.OllirGeneratorVisitor;
+import pt.up.fe.comp2024.parser.JmmParserImpl;
+import pt.up.fe.comp2024.symboltable.JmmSymbolTableBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each stage of the compiler separately, over a whole corpus per operation.
+ * <p>
+ * Each stage receives the output of the previous stages, prepared outside of the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StageBenchmarks {
+
+    @State(Scope.Benchmark)
+    public static class Inputs {
+
+        @Param({"cpf", "synthetic-100", "synthetic-1000"})
+        public String corpus;
+
+        public List<String> sources;
+        public List<JmmSemanticsResult> semantics;
+        public List<OllirResult> ollir;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            var inputs = Corpus.load(corpus);
+            sources = inputs.getSources();
+            semantics = inputs.analyse();
+            ollir = inputs.toOllir();
+        }
+    }
+
+    /**
+     * Constant propagation and folding change the AST, so each invocation receives new ASTs.
+     */
+    @State(Scope.Thread)
+    public static class FreshAsts {
+
+        public List<JmmSemanticsResult> semantics;
+
+        @Setup(Level.Invocation)
+        public void setup(Inputs inputs) {
+            semantics = Corpus.load(inputs.corpus).analyse();
+        }
+    }
+
+    @Benchmark
+    public void parse(Inputs inputs, Blackhole blackhole) {
+        var parser = new JmmParserImpl();
+        for (var source : inputs.sources) {
+            blackhole.consume(parser.parse(source, Corpus.config()));
+        }
+    }
+
+    @Benchmark
+    public void symbolTable(Inputs inputs, Blackhole blackhole) {
+        for (var semantics : inputs.semantics) {
+            blackhole.consume(JmmSymbolTableBuilder.build(semantics.getRootNode()));
+        }
+    }
+
+    @Benchmark
+    public void constantPropagation(FreshAsts asts, Blackhole blackhole) {
+        for (var semantics : asts.semantics) {
+            blackhole.consume(new ConstantPropagation().optimize(semantics));
+        }
+    }
+
+    @Benchmark
+    public void constantFolding(FreshAsts asts, Blackhole blackhole) {
+        for (var semantics : asts.semantics) {
+            blackhole.consume(new ConstantFolding().optimize(semantics));
+        }
+    }
+
+    @Benchmark
+    public void ollirGeneration(Inputs inputs, Blackhole blackhole) {
+        for (var semantics : inputs.semantics) {
+            blackhole.consume(new OllirGeneratorVisitor(semantics.getSymbolTable()).visit(semantics.getRootNode()));
+        }
+    }
+
+    @Benchmark
+    public void jasminGeneration(Inputs inputs, Blackhole blackhole) {
+        for (var ollir : inputs.ollir) {
+            blackhole.consume(new JasminGenerator(ollir).build());
+        }
+    }
+}
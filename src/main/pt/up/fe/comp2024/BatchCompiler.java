@@ -0,0 +1,293 @@
+package pt.up.fe.comp2024;
+
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.ReportType;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2024.metrics.Metrics;
+import pt.up.fe.comp2024.metrics.PhaseMetrics;
+import pt.up.fe.comp2024.parser.JmmParserImpl;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Compiles many Java-- files in a single JVM.
+ * <p>
+ * The batch input can be a directory (searched recursively for .jmm files), a manifest file (one path per line,
+ * relative to the manifest) or a glob pattern (e.g. 'src/**.jmm').
+ * <p>
+ * Inputs are compiled in parallel on a work-stealing pool. Each worker thread keeps its own {@link JmmCompiler},
+ * and results are reported in the order of the inputs.
+ * <p>
+ * The outputs of all inputs are written to the same folder, named after their class. An input that declares the same
+ * class as an earlier one fails, so no output is overwritten.
+ */
+public class BatchCompiler {
+
+    private static final String JMM_EXTENSION = ".jmm";
+
+    private final ThreadLocal<JmmCompiler> compiler;
+
+    public BatchCompiler() {
+        this.compiler = ThreadLocal.withInitial(JmmCompiler::new);
+    }
+
+    /**
+     * Compiles all the inputs described by the configuration and prints a summary to the standard output.
+     *
+     * @param config the compiler options, with the batch input and (optionally) an output folder
+     * @return the number of inputs that failed to compile
+     */
+    public int run(Map<String, String> config) {
+        return run(config, System.out);
+    }
+
+    /**
+     * Compiles all the inputs described by the configuration and prints a summary to the given stream.
+     *
+     * @param config the compiler options, with the batch input and (optionally) an output folder
+     * @param out    where the summary is printed
+     * @return the number of inputs that failed to compile
+     */
+    public int run(Map<String, String> config, PrintStream out) {
+        var batchInput = CompilerConfig.getBatchInput(config).orElseThrow();
+        var outputDir = CompilerConfig.getOutputDir(config);
+
+        List<File> inputs = collectInputs(batchInput);
+        outputDir.ifPresent(SpecsIo::mkdir);
+
+        long sllParses = JmmParserImpl.getSllParses();
+        long llFallbacks = JmmParserImpl.getLlFallbacks();
+
+        long start = System.nanoTime();
+        List<CompilationResult> compiled = compileAll(inputs, config, CompilerConfig.getThreads(config));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        sllParses = JmmParserImpl.getSllParses() - sllParses;
+        llFallbacks = JmmParserImpl.getLlFallbacks() - llFallbacks;
+
+        // Outputs are written after compiling, in input order, so the result does not depend on scheduling
+        List<CompilationResult> results = outputDir.isPresent() ? rejectDuplicateClasses(inputs, compiled) : compiled;
+        outputDir.ifPresent(dir -> results.forEach(result -> writeOutputs(result, dir)));
+
+        CompilerConfig.getMetricsFile(config).ifPresent(metricsFile -> writeMetrics(inputs, results, metricsFile));
+
+        out.println(buildSummary(inputs, results, elapsedMs));
+        long cached = results.stream().filter(CompilationResult::isFromCache).count();
+        if (cached > 0) {
+            out.println(cached + " of " + inputs.size() + " inputs were taken from the compilation cache");
+        }
+        if (sllParses > 0) {
+            out.println("SLL parsing fell back to full LL in " + llFallbacks + " of " + sllParses + " inputs");
+        }
+
+        return (int) results.stream().filter(result -> !result.isSuccess()).count();
+    }
+
+    /**
+     * Compiles the given inputs using the given number of threads.
+     *
+     * @return the results, in the same order as the inputs
+     */
+    public List<CompilationResult> compileAll(List<File> inputs, Map<String, String> config, int threads) {
+        if (threads <= 1) {
+            return inputs.stream().map(input -> compile(input, config)).toList();
+        }
+
+        var pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> inputs.parallelStream()
+                            .map(input -> compile(input, config))
+                            .toList())
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while compiling batch", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Exception while compiling batch", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public CompilationResult compile(File input, Map<String, String> config) {
+        return compiler.get().compile(input, config);
+    }
+
+    /**
+     * Expands the batch input into the list of files to compile, in a deterministic order.
+     *
+     * @param batchInput a directory, a manifest file, a single .jmm file or a glob pattern
+     * @return the files to compile
+     */
+    public static List<File> collectInputs(String batchInput) {
+        var path = Paths.get(batchInput);
+
+        if (Files.isDirectory(path)) {
+            return findJmmFiles(path, file -> file.toString().endsWith(JMM_EXTENSION));
+        }
+
+        if (Files.isRegularFile(path)) {
+            return batchInput.endsWith(JMM_EXTENSION) ? List.of(path.toFile()) : readManifest(path);
+        }
+
+        // Otherwise, treat the input as a glob, searching from the longest prefix without wildcards
+        var matcher = FileSystems.getDefault().getPathMatcher("glob:" + path.toAbsolutePath());
+        return findJmmFiles(getGlobRoot(path.toAbsolutePath()), matcher::matches);
+    }
+
+    private static List<File> readManifest(Path manifest) {
+        var baseDir = manifest.toAbsolutePath().getParent();
+        List<File> files = new ArrayList<>();
+
+        for (var line : SpecsIo.read(manifest.toFile()).split("\\R")) {
+            line = line.strip();
+
+            // Ignore empty lines and comments
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            var file = baseDir.resolve(line).toFile();
+            if (!file.isFile()) {
+                throw new RuntimeException("Manifest '" + manifest + "' lists file '" + line
+                        + "', which does not exist");
+            }
+            files.add(file);
+        }
+
+        return files;
+    }
+
+    private static Path getGlobRoot(Path glob) {
+        var root = glob.getRoot();
+        for (var part : glob) {
+            if (part.toString().matches(".*[*?\\[{].*")) {
+                break;
+            }
+            root = root == null ? part : root.resolve(part);
+        }
+        return root;
+    }
+
+    private static List<File> findJmmFiles(Path root, Predicate<Path> filter) {
+        if (root == null || !Files.isDirectory(root)) {
+            throw new RuntimeException("Could not find batch input '" + root + "'");
+        }
+
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(filter)
+                    .sorted()
+                    .map(Path::toFile)
+                    .toList();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not list files in '" + root + "'", e);
+        }
+    }
+
+    /**
+     * Outputs are named after their class, so only the first input that declares a class can be written. The later
+     * ones fail, instead of overwriting its outputs.
+     *
+     * @return the results, with the inputs that declare a class of an earlier input failed
+     */
+    private static List<CompilationResult> rejectDuplicateClasses(List<File> inputs, List<CompilationResult> results) {
+        Map<String, File> declaringInputs = new HashMap<>();
+        List<CompilationResult> checkedResults = new ArrayList<>();
+
+        for (int i = 0; i < inputs.size(); i++) {
+            var result = results.get(i);
+            if (!result.isSuccess()) {
+                checkedResults.add(result);
+                continue;
+            }
+
+            var className = result.getClassName().orElseThrow();
+            var firstInput = declaringInputs.putIfAbsent(className, inputs.get(i));
+            if (firstInput == null) {
+                checkedResults.add(result);
+                continue;
+            }
+
+            List<Report> reports = new ArrayList<>(result.getReports());
+            reports.add(Report.newError(Stage.OTHER, -1, -1, "Class '" + className + "' is also declared by '"
+                    + firstInput + "', whose outputs would be overwritten", null));
+
+            var failed = CompilationResult.failed(reports);
+            failed.setPhases(result.getPhases());
+            failed.setFromCache(result.isFromCache());
+            checkedResults.add(failed);
+        }
+
+        return checkedResults;
+    }
+
+    private static void writeOutputs(CompilationResult result, File outputDir) {
+        if (!result.isSuccess()) {
+            return;
+        }
+
+        var className = result.getClassName().orElseThrow();
+        SpecsIo.write(new File(outputDir, className + ".ollir"), result.getOllirCode().orElseThrow());
+        SpecsIo.write(new File(outputDir, className + ".j"), result.getJasminCode().orElseThrow());
+    }
+
+    private static void writeMetrics(List<File> inputs, List<CompilationResult> results, File metricsFile) {
+        Map<String, List<PhaseMetrics>> phases = new LinkedHashMap<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            phases.put(inputs.get(i).getPath(), results.get(i).getPhases());
+        }
+
+        SpecsIo.write(metricsFile, Metrics.toJson(phases));
+    }
+
+    private static String buildSummary(List<File> inputs, List<CompilationResult> results, long elapsedMs) {
+        var summary = new StringBuilder();
+
+        long failed = 0;
+        long errors = 0;
+        long warnings = 0;
+
+        for (int i = 0; i < inputs.size(); i++) {
+            var result = results.get(i);
+            errors += result.getNumReports(ReportType.ERROR);
+            warnings += result.getNumReports(ReportType.WARNING);
+
+            if (result.isSuccess()) {
+                continue;
+            }
+
+            failed++;
+            var firstError = result.getReports().stream()
+                    .filter(report -> report.getType() == ReportType.ERROR)
+                    .findFirst()
+                    .map(Report::toString)
+                    .orElse("no error report");
+            summary.append("FAILED ").append(inputs.get(i)).append(": ").append(firstError).append("\n");
+        }
+
+        summary.append("Compiled ").append(inputs.size()).append(" files in ").append(elapsedMs).append(" ms: ")
+                .append(inputs.size() - failed).append(" succeeded, ")
+                .append(failed).append(" failed, ")
+                .append(errors).append(" errors, ")
+                .append(warnings).append(" warnings");
+
+        return summary.toString();
+    }
+}
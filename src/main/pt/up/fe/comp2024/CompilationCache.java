@@ -0,0 +1,279 @@
+package pt.up.fe.comp2024;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.ReportType;
+import pt.up.fe.comp.jmm.report.Stage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache of compilation results, so that an input that did not change is not compiled again.
+ * <p>
+ * Entries are keyed by the SHA-256 of the source code, of the options that change the output ('optimize' and
+ * 'registerAllocation') and of the version of the compiler, which is a hash of the classes of the compiler and of the
+ * comp-lib library. Each entry is a JSON file with the OLLIR and Jasmin code and the reports.
+ * <p>
+ * Several compilers, in this or other processes, can share the same directory. Entries are written to a temporary
+ * file and then moved to their place, so they are never read half-written. Reading an entry updates its modification
+ * time, and when the entries exceed the maximum size, the least recently used ones are deleted.
+ */
+public class CompilationCache {
+
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    private static final String ENTRY_EXTENSION = ".json";
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    // Temporary files older than this were left by a process that did not finish writing them
+    private static final Duration STALE_TEMP_AGE = Duration.ofHours(1);
+
+    private static final Map<Path, CompilationCache> CACHES = new ConcurrentHashMap<>();
+
+    private static final Gson GSON = new Gson();
+
+    private static String compilerVersion;
+
+    private record CachedReport(ReportType type, Stage stage, int line, int column, String message) {
+    }
+
+    private record CacheEntry(String className, String ollirCode, String jasminCode, List<CachedReport> reports) {
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+
+    // Bytes written since the size of the cache was last checked, which is only done every few entries
+    private final AtomicLong bytesSinceCheck;
+
+    public CompilationCache(File directory, long maxBytes) {
+        this.directory = directory.toPath().toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+
+        // Checks the size with the first entry written, the directory may already be full
+        this.bytesSinceCheck = new AtomicLong(maxBytes);
+    }
+
+    /**
+     * @return the cache of the given directory, shared by all the compilers of this JVM
+     */
+    public static CompilationCache forDirectory(File directory) {
+        var path = directory.toPath().toAbsolutePath().normalize();
+        return CACHES.computeIfAbsent(path, dir -> new CompilationCache(dir.toFile(), DEFAULT_MAX_BYTES));
+    }
+
+    /**
+     * @return the key of the entry of the given source code, compiled with the given options
+     */
+    public String getKey(byte[] source, Map<String, String> config) {
+        var digest = newDigest();
+        digest.update(getCompilerVersion().getBytes(StandardCharsets.UTF_8));
+        digest.update(("\noptimize=" + CompilerConfig.getOptimize(config)).getBytes(StandardCharsets.UTF_8));
+        digest.update(("\npropagationMode=" + CompilerConfig.getPropagationMode(config).getName())
+                .getBytes(StandardCharsets.UTF_8));
+        digest.update(("\nregisterAllocation=" + CompilerConfig.getRegisterAllocation(config) + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+        digest.update(source);
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * @return the result stored with the given key, if there is one that can be read
+     */
+    public Optional<CompilationResult> get(String key) {
+        var entryFile = getEntryFile(key);
+
+        CacheEntry entry;
+        try {
+            entry = GSON.fromJson(Files.readString(entryFile), CacheEntry.class);
+
+            // Marks the entry as recently used
+            Files.setLastModifiedTime(entryFile, FileTime.from(Instant.now()));
+        } catch (IOException | JsonParseException e) {
+            // Missing or unreadable entries, the latter are replaced when the input is compiled
+            return Optional.empty();
+        }
+
+        if (entry == null || entry.reports() == null) {
+            return Optional.empty();
+        }
+
+        List<Report> reports = new ArrayList<>();
+        for (var report : entry.reports()) {
+            reports.add(new Report(report.type(), report.stage(), report.line(), report.column(), report.message()));
+        }
+
+        var result = new CompilationResult(entry.className(), entry.ollirCode(), entry.jasminCode(), reports);
+        result.setFromCache(true);
+
+        return Optional.of(result);
+    }
+
+    /**
+     * Stores a result with the given key. Results with reports that carry an exception are not stored, since the
+     * exception would be lost, and it may not happen again.
+     */
+    public void put(String key, CompilationResult result) {
+        if (result.getReports().stream().anyMatch(report -> report.getException().isPresent())) {
+            return;
+        }
+
+        var reports = result.getReports().stream()
+                .map(report -> new CachedReport(report.getType(), report.getStage(), report.getLine(),
+                        report.getColumn(), report.getMessage()))
+                .toList();
+        var entry = new CacheEntry(result.getClassName().orElse(null), result.getOllirCode().orElse(null),
+                result.getJasminCode().orElse(null), reports);
+        var json = GSON.toJson(entry).getBytes(StandardCharsets.UTF_8);
+
+        var entryFile = getEntryFile(key);
+        try {
+            Files.createDirectories(entryFile.getParent());
+
+            var tempFile = Files.createTempFile(entryFile.getParent(), key, TEMP_EXTENSION);
+            try {
+                Files.write(tempFile, json);
+                Files.move(tempFile, entryFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            // The cache is only an optimization, the compilation result is still returned
+            System.err.println("Could not write compilation cache entry '" + entryFile + "': " + e.getMessage());
+            return;
+        }
+
+        if (bytesSinceCheck.addAndGet(json.length) >= maxBytes / 16) {
+            bytesSinceCheck.set(0);
+            try {
+                evict();
+            } catch (UncheckedIOException e) {
+                System.err.println("Could not evict compilation cache entries: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the entries take at most the maximum size, and the temporary files
+     * left by interrupted writes.
+     */
+    public synchronized void evict() {
+        record EntryFile(Path path, long size, FileTime lastModified) {
+        }
+
+        List<EntryFile> entries = new ArrayList<>();
+        var staleTime = Instant.now().minus(STALE_TEMP_AGE);
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (var file : files.filter(Files::isRegularFile).toList()) {
+                try {
+                    var lastModified = Files.getLastModifiedTime(file);
+                    var name = file.getFileName().toString();
+                    if (name.endsWith(ENTRY_EXTENSION)) {
+                        entries.add(new EntryFile(file, Files.size(file), lastModified));
+                    } else if (name.endsWith(TEMP_EXTENSION) && lastModified.toInstant().isBefore(staleTime)) {
+                        Files.deleteIfExists(file);
+                    }
+                } catch (NoSuchFileException e) {
+                    // Deleted or moved by another compiler in the meantime
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list compilation cache '" + directory + "'", e);
+        }
+
+        long size = entries.stream().mapToLong(EntryFile::size).sum();
+        if (size <= maxBytes) {
+            return;
+        }
+
+        entries.sort(Comparator.comparing(EntryFile::lastModified));
+        for (var entry : entries) {
+            if (size <= maxBytes) {
+                break;
+            }
+
+            try {
+                Files.deleteIfExists(entry.path());
+            } catch (IOException e) {
+                // Still in use, e.g. on Windows, it is deleted next time
+                continue;
+            }
+            size -= entry.size();
+        }
+    }
+
+    private Path getEntryFile(String key) {
+        // Entries are spread by the first two characters of their keys, to keep directories small
+        return directory.resolve(key.substring(0, 2)).resolve(key + ENTRY_EXTENSION);
+    }
+
+    /**
+     * @return a hash of the classes of the compiler and of comp-lib, computed once per JVM
+     */
+    static synchronized String getCompilerVersion() {
+        if (compilerVersion == null) {
+            var digest = newDigest();
+            for (var type : List.of(CompilationCache.class, OllirResult.class)) {
+                hashCodeSource(type, digest);
+            }
+            compilerVersion = HexFormat.of().formatHex(digest.digest());
+        }
+
+        return compilerVersion;
+    }
+
+    private static void hashCodeSource(Class<?> type, MessageDigest digest) {
+        Path location;
+        try {
+            location = Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException | NullPointerException e) {
+            throw new RuntimeException("Could not find the classes of '" + type.getName() + "'", e);
+        }
+
+        // A jar, or a directory of classes when running from the build output
+        try (Stream<Path> files = Files.isDirectory(location) ? Files.walk(location) : Stream.of(location)) {
+            for (var file : files.filter(Files::isRegularFile).sorted().toList()) {
+                digest.update(location.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                digest.update(Files.readAllBytes(file));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the classes in '" + location + "'", e);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package pt.up.fe.comp2024;
+
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.ReportType;
+import pt.up.fe.comp2024.metrics.PhaseMetrics;
+import pt.up.fe.comp2024.utils.ReportUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The outcome of compiling a single Java-- input with {@link JmmCompiler}.
+ */
+public class CompilationResult {
+
+    private final String className;
+    private final String ollirCode;
+    private final String jasminCode;
+    private final List<Report> reports;
+    private List<PhaseMetrics> phases;
+    private boolean fromCache;
+
+    public CompilationResult(String className, String ollirCode, String jasminCode, List<Report> reports) {
+        this.className = className;
+        this.ollirCode = ollirCode;
+        this.jasminCode = jasminCode;
+        this.reports = reports;
+        this.phases = List.of();
+    }
+
+    public static CompilationResult failed(List<Report> reports) {
+        return new CompilationResult(null, null, null, reports);
+    }
+
+    public Optional<String> getClassName() {
+        return Optional.ofNullable(className);
+    }
+
+    public Optional<String> getOllirCode() {
+        return Optional.ofNullable(ollirCode);
+    }
+
+    public Optional<String> getJasminCode() {
+        return Optional.ofNullable(jasminCode);
+    }
+
+    public List<Report> getReports() {
+        return Collections.unmodifiableList(reports);
+    }
+
+    /**
+     * @return true if Jasmin code was generated and there are no ERROR reports
+     */
+    public boolean isSuccess() {
+        return jasminCode != null && !ReportUtils.anyError(reports);
+    }
+
+    /**
+     * @return the measurements of each phase that ran for this input
+     */
+    public List<PhaseMetrics> getPhases() {
+        return phases;
+    }
+
+    void setPhases(List<PhaseMetrics> phases) {
+        this.phases = phases;
+    }
+
+    /**
+     * @return true if the result was read from a {@link CompilationCache} instead of compiling the input
+     */
+    public boolean isFromCache() {
+        return fromCache;
+    }
+
+    void setFromCache(boolean fromCache) {
+        this.fromCache = fromCache;
+    }
+
+    public long getNumReports(ReportType type) {
+        return reports.stream().filter(report -> report.getType() == type).count();
+    }
+}
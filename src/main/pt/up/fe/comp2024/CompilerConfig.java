@@ -1,6 +1,10 @@
 package pt.up.fe.comp2024;
 
+import pt.up.fe.comp2024.analysis.AnalysisMode;
+import pt.up.fe.comp2024.optimization.PropagationMode;
+
 import java.io.File;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -10,6 +14,17 @@ public class CompilerConfig {
     private static final String INPUT_FILE = "inputFile";
     private static final String OPTIMIZE = "optimize";
     private static final String REGISTER = "registerAllocation";
+    private static final String BATCH_INPUT = "batchInput";
+    private static final String OUTPUT_DIR = "outputDir";
+    private static final String THREADS = "threads";
+    private static final String SERVER_PORT = "serverPort";
+    private static final String METRICS_FILE = "metricsFile";
+    private static final String PREDICTION_MODE = "predictionMode";
+    private static final String ANALYSIS_MODE = "analysisMode";
+    private static final String INCREMENTAL = "incremental";
+    private static final String CACHE_DIR = "cacheDir";
+    private static final String PROPAGATION_MODE = "propagationMode";
+    private static final String VERBOSE = "verbose";
 
 
     static Map<String, String> shortToLong = new HashMap<>();
@@ -18,6 +33,17 @@ public class CompilerConfig {
         shortToLong.put("i", CompilerConfig.INPUT_FILE);
         shortToLong.put("o", CompilerConfig.OPTIMIZE);
         shortToLong.put("r", CompilerConfig.REGISTER);
+        shortToLong.put("b", CompilerConfig.BATCH_INPUT);
+        shortToLong.put("d", CompilerConfig.OUTPUT_DIR);
+        shortToLong.put("t", CompilerConfig.THREADS);
+        shortToLong.put("s", CompilerConfig.SERVER_PORT);
+        shortToLong.put("m", CompilerConfig.METRICS_FILE);
+        shortToLong.put("p", CompilerConfig.PREDICTION_MODE);
+        shortToLong.put("a", CompilerConfig.ANALYSIS_MODE);
+        shortToLong.put("n", CompilerConfig.INCREMENTAL);
+        shortToLong.put("c", CompilerConfig.CACHE_DIR);
+        shortToLong.put("f", CompilerConfig.PROPAGATION_MODE);
+        shortToLong.put("v", CompilerConfig.VERBOSE);
     }
 
 
@@ -32,6 +58,107 @@ public class CompilerConfig {
         return Optional.of(new File(inputFile));
     }
 
+    public static Optional<String> getBatchInput(Map<String, String> config) {
+        return Optional.ofNullable(config.get(BATCH_INPUT));
+    }
+
+    public static Optional<File> getOutputDir(Map<String, String> config) {
+        return Optional.ofNullable(config.get(OUTPUT_DIR)).map(File::new);
+    }
+
+    /**
+     * @return the number of threads used to compile several inputs, by default the number of available processors
+     */
+    public static int getThreads(Map<String, String> config) {
+        var threads = config.get(THREADS);
+
+        if (threads == null) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+
+        return Integer.parseInt(threads);
+    }
+
+    /**
+     * @return the directory of the on-disk cache of compilation results, if one should be used
+     */
+    public static Optional<File> getCacheDir(Map<String, String> config) {
+        return Optional.ofNullable(config.get(CACHE_DIR)).map(File::new);
+    }
+
+    /**
+     * @return the JSON file where the time and memory used by each phase of the compiler are written, if requested
+     */
+    public static Optional<File> getMetricsFile(Map<String, String> config) {
+        return Optional.ofNullable(config.get(METRICS_FILE)).map(File::new);
+    }
+
+    /**
+     * @return the port where the compiler server listens for requests, if the compiler should run as a server
+     */
+    public static Optional<Integer> getServerPort(Map<String, String> config) {
+        return Optional.ofNullable(config.get(SERVER_PORT)).map(Integer::parseInt);
+    }
+
+    /**
+     * @return true if the parser first tries SLL prediction and falls back to full LL (the default, '-p=sll'), false
+     * if it always uses full LL ('-p=ll')
+     */
+    public static boolean isSllParsing(Map<String, String> config) {
+        var mode = config.getOrDefault(PREDICTION_MODE, "sll");
+
+        return switch (mode) {
+            case "sll" -> true;
+            case "ll" -> false;
+            default -> throw new RuntimeException("Unknown prediction mode '" + mode + "', expected 'sll' or 'll'");
+        };
+    }
+
+    /**
+     * @return how the analysis passes are run, one after the other ('-a=passes', the default, which times each pass),
+     * in a single traversal of the AST ('-a=fused', the default with '-n') or at the same time ('-a=parallel')
+     */
+    public static AnalysisMode getAnalysisMode(Map<String, String> config) {
+        // Only the fused analysis is incremental
+        var defaultMode = isIncremental(config) ? AnalysisMode.FUSED : AnalysisMode.PASSES;
+        var mode = config.getOrDefault(ANALYSIS_MODE, defaultMode.getName());
+
+        return Arrays.stream(AnalysisMode.values())
+                .filter(analysisMode -> analysisMode.getName().equals(mode))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Unknown analysis mode '" + mode + "', expected one of " +
+                        Arrays.stream(AnalysisMode.values()).map(AnalysisMode::getName).toList()));
+    }
+
+    /**
+     * @return how '-o' finds the constants, by sparse conditional constant propagation ('-f=sccp', the default) or
+     * from the reaching definitions, without removing branches ('-f=reaching')
+     */
+    public static PropagationMode getPropagationMode(Map<String, String> config) {
+        var mode = config.getOrDefault(PROPAGATION_MODE, PropagationMode.SCCP.getName());
+
+        return Arrays.stream(PropagationMode.values())
+                .filter(propagationMode -> propagationMode.getName().equals(mode))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Unknown propagation mode '" + mode + "', expected one of " +
+                        Arrays.stream(PropagationMode.values()).map(PropagationMode::getName).toList()));
+    }
+
+    /**
+     * @return true if the analysis reuses the reports of the methods that did not change since the same class was last
+     * analysed in this JVM ('-n'), which is only done by the fused analysis
+     */
+    public static boolean isIncremental(Map<String, String> config) {
+        return Boolean.parseBoolean(config.getOrDefault(INCREMENTAL, "false"));
+    }
+
+    /**
+     * @return true if the OLLIR and Jasmin code of a single input are printed ('-v'), the same with or without '-c'
+     */
+    public static boolean isVerbose(Map<String, String> config) {
+        return Boolean.parseBoolean(config.getOrDefault(VERBOSE, "false"));
+    }
+
     public static boolean getOptimize(Map<String, String> config) {
         return Boolean.parseBoolean(config.getOrDefault(OPTIMIZE, "false"));
     }
@@ -89,9 +216,23 @@ public class CompilerConfig {
             config.put(getLongOpt(shortOption), value);
         }
 
+        // server mode receives the inputs with each request, batch mode receives them through '-b'
+        if (config.containsKey(SERVER_PORT) || config.containsKey(BATCH_INPUT)) {
+            getServerPort(config);
+            isSllParsing(config);
+            getAnalysisMode(config);
+            getPropagationMode(config);
+            getOptimize(config);
+            getRegisterAllocation(config);
+            getThreads(config);
+
+            return config;
+        }
+
         if (!config.containsKey(INPUT_FILE)) {
 
-            throw new RuntimeException("Expected an input file, use '-i=<PATH_TO_FILE>'");
+            throw new RuntimeException("Expected an input file, use '-i=<PATH_TO_FILE>' or '-b=<DIR|MANIFEST|GLOB>'" +
+                    " (or '-s=<PORT>' to start a compiler server)");
         }
 
         // make sure we save the absolute path of the input file
@@ -106,6 +247,9 @@ public class CompilerConfig {
         // Verify if values are valid
         getOptimize(config);
         getRegisterAllocation(config);
+        isSllParsing(config);
+        getAnalysisMode(config);
+        getPropagationMode(config);
 
         return config;
     }
@@ -0,0 +1,273 @@
+package pt.up.fe.comp2024;
+
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2024.metrics.Metrics;
+import pt.up.fe.comp2024.parser.ParserCache;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Long-running compiler that accepts requests over a localhost TCP socket, so that the JVM, the ANTLR parser and the
+ * visitors stay warm between compilations.
+ * <p>
+ * Protocol (UTF-8, line based). The client sends the token of the server on the first line, the working directory on
+ * the second, then one command-line argument per line (the same arguments accepted by {@link Launcher}), and finally an
+ * empty line. The server answers with the reports, followed by the generated OLLIR and Jasmin code (or the batch
+ * summary), and a last line with 'EXIT &lt;code&gt;', where code is 0 if the compilation succeeded.
+ * <p>
+ * Trust model. A request makes the server read and write any file its user can (the inputs, '-d', '-m' and '-c'), so
+ * only that user may send requests. Any local user can connect to a loopback port, so the server generates a random
+ * token when it starts, and writes it to a file only its user can read ({@link #getTokenFile(int)}, in a directory only
+ * its user can open). Requests without the token are refused. Whoever can read the token file can compile as the user
+ * of the server.
+ */
+public class CompilerServer {
+
+    public static final String OLLIR_HEADER = "--- OLLIR ---";
+    public static final String JASMIN_HEADER = "--- JASMIN ---";
+    public static final String EXIT_PREFIX = "EXIT ";
+
+    // Options whose values are paths, and must be resolved against the working directory of the client
+    private static final Set<String> PATH_OPTIONS = Set.of("-i=", "-b=", "-d=", "-m=", "-c=");
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final int port;
+    private final Path tokenFile;
+    private final String token;
+    private final ThreadLocal<JmmCompiler> compiler;
+    private final BatchCompiler batchCompiler;
+
+    private volatile ServerSocket serverSocket;
+
+    public CompilerServer(int port) {
+        this(port, getTokenFile(port));
+    }
+
+    /**
+     * @param tokenFile the file where the token of the server is written, whose directory is created if needed
+     */
+    CompilerServer(int port, Path tokenFile) {
+        this.port = port;
+        this.tokenFile = tokenFile;
+        this.token = newToken();
+        this.compiler = ThreadLocal.withInitial(JmmCompiler::new);
+        this.batchCompiler = new BatchCompiler();
+    }
+
+    /**
+     * @return the file where the server on the given port writes its token, in the '.jmm' directory of the user's home
+     */
+    public static Path getTokenFile(int port) {
+        return Path.of(System.getProperty("user.home"), ".jmm", "server-" + port + ".token");
+    }
+
+    private static String newToken() {
+        var bytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(bytes);
+
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    /**
+     * Accepts requests until the process is terminated or {@link #stop()} is called. Each connection is served by a
+     * thread of a pool, so several clients can compile at the same time.
+     */
+    public void run() {
+        // Fills the parser caches before the first request, so it does not pay for them
+        long start = System.nanoTime();
+        ParserCache.getShared().warmUp();
+        System.out.println("Warmed up parser caches in " + (System.nanoTime() - start) / 1_000_000 + " ms ("
+                + ParserCache.getShared().getNumDfaStates() + " DFA states)");
+
+        ExecutorService workers = Executors.newCachedThreadPool();
+
+        try (var socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            serverSocket = socket;
+            writeToken();
+            System.out.println("Compiler server listening on " + socket.getLocalSocketAddress() + ", token in "
+                    + tokenFile);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                var client = socket.accept();
+                workers.submit(() -> serve(client));
+            }
+        } catch (IOException e) {
+            if (serverSocket == null || !serverSocket.isClosed()) {
+                throw new RuntimeException("Compiler server on port " + port + " stopped", e);
+            }
+        } finally {
+            workers.shutdown();
+            deleteToken();
+        }
+    }
+
+    /**
+     * Stops accepting requests, the requests being served are finished.
+     */
+    public void stop() {
+        var socket = serverSocket;
+        if (socket == null) {
+            return;
+        }
+
+        try {
+            socket.close();
+        } catch (IOException e) {
+            System.err.println("Could not close the compiler server: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the token to a new file only the user can read, in a directory only the user can open.
+     */
+    private void writeToken() throws IOException {
+        var directory = tokenFile.toAbsolutePath().getParent();
+        Files.deleteIfExists(tokenFile);
+
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            var directoryPermissions = PosixFilePermissions.fromString("rwx------");
+            if (!Files.isDirectory(directory)) {
+                Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(directoryPermissions));
+            }
+            Files.setPosixFilePermissions(directory, directoryPermissions);
+            var filePermissions = PosixFilePermissions.fromString("rw-------");
+            Files.createFile(tokenFile, PosixFilePermissions.asFileAttribute(filePermissions));
+        } else {
+            // Without POSIX permissions (e.g. Windows), the file is in the profile of the user, private by default
+            Files.createDirectories(directory);
+            Files.createFile(tokenFile);
+        }
+
+        Files.writeString(tokenFile, token + "\n", StandardCharsets.US_ASCII);
+        // The server usually stops when its process is terminated
+        tokenFile.toFile().deleteOnExit();
+    }
+
+    private void deleteToken() {
+        try {
+            Files.deleteIfExists(tokenFile);
+        } catch (IOException e) {
+            System.err.println("Could not delete the token file '" + tokenFile + "': " + e.getMessage());
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             var out = new PrintStream(socket.getOutputStream(), false, StandardCharsets.UTF_8)) {
+
+            var requestToken = in.readLine();
+            if (requestToken == null) {
+                System.err.println("Client " + socket.getRemoteSocketAddress() + " closed without a request");
+                return;
+            }
+
+            if (!isToken(requestToken)) {
+                System.err.println("Refused a request from " + socket.getRemoteSocketAddress() + " with a wrong token");
+                out.println("The token of the request does not match the token of the server in '" + tokenFile + "'");
+                out.println(EXIT_PREFIX + 1);
+                out.flush();
+                return;
+            }
+
+            var workingDirPath = in.readLine();
+            if (workingDirPath == null) {
+                System.err.println("Client " + socket.getRemoteSocketAddress() + " closed without a request");
+                return;
+            }
+            var workingDir = new File(workingDirPath);
+
+            List<String> args = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null && !line.isEmpty()) {
+                args.add(resolvePath(line, workingDir));
+            }
+
+            int exitCode;
+            try {
+                exitCode = handle(CompilerConfig.parseArgs(args.toArray(new String[0])), out);
+            } catch (Exception e) {
+                out.println(e.getMessage());
+                exitCode = 1;
+            }
+
+            out.println(EXIT_PREFIX + exitCode);
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("Could not serve request: " + e.getMessage());
+        }
+    }
+
+    private boolean isToken(String requestToken) {
+        // Compares all the bytes, so the time taken does not tell how much of the token was right
+        return MessageDigest.isEqual(token.getBytes(StandardCharsets.US_ASCII),
+                requestToken.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private int handle(Map<String, String> config, PrintStream out) {
+        // '-s' skips the checks of the input in CompilerConfig.parseArgs, and a request cannot start another server
+        if (CompilerConfig.getServerPort(config).isPresent()) {
+            throw new RuntimeException("Option '-s' cannot be used in a request to the compiler server");
+        }
+
+        if (CompilerConfig.getBatchInput(config).isPresent()) {
+            return batchCompiler.run(config, out) == 0 ? 0 : 1;
+        }
+
+        var inputFile = CompilerConfig.getInputFile(config).orElseThrow(() ->
+                new RuntimeException("Expected an input file, use '-i=<PATH_TO_FILE>' or '-b=<DIR|MANIFEST|GLOB>'"));
+        var result = compiler.get().compile(inputFile, config);
+
+        for (Report report : result.getReports()) {
+            out.println(report);
+        }
+
+        CompilerConfig.getMetricsFile(config).ifPresent(metricsFile ->
+                SpecsIo.write(metricsFile, Metrics.toJson(Map.of(inputFile.getPath(), result.getPhases()))));
+
+        result.getOllirCode().ifPresent(ollir -> out.println(OLLIR_HEADER + "\n" + ollir));
+        result.getJasminCode().ifPresent(jasmin -> out.println(JASMIN_HEADER + "\n" + jasmin));
+
+        return result.isSuccess() ? 0 : 1;
+    }
+
+    private static String resolvePath(String arg, File workingDir) {
+        for (var option : PATH_OPTIONS) {
+            if (!arg.startsWith(option)) {
+                continue;
+            }
+
+            var path = arg.substring(option.length());
+            if (new File(path).isAbsolute()) {
+                return arg;
+            }
+
+            return option + new File(workingDir, path).getPath();
+        }
+
+        return arg;
+    }
+}
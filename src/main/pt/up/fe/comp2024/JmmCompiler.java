@@ -0,0 +1,143 @@
+package pt.up.fe.comp2024;
+
+import pt.up.fe.comp.jmm.jasmin.JasminResult;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.parser.JmmParserResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2024.analysis.JmmAnalysisImpl;
+import pt.up.fe.comp2024.backend.JasminBackendImpl;
+import pt.up.fe.comp2024.metrics.Metrics;
+import pt.up.fe.comp2024.optimization.JmmOptimizationImpl;
+import pt.up.fe.comp2024.parser.JmmParserImpl;
+import pt.up.fe.comp2024.utils.ReportUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Runs the whole pipeline (parsing, semantic analysis, OLLIR generation and Jasmin generation) over a single input.
+ * <p>
+ * The stage instances are created once and reused, so the same compiler can process many inputs in one JVM. If a cache
+ * directory is given ('-c'), inputs that were already compiled with the same options are taken from the
+ * {@link CompilationCache}, without parsing them.
+ */
+public class JmmCompiler {
+
+    private final JmmParserImpl parser;
+    private final JmmAnalysisImpl analysis;
+    private final JmmOptimizationImpl optimization;
+    private final JasminBackendImpl backend;
+
+    public JmmCompiler() {
+        this.parser = new JmmParserImpl();
+        this.analysis = new JmmAnalysisImpl();
+        this.optimization = new JmmOptimizationImpl();
+        this.backend = new JasminBackendImpl();
+    }
+
+    /**
+     * Compiles the given code, stopping at the first stage that reports errors.
+     *
+     * @param code   the Java-- source code
+     * @param config the compiler options
+     * @return the result of the compilation, with the measurements of each phase, never null
+     */
+    public CompilationResult compile(String code, Map<String, String> config) {
+        return compile(() -> code.getBytes(StandardCharsets.UTF_8), () -> parser.parse(code, config), config);
+    }
+
+    /**
+     * Compiles the given file, which is memory-mapped instead of read into a String.
+     *
+     * @see #compile(String, Map)
+     */
+    public CompilationResult compile(File file, Map<String, String> config) {
+        return compile(() -> readBytes(file), () -> parser.parse(file, config), config);
+    }
+
+    private CompilationResult compile(Supplier<byte[]> source, Supplier<JmmParserResult> parse,
+                                      Map<String, String> config) {
+        // Discards the phases left over by a previous use of this thread
+        Metrics.enable();
+
+        var cache = CompilerConfig.getCacheDir(config).map(CompilationCache::forDirectory);
+
+        CompilationResult result = null;
+        String key = null;
+        if (cache.isPresent()) {
+            try (var phase = Metrics.start("cache-lookup")) {
+                key = cache.get().getKey(source.get(), config);
+                result = cache.get().get(key).orElse(null);
+            } catch (UncheckedIOException e) {
+                // The input could not be read, compiling it reports the problem
+                key = null;
+            }
+        }
+
+        if (result == null) {
+            result = run(parse);
+
+            if (key != null) {
+                try (var phase = Metrics.start("cache-store")) {
+                    cache.get().put(key, result);
+                }
+            }
+        }
+
+        result.setPhases(Metrics.collect());
+
+        return result;
+    }
+
+    private CompilationResult run(Supplier<JmmParserResult> parse) {
+        List<Report> reports = new ArrayList<>();
+
+        try {
+            var parserResult = parse.get();
+            if (parserResult.getRootNode() == null || ReportUtils.anyError(parserResult.getReports())) {
+                reports.addAll(parserResult.getReports());
+                return CompilationResult.failed(reports);
+            }
+
+            var semanticsResult = analysis.semanticAnalysis(parserResult);
+            if (ReportUtils.anyError(semanticsResult.getReports())) {
+                reports.addAll(semanticsResult.getReports());
+                return CompilationResult.failed(reports);
+            }
+
+            semanticsResult = optimization.optimize(semanticsResult);
+            OllirResult ollirResult = optimization.toOllir(semanticsResult);
+            ollirResult = optimization.optimize(ollirResult);
+            if (ReportUtils.anyError(ollirResult.getReports())) {
+                reports.addAll(ollirResult.getReports());
+                return CompilationResult.failed(reports);
+            }
+
+            JasminResult jasminResult = backend.toJasmin(ollirResult);
+            reports.addAll(jasminResult.getReports());
+
+            return new CompilationResult(jasminResult.getClassName(), ollirResult.getOllirCode(),
+                    jasminResult.getJasminCode(), reports);
+
+        } catch (Exception e) {
+            reports.add(Report.newError(Stage.OTHER, -1, -1, "Exception during compilation: " + e.getMessage(), e));
+            return CompilationResult.failed(reports);
+        }
+    }
+
+    private static byte[] readBytes(File file) {
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read input file '" + file + "'", e);
+        }
+    }
+}
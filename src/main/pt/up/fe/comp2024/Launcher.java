@@ -7,6 +7,7 @@ import pt.up.fe.comp.jmm.ollir.OllirResult;
 import pt.up.fe.comp.jmm.parser.JmmParserResult;
 import pt.up.fe.comp2024.analysis.JmmAnalysisImpl;
 import pt.up.fe.comp2024.backend.JasminBackendImpl;
+import pt.up.fe.comp2024.metrics.Metrics;
 import pt.up.fe.comp2024.optimization.JmmOptimizationImpl;
 import pt.up.fe.comp2024.optimization_jasmin.AstToJasminImpl;
 import pt.up.fe.comp2024.parser.JmmParserImpl;
@@ -22,15 +23,53 @@ public class Launcher {
 
         Map<String, String> config = CompilerConfig.parseArgs(args);
 
+        // Server mode, keeps compiling the requests received on a local port
+        var serverPort = CompilerConfig.getServerPort(config);
+        if (serverPort.isPresent()) {
+            new CompilerServer(serverPort.get()).run();
+            return;
+        }
+
+        // Batch mode, compiles every input in this JVM
+        if (CompilerConfig.getBatchInput(config).isPresent()) {
+            int failed = new BatchCompiler().run(config);
+            System.exit(failed == 0 ? 0 : 1);
+        }
+
         var inputFile = CompilerConfig.getInputFile(config).orElseThrow();
         if (!inputFile.isFile()) {
             throw new RuntimeException("Option '-i' expects a path to an existing input file, got '" + args[0] + "'.");
         }
-        String code = SpecsIo.read(inputFile);
+
+        // -c cache flag, an input compiled before with the same options is not compiled again
+        if (CompilerConfig.getCacheDir(config).isPresent()) {
+            var result = new JmmCompiler().compile(inputFile, config);
+            TestUtils.noErrors(result.getReports());
+
+            if (result.isFromCache()) {
+                System.err.println("Using the cached compilation of '" + inputFile + "'");
+            }
+
+            // -v verbose flag, the same code is printed whether it was compiled or taken from the cache
+            if (CompilerConfig.isVerbose(config)) {
+                result.getOllirCode().ifPresent(System.out::println);
+                result.getJasminCode().ifPresent(System.out::println);
+            }
+
+            CompilerConfig.getMetricsFile(config).ifPresent(metricsFile ->
+                    SpecsIo.write(metricsFile, Metrics.toJson(Map.of(inputFile.getPath(), result.getPhases()))));
+            return;
+        }
+
+        // -m metrics flag, records the phases of this compilation
+        var metricsFile = CompilerConfig.getMetricsFile(config);
+        if (metricsFile.isPresent()) {
+            Metrics.enable();
+        }
 
         // Parsing stage
         JmmParserImpl parser = new JmmParserImpl();
-        JmmParserResult parserResult = parser.parse(code, config);
+        JmmParserResult parserResult = parser.parse(inputFile, config);
         TestUtils.noErrors(parserResult.getReports());
 
         // Print AST
@@ -46,18 +85,25 @@ public class Launcher {
         // -o optimization flag
         semanticsResult = ollirGen.optimize(semanticsResult);
         OllirResult ollirResult = ollirGen.toOllir(semanticsResult);
+        // -r register allocation flag
+        ollirResult = ollirGen.optimize(ollirResult);
         TestUtils.noErrors(ollirResult.getReports());
 
-        // Print OLLIR code
-        //System.out.println(ollirResult.getOllirCode());
-
         // Code generation stage
         JasminBackendImpl jasminGen = new JasminBackendImpl();
         JasminResult jasminResult = jasminGen.toJasmin(ollirResult);
         TestUtils.noErrors(jasminResult.getReports());
 
-        // Print Jasmin code
-        //System.out.println(jasminResult.getJasminCode());
+        // -m metrics flag, writes the time and memory used by each phase
+        metricsFile.ifPresent(file ->
+                SpecsIo.write(file, Metrics.toJson(Map.of(inputFile.getPath(), Metrics.collect()))));
+
+        // -v verbose flag, prints the OLLIR code generated from the (optimized) AST, the changes of -o and -r to its
+        // instructions are only in the Jasmin code
+        if (CompilerConfig.isVerbose(config)) {
+            System.out.println(ollirResult.getOllirCode());
+            System.out.println(jasminResult.getJasminCode());
+        }
     }
 
 }
@@ -0,0 +1,89 @@
+package pt.up.fe.comp2024;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Code generated for each method of the classes compiled before, so that recompiling a class after a small edit only
+ * generates the code of the methods that changed.
+ * <p>
+ * The code of a method is stored with a key that is a hash of everything the code depends on, e.g. the fingerprint of
+ * the method and of the class it is in (see {@link pt.up.fe.comp2024.ast.AstFingerprint}). Since a class is usually
+ * much larger than a method, the part of the key shared by the methods of a class is hashed once, and then hashed
+ * again with each method:
+ * <pre>
+ * var classKey = cache.getKey(classFingerprint);
+ * var methodKey = cache.getKey(classKey, methodFingerprint);
+ * </pre>
+ * There is a cache for the OLLIR code and another for the Jasmin code, shared by all the compilers of this JVM, which
+ * keep the code of a limited number of methods. The caches can be used by several threads.
+ */
+public class MethodCodeCache {
+
+    private static final int DEFAULT_MAX_METHODS = 4096;
+
+    private static final MethodCodeCache OLLIR = new MethodCodeCache(DEFAULT_MAX_METHODS);
+    private static final MethodCodeCache JASMIN = new MethodCodeCache(DEFAULT_MAX_METHODS);
+
+    private final Map<String, String> methods;
+
+    public MethodCodeCache(int maxMethods) {
+        // Access order, so the least recently used method is removed first
+        this.methods = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxMethods;
+            }
+        };
+    }
+
+    public static MethodCodeCache getOllirShared() {
+        return OLLIR;
+    }
+
+    public static MethodCodeCache getJasminShared() {
+        return JASMIN;
+    }
+
+    /**
+     * @return the SHA-256 of the given parts, which are kept apart so that moving text from one to the other changes
+     * the key
+     */
+    public String getKey(String... parts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available", e);
+        }
+
+        for (var part : parts) {
+            var bytes = part.getBytes(StandardCharsets.UTF_8);
+            digest.update((bytes.length + ":").getBytes(StandardCharsets.UTF_8));
+            digest.update(bytes);
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public synchronized Optional<String> get(String key) {
+        return Optional.ofNullable(methods.get(key));
+    }
+
+    public synchronized void put(String key, String code) {
+        methods.put(key, code);
+    }
+
+    public synchronized int size() {
+        return methods.size();
+    }
+
+    public synchronized void clear() {
+        methods.clear();
+    }
+}
@@ -0,0 +1,108 @@
+package pt.up.fe.comp2024.analysis;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2024.ast.AstFingerprint;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports of the analysis of each method of the classes analysed before, so that recompiling a class after a small
+ * edit only analyses the methods that changed.
+ * <p>
+ * The reports of a method depend on the nodes of the method and on the rest of the class outside the method bodies
+ * (imports, fields and the signatures of the methods), which the symbol table is built from. Both are compared by
+ * their fingerprints (see {@link AstFingerprint}). The fingerprint of a method has the lines of its nodes relative to
+ * the first line of the method, so a method that only moved keeps its reports, which are moved to its new lines.
+ * <p>
+ * Only the methods of the last analysis of a class are kept, for a limited number of classes. The cache can be used by
+ * several threads.
+ */
+public class AnalysisCache {
+
+    private static final int DEFAULT_MAX_CLASSES = 16;
+
+    private static final AnalysisCache SHARED = new AnalysisCache(DEFAULT_MAX_CLASSES);
+
+    /**
+     * The reports of each analysis pass for a method.
+     *
+     * @param line    the line of the method when the reports were made
+     * @param reports the reports of each pass, in the order of the passes
+     */
+    record MethodReports(int line, List<List<Report>> reports) {
+
+        /**
+         * @return the reports of a pass, moved to the current line of the method
+         */
+        List<Report> getReports(int pass, int currentLine) {
+            var passReports = reports.get(pass);
+            int offset = currentLine - line;
+            if (offset == 0) {
+                return passReports;
+            }
+
+            return passReports.stream().map(report -> moveReport(report, offset)).toList();
+        }
+
+        private static Report moveReport(Report report, int offset) {
+            if (report.getLine() < 0) {
+                return report;
+            }
+
+            var moved = new Report(report.getType(), report.getStage(), report.getLine() + offset, report.getColumn(),
+                    report.getMessage());
+            report.getException().ifPresent(moved::setException);
+
+            return moved;
+        }
+    }
+
+    private final Map<String, Map<String, MethodReports>> classes;
+
+    public AnalysisCache(int maxClasses) {
+        // Access order, so the least recently analysed class is removed first
+        this.classes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<String, MethodReports>> eldest) {
+                return size() > maxClasses;
+            }
+        };
+    }
+
+    public static AnalysisCache getShared() {
+        return SHARED;
+    }
+
+    /**
+     * @return the reports of the methods of the last analysis of a class with the given fingerprint, by the
+     * fingerprints of the methods, empty if there is none
+     */
+    synchronized Map<String, MethodReports> getMethods(String classFingerprint) {
+        return classes.getOrDefault(classFingerprint, Map.of());
+    }
+
+    /**
+     * Replaces the methods kept for a class by the ones of its latest analysis.
+     */
+    synchronized void putMethods(String classFingerprint, Map<String, MethodReports> methods) {
+        classes.put(classFingerprint, Map.copyOf(methods));
+    }
+
+    public synchronized void clear() {
+        classes.clear();
+    }
+
+    /**
+     * @return the fingerprint of the class, see {@link AstFingerprint#getClassFingerprint(JmmNode)}
+     */
+    static String getClassFingerprint(JmmNode root) {
+        return AstFingerprint.getClassFingerprint(root);
+    }
+
+    static String getMethodFingerprint(JmmNode method) {
+        return AstFingerprint.getMethodFingerprint(method, true);
+    }
+}
@@ -0,0 +1,27 @@
+package pt.up.fe.comp2024.analysis;
+
+/**
+ * How {@link JmmAnalysisImpl} runs the analysis passes.
+ */
+public enum AnalysisMode {
+
+    /**
+     * Each pass traverses the AST on its own, one after the other, and its time is measured separately.
+     */
+    PASSES,
+
+    /**
+     * All passes are run in a single traversal of the AST, see {@link FusedAnalysis}.
+     */
+    FUSED,
+
+    /**
+     * Read-only passes run at the same time, each with its own instance, and their reports are merged in the order of
+     * the passes.
+     */
+    PARALLEL;
+
+    public String getName() {
+        return name().toLowerCase();
+    }
+}
@@ -20,4 +20,25 @@ public interface AnalysisPass {
      */
     List<Report> analyze(JmmNode root, SymbolTable table);
 
+    /**
+     * Passes that are read-only run at the same time as the read-only passes next to them (see
+     * {@link pt.up.fe.comp2024.analysis.AnalysisMode#PARALLEL}), on the same nodes. They must not add, remove or change
+     * nodes or attributes, and must not change the symbol table.
+     * <p>
+     * The only writes allowed are the expression types that {@link pt.up.fe.comp2024.ast.TypeUtils#getExprType} keeps
+     * in each {@link pt.up.fe.comp2024.ast.nodes.CompactJmmNode}, which several passes may store in the same node at
+     * once. That race is benign: the cached entry is immutable and replaced as a whole, it is only used for the same
+     * table instance (compared by identity), and every thread computes the same type for the same node and table.
+     *
+     * <p>
+     * Analysis passes only report problems, so this is the default. A pass that changes the AST or the table must
+     * override it, and then runs alone.
+     *
+     * @return true if the pass only reads the AST and the symbol table, so it can run at the same time as other passes
+     * on the same input, each with its own instance
+     */
+    default boolean isReadOnly() {
+        return true;
+    }
+
 }
\ No newline at end of file
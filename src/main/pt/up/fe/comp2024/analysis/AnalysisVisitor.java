@@ -4,9 +4,11 @@ import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.ast.PreorderJmmVisitor;
 import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2024.ast.VisitDispatchTable;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiFunction;
 
 /**
  *
@@ -15,11 +17,61 @@ public abstract class AnalysisVisitor extends PreorderJmmVisitor<SymbolTable, Vo
 
     private List<Report> reports;
 
+    private final VisitDispatchTable<SymbolTable, Void> dispatchTable = new VisitDispatchTable<>(super::getVisit);
+
+    private BiFunction<JmmNode, SymbolTable, Void> defaultVisit;
+
     public AnalysisVisitor() {
         reports = new ArrayList<>();
         setDefaultValue(() -> null);
     }
 
+    @Override
+    protected BiFunction<JmmNode, SymbolTable, Void> getVisit(JmmNode node) {
+        return dispatchTable.getVisit(node);
+    }
+
+    @Override
+    public void setDefaultVisit(BiFunction<JmmNode, SymbolTable, Void> defaultVisit) {
+        super.setDefaultVisit(defaultVisit);
+        this.defaultVisit = defaultVisit;
+    }
+
+    /**
+     * Same pre-order traversal as {@link PreorderJmmVisitor}, which copies the children of every node into a new list,
+     * and collects the results of the children in another. The passes return no results, and a read-only pass cannot
+     * change the children while they are visited, so it takes them by index instead.
+     */
+    @Override
+    public Void visit(JmmNode node, SymbolTable table) {
+        if (!isReadOnly()) {
+            return super.visit(node, table);
+        }
+
+        getVisit(node).apply(node, table);
+        for (int i = 0; i < node.getNumChildren(); i++) {
+            visit(node.getJmmChild(i), table);
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the visit method added for the kind of the node, or null if the node would get the default visit
+     */
+    BiFunction<JmmNode, SymbolTable, Void> getKindVisit(JmmNode node) {
+        var visit = getVisit(node);
+        return visit == defaultVisit ? null : visit;
+    }
+
+    /**
+     * Prepares the pass to analyse a new input, when its nodes are visited by {@link FusedAnalysis}.
+     */
+    void startAnalysis() {
+        // Start with a clean list, the same pass can analyse several inputs
+        reports = new ArrayList<>();
+    }
+
     protected void addReport(Report report) {
         reports.add(report);
     }
@@ -31,6 +83,8 @@ public abstract class AnalysisVisitor extends PreorderJmmVisitor<SymbolTable, Vo
 
     @Override
     public List<Report> analyze(JmmNode root, SymbolTable table) {
+        startAnalysis();
+
         // Visit the node
         visit(root, table);
 
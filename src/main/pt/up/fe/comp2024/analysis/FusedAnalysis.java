@@ -0,0 +1,162 @@
+package pt.up.fe.comp2024.analysis;
+
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.ast.NodeUtils;
+import pt.up.fe.comp2024.ast.VisitDispatchTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+
+/**
+ * Runs several analysis passes in a single preorder traversal of the AST.
+ * <p>
+ * Each node is given to the visit methods the passes added for its kind, in the order of the passes, so every pass
+ * still sees the nodes in preorder. The reports are returned grouped by pass, in the same order as if the passes had
+ * run one after the other. A pass that throws stops visiting nodes, and its reports are replaced by an error, as in
+ * {@link JmmAnalysisImpl}.
+ * <p>
+ * Given an {@link AnalysisCache}, the methods that did not change since the class was last analysed are not visited,
+ * and the reports of the passes for them are taken from the cache instead.
+ */
+public class FusedAnalysis implements AnalysisPass {
+
+    private static final BiFunction<JmmNode, SymbolTable, Void> NO_VISIT = (node, table) -> null;
+
+    private final List<AnalysisVisitor> passes;
+    private final VisitDispatchTable<SymbolTable, Void> dispatchTable;
+
+    private Exception[] failures;
+
+    // Reports of the methods of the last analysis of the class, and of the current one, when using a cache
+    private Map<String, AnalysisCache.MethodReports> cachedMethods;
+    private Map<String, AnalysisCache.MethodReports> analysedMethods;
+
+    public FusedAnalysis(List<AnalysisVisitor> passes) {
+        this.passes = passes;
+        this.dispatchTable = new VisitDispatchTable<>(this::combineVisits);
+    }
+
+    @Override
+    public List<Report> analyze(JmmNode root, SymbolTable table) {
+        return analyze(root, table, null);
+    }
+
+    /**
+     * Analyses the given node, reusing the reports of the methods that did not change since the last analysis of the
+     * class, if a cache is given.
+     */
+    public List<Report> analyze(JmmNode root, SymbolTable table, AnalysisCache cache) {
+        failures = new Exception[passes.size()];
+        passes.forEach(AnalysisVisitor::startAnalysis);
+
+        var classFingerprint = cache != null ? AnalysisCache.getClassFingerprint(root) : "";
+        cachedMethods = classFingerprint.isEmpty() ? null : cache.getMethods(classFingerprint);
+        analysedMethods = classFingerprint.isEmpty() ? null : new HashMap<>();
+
+        visit(root, table);
+
+        // Reports are only complete if no pass failed
+        if (analysedMethods != null && Arrays.stream(failures).allMatch(Objects::isNull)) {
+            cache.putMethods(classFingerprint, analysedMethods);
+        }
+        cachedMethods = null;
+        analysedMethods = null;
+
+        List<Report> reports = new ArrayList<>();
+        for (int i = 0; i < passes.size(); i++) {
+            var pass = passes.get(i);
+            if (failures[i] != null) {
+                reports.add(JmmAnalysisImpl.newPassError(pass, failures[i]));
+            } else {
+                reports.addAll(pass.getReports());
+            }
+        }
+
+        return reports;
+    }
+
+    private void visit(JmmNode node, SymbolTable table) {
+        if (analysedMethods != null && Kind.METHOD_DECL.check(node)) {
+            visitMethod(node, table);
+            return;
+        }
+
+        visitNode(node, table);
+    }
+
+    private void visitNode(JmmNode node, SymbolTable table) {
+        dispatchTable.getVisit(node).apply(node, table);
+
+        for (int i = 0; i < node.getNumChildren(); i++) {
+            visit(node.getJmmChild(i), table);
+        }
+    }
+
+    private void visitMethod(JmmNode method, SymbolTable table) {
+        var fingerprint = AnalysisCache.getMethodFingerprint(method);
+        int line = NodeUtils.getLine(method);
+
+        var cached = cachedMethods.get(fingerprint);
+        if (cached != null) {
+            for (int i = 0; i < passes.size(); i++) {
+                cached.getReports(i, line).forEach(passes.get(i)::addReport);
+            }
+            analysedMethods.put(fingerprint, cached);
+            return;
+        }
+
+        int[] start = passes.stream().mapToInt(pass -> pass.getReports().size()).toArray();
+        visitNode(method, table);
+
+        List<List<Report>> reports = new ArrayList<>();
+        for (int i = 0; i < passes.size(); i++) {
+            var passReports = passes.get(i).getReports();
+            reports.add(List.copyOf(passReports.subList(start[i], passReports.size())));
+        }
+        analysedMethods.put(fingerprint, new AnalysisCache.MethodReports(line, reports));
+    }
+
+    /**
+     * @return a visit method that calls the ones the passes added for the kind of the node
+     */
+    private BiFunction<JmmNode, SymbolTable, Void> combineVisits(JmmNode node) {
+        List<Integer> passIndexes = new ArrayList<>();
+        List<BiFunction<JmmNode, SymbolTable, Void>> visits = new ArrayList<>();
+        for (int i = 0; i < passes.size(); i++) {
+            var visit = passes.get(i).getKindVisit(node);
+            if (visit != null) {
+                passIndexes.add(i);
+                visits.add(visit);
+            }
+        }
+
+        if (visits.isEmpty()) {
+            return NO_VISIT;
+        }
+
+        return (visitedNode, table) -> {
+            for (int i = 0; i < visits.size(); i++) {
+                int passIndex = passIndexes.get(i);
+                if (failures[passIndex] != null) {
+                    continue;
+                }
+
+                try {
+                    visits.get(i).apply(visitedNode, table);
+                } catch (Exception e) {
+                    failures[passIndex] = e;
+                }
+            }
+
+            return null;
+        };
+    }
+}
@@ -7,54 +7,131 @@ import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.parser.JmmParserResult;
 import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2024.CompilerConfig;
 import pt.up.fe.comp2024.analysis.passes.*;
+import pt.up.fe.comp2024.metrics.Metrics;
 import pt.up.fe.comp2024.symboltable.JmmSymbolTableBuilder;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 public class JmmAnalysisImpl implements JmmAnalysis {
-    private final List<AnalysisPass> analysisPasses;
+
+    // Creates the passes, in the order their reports are returned
+    private static final List<Supplier<AnalysisVisitor>> PASS_FACTORIES = List.of(UndeclaredVariable::new,
+                                                                                  BinaryOperation::new,
+                                                                                  ArrayAccess::new,
+                                                                                  Assignment::new,
+                                                                                  ConditionExpression::new,
+                                                                                  ThisDeclaration::new,
+                                                                                  MethodCalls::new,
+                                                                                  ImportChecks::new,
+                                                                                  DuplicatedInstances::new,
+                                                                                  Varargs::new,
+                                                                                  LengthMethod::new
+    );
+
+    private final List<Supplier<AnalysisVisitor>> passFactories;
+    private final List<AnalysisVisitor> analysisPasses;
+    private final FusedAnalysis fusedAnalysis;
 
     public JmmAnalysisImpl() {
-        this.analysisPasses = List.of(new UndeclaredVariable(),
-                                      new BinaryOperation(),
-                                      new ArrayAccess(),
-                                      new Assignment(),
-                                      new ConditionExpression(),
-                                      new ThisDeclaration(),
-                                      new MethodCalls(),
-                                      new ImportChecks(),
-                                      new DuplicatedInstances(),
-                                      new Varargs(),
-                                      new LengthMethod()
-        );
+        this(PASS_FACTORIES);
+    }
 
+    /**
+     * @param passFactories creates the passes, in the order their reports are returned
+     */
+    JmmAnalysisImpl(List<Supplier<AnalysisVisitor>> passFactories) {
+        this.passFactories = passFactories;
+        this.analysisPasses = passFactories.stream().map(Supplier::get).toList();
+        this.fusedAnalysis = new FusedAnalysis(analysisPasses);
     }
 
     @Override
     // the parser result contains the root JmmNode of the parsed code and the input configuration
     public JmmSemanticsResult semanticAnalysis(JmmParserResult parserResult) {
         JmmNode rootNode = parserResult.getRootNode();
-        SymbolTable table = JmmSymbolTableBuilder.build(rootNode);
+        SymbolTable table;
+        try (var phase = Metrics.start("symbol-table")) {
+            table = JmmSymbolTableBuilder.build(rootNode);
+        }
         List<Report> reports = new ArrayList<>();
 
-        // Visit all nodes in the AST
-        for (var analysisPass : analysisPasses) {
-            try {
-                var passReports = analysisPass.analyze(rootNode, table);
-                reports.addAll(passReports);
-            } catch (Exception e) {
-                reports.add(Report.newError(Stage.SEMANTIC,
-                        -1,
-                        -1,
-                        "Problem while executing analysis pass '" + analysisPass.getClass() + "'",
-                        e)
-                );
+        switch (CompilerConfig.getAnalysisMode(parserResult.getConfig())) {
+            case FUSED -> {
+                try (var phase = Metrics.start("analysis/fused")) {
+                    var cache = CompilerConfig.isIncremental(parserResult.getConfig()) ? AnalysisCache.getShared() : null;
+                    reports.addAll(fusedAnalysis.analyze(rootNode, table, cache));
+                }
+            }
+            case PARALLEL -> {
+                try (var phase = Metrics.start("analysis/parallel")) {
+                    reports.addAll(analyzeInParallel(rootNode, table));
+                }
+            }
+            case PASSES -> {
+                // Visit all nodes in the AST
+                for (var analysisPass : analysisPasses) {
+                    try (var phase = Metrics.start("analysis/" + analysisPass.getClass().getSimpleName())) {
+                        reports.addAll(analyze(analysisPass, rootNode, table));
+                    }
+                }
             }
-
         }
 
         return new JmmSemanticsResult(parserResult, table, reports);
     }
+
+    /**
+     * Runs consecutive read-only passes at the same time, each with a new instance, since passes keep the state of the
+     * traversal in their fields. A pass that is not read-only runs alone, after the ones before it have finished.
+     * <p>
+     * The parallel stream runs on the pool of the calling thread if it is a {@link java.util.concurrent.ForkJoinPool}
+     * worker, e.g. in batch mode, or on the common pool otherwise.
+     *
+     * @return the reports of the passes, in the same order as if they had run one after the other
+     */
+    private List<Report> analyzeInParallel(JmmNode rootNode, SymbolTable table) {
+        List<Report> reports = new ArrayList<>();
+
+        int start = 0;
+        while (start < analysisPasses.size()) {
+            if (!analysisPasses.get(start).isReadOnly()) {
+                reports.addAll(analyze(analysisPasses.get(start), rootNode, table));
+                start++;
+                continue;
+            }
+
+            int end = start;
+            while (end < analysisPasses.size() && analysisPasses.get(end).isReadOnly()) {
+                end++;
+            }
+
+            passFactories.subList(start, end).parallelStream()
+                    .map(factory -> analyze(factory.get(), rootNode, table))
+                    .toList()
+                    .forEach(reports::addAll);
+            start = end;
+        }
+
+        return reports;
+    }
+
+    private static List<Report> analyze(AnalysisPass analysisPass, JmmNode rootNode, SymbolTable table) {
+        try {
+            return analysisPass.analyze(rootNode, table);
+        } catch (Exception e) {
+            return List.of(newPassError(analysisPass, e));
+        }
+    }
+
+    static Report newPassError(AnalysisPass analysisPass, Exception e) {
+        return Report.newError(Stage.SEMANTIC,
+                -1,
+                -1,
+                "Problem while executing analysis pass '" + analysisPass.getClass() + "'",
+                e);
+    }
 }
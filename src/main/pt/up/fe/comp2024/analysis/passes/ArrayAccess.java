@@ -35,7 +35,6 @@ public class ArrayAccess extends AnalysisVisitor {
 
 
         if(!accessedVarType.isArray()) {
-            System.out.println(accessedVarType);
             addReport(Report.newError(
                     Stage.SEMANTIC,
                     NodeUtils.getLine(accessedVar),
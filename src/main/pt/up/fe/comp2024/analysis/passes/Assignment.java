@@ -9,6 +9,7 @@ import pt.up.fe.comp2024.analysis.AnalysisVisitor;
 import pt.up.fe.comp2024.ast.Kind;
 import pt.up.fe.comp2024.ast.NodeUtils;
 import pt.up.fe.comp2024.ast.TypeUtils;
+import pt.up.fe.comp2024.symboltable.JmmSymbolTable;
 
 import java.sql.SQLOutput;
 import java.util.Objects;
@@ -99,7 +100,7 @@ public class Assignment extends AnalysisVisitor {
             );
             return null;
         }
-        var importLst = table.getImports().stream().map(x -> x.split("\\.")[x.split("\\.").length - 1]).toList();
+        var importLst = JmmSymbolTable.from(table).getImportedNames();
         if(!Objects.equals(leftType.getName(), rightType.getName())){
             if (!importLst.contains(rightType.getName()) && !importLst.contains(leftType.getName())) {
                 addReport(Report.newError(
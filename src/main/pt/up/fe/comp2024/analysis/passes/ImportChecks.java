@@ -9,6 +9,7 @@ import pt.up.fe.comp2024.analysis.AnalysisVisitor;
 import pt.up.fe.comp2024.ast.Kind;
 import pt.up.fe.comp2024.ast.NodeUtils;
 import pt.up.fe.comp2024.ast.TypeUtils;
+import pt.up.fe.comp2024.symboltable.JmmSymbolTable;
 import pt.up.fe.specs.util.SpecsCheck;
 
 /**
@@ -32,7 +33,7 @@ public class ImportChecks extends AnalysisVisitor {
 
     private Void visitVarDecl(JmmNode varDecl, SymbolTable table) {
         Type typeDecl = TypeUtils.getExprType(varDecl, table);
-        var importLst = table.getImports().stream().map(x -> x.split("\\.")[x.split("\\.").length - 1]).toList();
+        var importLst = JmmSymbolTable.from(table).getImportedNames();
         if (typeDecl.getName().equals("int") || typeDecl.getName().equals("boolean") || importLst.contains(typeDecl.getName()) || table.getClassName().equals(typeDecl.getName())) {
             return null;
         }
@@ -50,7 +51,7 @@ public class ImportChecks extends AnalysisVisitor {
 
     private Void visitObjectDeclaration(JmmNode objectDecl, SymbolTable table) {
         Type typeDecl = TypeUtils.getExprType(objectDecl, table);
-        var importLst = table.getImports().stream().map(x -> x.split("\\.")[x.split("\\.").length - 1]).toList();
+        var importLst = JmmSymbolTable.from(table).getImportedNames();
         if (importLst.contains(typeDecl.getName()) || table.getClassName().equals(typeDecl.getName())) {
             return null;
         }
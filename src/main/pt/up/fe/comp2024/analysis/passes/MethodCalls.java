@@ -10,6 +10,7 @@ import pt.up.fe.comp2024.analysis.AnalysisVisitor;
 import pt.up.fe.comp2024.ast.Kind;
 import pt.up.fe.comp2024.ast.NodeUtils;
 import pt.up.fe.comp2024.ast.TypeUtils;
+import pt.up.fe.comp2024.symboltable.JmmSymbolTable;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -76,12 +77,8 @@ public class MethodCalls extends AnalysisVisitor {
         if (funcType.getName().isEmpty()) {
             JmmNode referer = funcCall.getChildren(Kind.VAR_REF_EXPR).get(0);
             Type refererType = TypeUtils.getExprType(referer, table);
-            for (var import_ : table.getImports()) {
-                var lst = import_.split("\\.");
-                String importName = lst[lst.length - 1];
-                if (importName.equals(refererType.getName())) {
-                    return null;
-                }
+            if (JmmSymbolTable.from(table).isImported(refererType.getName())) {
+                return null;
             }
             addReport(Report.newError(
                     Stage.SEMANTIC,
@@ -93,12 +90,9 @@ public class MethodCalls extends AnalysisVisitor {
             return null;
         }
         Type callerType = TypeUtils.getExprType(funcCall.getJmmChild(0), table);
-        for (var import_ : table.getImports()) {
-            var lst = import_.split("\\.");
-            String importName = lst[lst.length - 1];
-            if (importName.equals(callerType.getName()) || importName.equals(table.getSuper())) {
-                return null;
-            }
+        var importedNames = JmmSymbolTable.from(table).getImportedNames();
+        if (importedNames.contains(callerType.getName()) || importedNames.contains(table.getSuper())) {
+            return null;
         }
         List<JmmNode> paramLst = List.of();
         var methods = funcCall.getAncestor(Kind.CLASS_DECL).get().getChildren(Kind.METHOD_DECL);
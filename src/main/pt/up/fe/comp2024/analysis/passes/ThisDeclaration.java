@@ -8,8 +8,9 @@ import pt.up.fe.comp.jmm.report.Stage;
 import pt.up.fe.comp2024.analysis.AnalysisVisitor;
 import pt.up.fe.comp2024.ast.Kind;
 import pt.up.fe.comp2024.ast.NodeUtils;
+import pt.up.fe.comp2024.symboltable.JmmSymbolTable;
+import pt.up.fe.comp2024.symboltable.ResolvedSymbol;
 
-import java.util.Objects;
 
 public class ThisDeclaration extends AnalysisVisitor {
     private JmmNode currentMethod;
@@ -56,27 +57,16 @@ public class ThisDeclaration extends AnalysisVisitor {
     }
 
     private Void visitVarRefExpr(JmmNode varRefExpr, SymbolTable table) {
-        for (var local : table.getLocalVariables(currentMethod.get("name"))) {
-            if (Objects.equals(local.getName(), varRefExpr.get("name"))) {
-                return null;
-            }
-        }
-        for (var param : table.getParameters(currentMethod.get("name"))) {
-            if (Objects.equals(param.getName(), varRefExpr.get("name"))) {
-                return null;
-            }
-        }
-        for (var field : table.getFields()) {
-            if (Objects.equals(field.getName(), varRefExpr.get("name")) && currentMethod.get("isMain").equals("true")) {
-                addReport(Report.newError(
-                        Stage.SEMANTIC,
-                        NodeUtils.getLine(varRefExpr),
-                        NodeUtils.getColumn(varRefExpr),
-                        "Cannot use field in main method!",
-                        null)
-                );
-                return null;
-            }
+        var resolved = JmmSymbolTable.from(table).resolve(currentMethod.get("name"), varRefExpr.get("name"));
+        if (resolved.isPresent() && resolved.get().scope() == ResolvedSymbol.Scope.FIELD
+                && currentMethod.get("isMain").equals("true")) {
+            addReport(Report.newError(
+                    Stage.SEMANTIC,
+                    NodeUtils.getLine(varRefExpr),
+                    NodeUtils.getColumn(varRefExpr),
+                    "Cannot use field in main method!",
+                    null)
+            );
         }
         return null;
     }
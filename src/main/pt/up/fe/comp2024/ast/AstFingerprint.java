@@ -0,0 +1,115 @@
+package pt.up.fe.comp2024.ast;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.NodePosition;
+import pt.up.fe.comp2024.ast.nodes.CompactJmmNode;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Fingerprints of parts of the AST, a text with the kinds and attributes of their nodes, used to find out if a part of
+ * a program is the same as the one of a previous compilation.
+ * <p>
+ * The fingerprint of a class has everything outside the method bodies (imports, fields and the signatures of the
+ * methods), which the symbol table is built from. The fingerprint of a method has all of its nodes, and optionally
+ * their positions, with the lines relative to the first line of the method.
+ */
+public class AstFingerprint {
+
+    private static final Set<String> POSITION_ATTRIBUTES = Set.of(NodePosition.LINE_START.getString(),
+            NodePosition.COL_START.getString(), NodePosition.LINE_END.getString(), NodePosition.COL_END.getString());
+
+    private AstFingerprint() {
+    }
+
+    /**
+     * @return the fingerprint of everything in the program except the bodies of the methods, or empty if two methods
+     * have the same name, which makes them share symbols in the symbol table
+     */
+    public static String getClassFingerprint(JmmNode root) {
+        var fingerprint = new StringBuilder();
+        Set<String> methodNames = new HashSet<>();
+        if (!appendClass(root, fingerprint, methodNames)) {
+            return "";
+        }
+
+        return fingerprint.toString();
+    }
+
+    /**
+     * @return false if a method has the same name as another one
+     */
+    private static boolean appendClass(JmmNode node, StringBuilder fingerprint, Set<String> methodNames) {
+        appendNode(node, fingerprint, -1);
+
+        boolean isMethod = Kind.METHOD_DECL.check(node);
+        if (isMethod && !methodNames.add(node.get("name"))) {
+            return false;
+        }
+
+        for (int i = 0; i < node.getNumChildren(); i++) {
+            var child = node.getJmmChild(i);
+
+            // Only the signature of the methods is part of the class, the return type and the parameters
+            if (isMethod && !Kind.TYPE.check(child) && !Kind.PARAM.check(child)) {
+                continue;
+            }
+
+            if (!appendClass(child, fingerprint, methodNames)) {
+                return false;
+            }
+        }
+
+        fingerprint.append(')');
+        return true;
+    }
+
+    /**
+     * @param withPositions if the positions of the nodes are part of the fingerprint
+     */
+    public static String getMethodFingerprint(JmmNode method, boolean withPositions) {
+        var fingerprint = new StringBuilder();
+        appendMethod(method, withPositions ? getLine(method) : -1, fingerprint);
+
+        return fingerprint.toString();
+    }
+
+    private static void appendMethod(JmmNode node, int methodLine, StringBuilder fingerprint) {
+        appendNode(node, fingerprint, methodLine);
+
+        for (int i = 0; i < node.getNumChildren(); i++) {
+            appendMethod(node.getJmmChild(i), methodLine, fingerprint);
+        }
+
+        fingerprint.append(')');
+    }
+
+    /**
+     * Appends the kind and the attributes of a node, and its position if the line of the method it is in is given.
+     */
+    private static void appendNode(JmmNode node, StringBuilder fingerprint, int methodLine) {
+        fingerprint.append('(').append(node.getKind());
+
+        for (var attribute : node.getAttributes()) {
+            if (!POSITION_ATTRIBUTES.contains(attribute)) {
+                // The length of the value keeps the fingerprint unambiguous, names could contain separators
+                var value = String.valueOf(node.getObject(attribute));
+                fingerprint.append(' ').append(attribute).append('=').append(value.length()).append(':').append(value);
+            }
+        }
+
+        if (methodLine >= 0) {
+            fingerprint.append(" @").append(getLine(node) - methodLine).append(',').append(getColumn(node));
+        }
+    }
+
+    // Nodes built by the parser keep their position as numbers, which avoids converting it from a string
+    private static int getLine(JmmNode node) {
+        return node instanceof CompactJmmNode compactNode ? compactNode.getLineStart() : NodeUtils.getLine(node);
+    }
+
+    private static int getColumn(JmmNode node) {
+        return node instanceof CompactJmmNode compactNode ? compactNode.getColStart() : NodeUtils.getColumn(node);
+    }
+}
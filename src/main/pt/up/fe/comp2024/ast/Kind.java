@@ -1,13 +1,18 @@
 package pt.up.fe.comp2024.ast;
 
 import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.ast.nodes.CompactJmmNode;
 import pt.up.fe.specs.util.SpecsStrings;
 
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public enum Kind {
     PROGRAM,
+    IMPORT_STMT,
     CLASS_DECL,
     VAR_DECL,
     TYPE,
@@ -17,6 +22,9 @@ public enum Kind {
     ASSIGN_STMT,
     CONDITIONAL_STMT,
     WHILE_STMT,
+    FOR_STMT,
+    IF_EXPR,
+    ELSE_EXPR,
     RETURN_STMT,
     BINARY_EXPR,
     INTEGER_LITERAL,
@@ -39,6 +47,10 @@ public enum Kind {
     private static final Set<Kind> STATEMENTS = Set.of(ASSIGN_STMT, RETURN_STMT);
     private static final Set<Kind> EXPRESSIONS = Set.of(BINARY_EXPR, INTEGER_LITERAL, VAR_REF_EXPR);
 
+    // Built after the constants, as they are created before the static fields of the enum
+    private static final Map<String, Kind> KINDS = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(Kind::getNodeName, Function.identity()));
+
     private final String name;
 
     private Kind(String name) {
@@ -50,13 +62,23 @@ public enum Kind {
     }
 
     public static Kind fromString(String kind) {
+        var k = KINDS.get(kind);
+        if (k == null) {
+            throw new RuntimeException("Could not convert string '" + kind + "' to a Kind");
+        }
 
-        for (Kind k : Kind.values()) {
-            if (k.getNodeName().equals(kind)) {
-                return k;
-            }
+        return k;
+    }
+
+    /**
+     * @return the kind of the given node, without converting its name if the parser already set it
+     */
+    public static Kind of(JmmNode node) {
+        if (node instanceof CompactJmmNode compactNode && compactNode.getNodeKind() != null) {
+            return compactNode.getNodeKind();
         }
-        throw new RuntimeException("Could not convert string '" + kind + "' to a Kind");
+
+        return fromString(node.getKind());
     }
 
     public String getNodeName() {
@@ -89,6 +111,12 @@ public enum Kind {
      * @return
      */
     public boolean check(JmmNode node) {
+        // Nodes built by the parser know their kind. None of the kinds is a superkind of another one (e.g. 'Stmt'), so
+        // a node is an instance of a kind only if it is its own kind
+        if (node instanceof CompactJmmNode compactNode && compactNode.getNodeKind() != null) {
+            return compactNode.getNodeKind() == this;
+        }
+
         return node.isInstance(this);
     }
 
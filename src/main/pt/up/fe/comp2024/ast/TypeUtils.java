@@ -1,10 +1,13 @@
 package pt.up.fe.comp2024.ast;
 
+import pt.up.fe.comp.jmm.analysis.table.Symbol;
 import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.ast.nodes.CompactJmmNode;
 import pt.up.fe.comp2024.optimization.OllirExprResult;
 import pt.up.fe.comp2024.optimization.OptUtils;
+import pt.up.fe.comp2024.symboltable.JmmSymbolTable;
 
 import static pt.up.fe.comp2024.ast.Kind.*;
 
@@ -19,15 +22,44 @@ public class TypeUtils {
 
     /**
      * Gets the {@link Type} of an arbitrary expression.
+     * <p>
+     * The type of nodes built by the parser is computed once and kept in the node, so later calls for the same node
+     * and table return it directly. Passes that change the AST must call {@link #clearExprTypes(JmmNode)} afterward.
      *
      * @param expr
      * @param table
      * @return
      */
     public static Type getExprType(JmmNode expr, SymbolTable table) {
+        if (!(expr instanceof CompactJmmNode node)) {
+            return computeExprType(expr, table);
+        }
+
+        var type = node.getExprType(table);
+        if (type == null) {
+            type = computeExprType(expr, table);
+            node.setExprType(table, type);
+        }
+
+        return type;
+    }
+
+    /**
+     * Forgets the types computed for the nodes of a tree, since they depend on the surrounding nodes, e.g. the type of
+     * a function call on the statement it is in.
+     *
+     * @param root
+     */
+    public static void clearExprTypes(JmmNode root) {
+        root.getDescendantsAndSelfStream()
+                .filter(CompactJmmNode.class::isInstance)
+                .forEach(node -> ((CompactJmmNode) node).clearExprType());
+    }
+
+    private static Type computeExprType(JmmNode expr, SymbolTable table) {
         // TODO: Simple implementation that needs to be expanded
 
-        var kind = Kind.fromString(expr.getKind());
+        var kind = Kind.of(expr);
 
         Type type = switch (kind) {
             case BINARY_EXPR -> getBinExprType(expr);
@@ -75,42 +107,17 @@ public class TypeUtils {
 
 
     private static Type getVarExprType(JmmNode varRefExpr, SymbolTable table) {
-        JmmNode method;
-        if(varRefExpr.getAncestor(METHOD_DECL).isPresent()) {
-            method = varRefExpr.getAncestor(METHOD_DECL).get();
-            for (var local : table.getLocalVariables(method.get("name"))) {
-                if (local.getName().equals(varRefExpr.get("name"))) {
-                    return local.getType();
-                }
-            }
-            for (var param : table.getParameters(method.get("name"))) {
-                if (param.getName().equals(varRefExpr.get("name"))) {
-                    return param.getType();
-                }
-            }
-        }
-        for(var field: table.getFields()){
-            if (field.getName().equals(varRefExpr.get("name"))){
-                return field.getType();
-            }
-        }
-        for (var import_ : table.getImports()) {
-            var lst = import_.split("\\.");
-            String importName = lst[lst.length - 1];
-            if (importName.equals(varRefExpr.get("name"))) {
-                return new Type(importName, false);
-            }
-        }
-        return new Type("", false);
+        var method = varRefExpr.getAncestor(METHOD_DECL).map(methodDecl -> methodDecl.get("name")).orElse(null);
+
+        return JmmSymbolTable.from(table).resolve(method, varRefExpr.get("name"))
+                .map(resolved -> resolved.symbol().getType())
+                .orElseGet(() -> new Type("", false));
     }
 
     private static Type getFieldExprType(JmmNode fieldCall, SymbolTable table) {
-        for(var field: table.getFields()){
-            if (field.getName().equals(fieldCall.get("name"))){
-                return field.getType();
-            }
-        }
-        throw new RuntimeException("Field '" + fieldCall.get("name") + "' not found in table");
+        return JmmSymbolTable.from(table).getField(fieldCall.get("name"))
+                .map(Symbol::getType)
+                .orElseThrow(() -> new RuntimeException("Field '" + fieldCall.get("name") + "' not found in table"));
     }
 
     private static Type getFunctionCallType(JmmNode functionCall, SymbolTable table) {
@@ -118,8 +125,7 @@ public class TypeUtils {
         if (callerType.getName().equals("int") || callerType.getName().equals("boolean")){
             return new Type("", false);
         }
-        var importLst = table.getImports().stream().map(x -> x.split("\\.")[x.split("\\.").length - 1]).toList();
-        if ((callerType.getName().equals(table.getClassName()) && !importLst.contains(table.getSuper())) || (OBJECT.check(functionCall.getJmmChild(0)) && table.getSuper().isEmpty())){
+        if ((callerType.getName().equals(table.getClassName()) && !JmmSymbolTable.from(table).isImported(table.getSuper())) || (OBJECT.check(functionCall.getJmmChild(0)) && table.getSuper().isEmpty())){
             var methods = functionCall.getAncestor(Kind.CLASS_DECL).get().getChildren(Kind.METHOD_DECL);
             for (var method : methods){
                 if (method.get("name").equals(functionCall.get("name"))){
@@ -0,0 +1,52 @@
+package pt.up.fe.comp2024.ast;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.ast.nodes.CompactJmmNode;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Caches the visit method of a visitor for each {@link Kind}, so it is found by indexing an array with the ordinal of
+ * the kind, instead of looking up each name of the hierarchy of the node in a map.
+ * <p>
+ * Visitors use it by overriding getVisit:
+ * <pre>
+ * private final VisitDispatchTable&lt;D, R&gt; dispatchTable = new VisitDispatchTable&lt;&gt;(super::getVisit);
+ *
+ * protected BiFunction&lt;JmmNode, D, R&gt; getVisit(JmmNode node) {
+ *     return dispatchTable.getVisit(node);
+ * }
+ * </pre>
+ * The visit methods must not change after the first visit, which holds for the ones added in buildVisitor().
+ */
+public class VisitDispatchTable<D, R> {
+
+    private final Function<JmmNode, BiFunction<JmmNode, D, R>> lookup;
+    private final BiFunction<JmmNode, D, R>[] visits;
+
+    /**
+     * @param lookup finds the visit method of a node through its hierarchy, used the first time each kind is visited
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public VisitDispatchTable(Function<JmmNode, BiFunction<JmmNode, D, R>> lookup) {
+        this.lookup = lookup;
+        this.visits = new BiFunction[Kind.values().length];
+    }
+
+    public BiFunction<JmmNode, D, R> getVisit(JmmNode node) {
+        // Only nodes built by the parser know their kind, and all the nodes of a kind share the same hierarchy
+        if (!(node instanceof CompactJmmNode compactNode) || compactNode.getNodeKind() == null) {
+            return lookup.apply(node);
+        }
+
+        int index = compactNode.getNodeKind().ordinal();
+        var visit = visits[index];
+        if (visit == null) {
+            visit = lookup.apply(node);
+            visits[index] = visit;
+        }
+
+        return visit;
+    }
+}
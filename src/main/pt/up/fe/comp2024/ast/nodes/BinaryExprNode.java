@@ -0,0 +1,46 @@
+package pt.up.fe.comp2024.ast.nodes;
+
+import pt.up.fe.comp2024.ast.Kind;
+
+import java.util.List;
+
+/**
+ * BinaryExpr node, with the operator as an {@link Operator}.
+ */
+public class BinaryExprNode extends CompactJmmNode {
+
+    private static final String OP = "op";
+
+    private static final List<String> ATTRIBUTES = attributeOrder(OP);
+
+    private Operator op;
+
+    public BinaryExprNode(List<String> hierarchy, Kind nodeKind, Operator op) {
+        super(hierarchy, nodeKind);
+        this.op = op;
+    }
+
+    public Operator getOp() {
+        return op;
+    }
+
+    @Override
+    protected List<String> getTypedAttributes() {
+        return ATTRIBUTES;
+    }
+
+    @Override
+    protected Object getTypedObject(String attribute) {
+        return OP.equals(attribute) ? op.getSymbol() : super.getTypedObject(attribute);
+    }
+
+    @Override
+    protected boolean setTypedObject(String attribute, Object value) {
+        if (!OP.equals(attribute)) {
+            return super.setTypedObject(attribute, value);
+        }
+
+        op = value instanceof Operator operator ? operator : Operator.fromSymbol(value.toString());
+        return true;
+    }
+}
@@ -0,0 +1,65 @@
+package pt.up.fe.comp2024.ast.nodes;
+
+import pt.up.fe.comp2024.ast.Kind;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * ClassDecl node, with the name of the class and of its superclass, if any.
+ */
+public class ClassDeclNode extends CompactJmmNode {
+
+    private static final String CLASSNAME = "classname";
+    private static final String SUPERCLASS = "superclass";
+
+    private static final List<String> ATTRIBUTES = attributeOrder(CLASSNAME);
+    private static final List<String> ATTRIBUTES_WITH_SUPERCLASS = attributeOrder(CLASSNAME, SUPERCLASS);
+
+    private String classname;
+    private String superclass;
+
+    /**
+     * @param superclass the name of the superclass, or null if the class does not extend another one
+     */
+    public ClassDeclNode(List<String> hierarchy, Kind nodeKind, String classname, String superclass) {
+        super(hierarchy, nodeKind);
+        this.classname = classname;
+        this.superclass = superclass;
+    }
+
+    public String getClassname() {
+        return classname;
+    }
+
+    public Optional<String> getSuperclass() {
+        return Optional.ofNullable(superclass);
+    }
+
+    @Override
+    protected List<String> getTypedAttributes() {
+        return superclass == null ? ATTRIBUTES : ATTRIBUTES_WITH_SUPERCLASS;
+    }
+
+    @Override
+    protected Object getTypedObject(String attribute) {
+        return switch (attribute) {
+            case CLASSNAME -> classname;
+            case SUPERCLASS -> superclass;
+            default -> super.getTypedObject(attribute);
+        };
+    }
+
+    @Override
+    protected boolean setTypedObject(String attribute, Object value) {
+        switch (attribute) {
+            case CLASSNAME -> classname = value.toString();
+            case SUPERCLASS -> superclass = value.toString();
+            default -> {
+                return super.setTypedObject(attribute, value);
+            }
+        }
+
+        return true;
+    }
+}
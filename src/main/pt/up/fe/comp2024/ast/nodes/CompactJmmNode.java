@@ -0,0 +1,241 @@
+package pt.up.fe.comp2024.ast.nodes;
+
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.analysis.table.Type;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.comp.jmm.ast.NodePosition;
+import pt.up.fe.comp2024.ast.Kind;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * AST node built directly from the ANTLR parse tree, which keeps the attributes set by the parser in typed fields
+ * instead of a map of strings.
+ * <p>
+ * It is still a {@link JmmNodeImpl}, and the typed fields are exposed as regular attributes, with the same values and
+ * in the same order as the ones of the generic conversion. Attributes added later by the compiler are kept in the map
+ * of the node, as usual.
+ * <p>
+ * The node also knows its {@link Kind}, so checking it does not need to compare strings, and can keep its type as an
+ * expression once it is computed by {@link pt.up.fe.comp2024.ast.TypeUtils}.
+ * <p>
+ * Read-only analysis passes running in parallel may compute and store the type of the same node at the same time (see
+ * {@link pt.up.fe.comp2024.analysis.AnalysisPass#isReadOnly()}). This is safe without locks as long as the cached
+ * entry stays immutable and is replaced as a whole, and its table is compared by identity: a thread either sees no
+ * type, and computes the same one again, or a complete entry.
+ */
+public class CompactJmmNode extends JmmNodeImpl {
+
+    private static final String LINE_START = NodePosition.LINE_START.getString();
+    private static final String COL_START = NodePosition.COL_START.getString();
+    private static final String LINE_END = NodePosition.LINE_END.getString();
+    private static final String COL_END = NodePosition.COL_END.getString();
+
+    private static final List<String> ATTRIBUTES = attributeOrder();
+
+    private Kind nodeKind;
+
+    private int lineStart;
+    private int colStart;
+    private int lineEnd;
+    private int colEnd;
+
+    // Immutable, so that threads that read it without synchronization see a complete entry
+    private ExprType exprType;
+
+    /**
+     * @param hierarchy the kind of the node, followed by its superkinds
+     * @param nodeKind  the {@link Kind} of the node, or null if it has none
+     */
+    public CompactJmmNode(List<String> hierarchy, Kind nodeKind) {
+        super(hierarchy.get(0));
+        this.hierarchy = hierarchy;
+        this.nodeKind = nodeKind;
+    }
+
+    /**
+     * @return the {@link Kind} of the node, or null if it has none
+     */
+    public Kind getNodeKind() {
+        return nodeKind;
+    }
+
+    @Override
+    public void setHierarchy(Collection<String> hierarchy) {
+        super.setHierarchy(hierarchy);
+
+        // The kind is no longer known, it is checked through the hierarchy
+        nodeKind = null;
+    }
+
+    // The default implementations copy the list of children to get one of them
+    @Override
+    public JmmNode getJmmChild(int index) {
+        return children.get(index);
+    }
+
+    @Override
+    public JmmNode getChild(int index) {
+        return children.get(index);
+    }
+
+    /**
+     * @return the type of the node as an expression, if it was computed with the given table, otherwise null
+     */
+    public Type getExprType(SymbolTable table) {
+        // Read once, so the table and the type are from the same computation
+        var cached = exprType;
+        return cached != null && cached.table() == table ? cached.type() : null;
+    }
+
+    public void setExprType(SymbolTable table, Type type) {
+        exprType = new ExprType(table, type);
+    }
+
+    public void clearExprType() {
+        exprType = null;
+    }
+
+    public void setPosition(int lineStart, int colStart, int lineEnd, int colEnd) {
+        this.lineStart = lineStart;
+        this.colStart = colStart;
+        this.lineEnd = lineEnd;
+        this.colEnd = colEnd;
+    }
+
+    public int getLineStart() {
+        return lineStart;
+    }
+
+    public int getColStart() {
+        return colStart;
+    }
+
+    public int getLineEnd() {
+        return lineEnd;
+    }
+
+    public int getColEnd() {
+        return colEnd;
+    }
+
+    /**
+     * @return the names of the attributes kept in typed fields that are currently set
+     */
+    protected List<String> getTypedAttributes() {
+        return ATTRIBUTES;
+    }
+
+    /**
+     * @return the value of a typed attribute, or null if the attribute is not kept in a typed field or is not set
+     */
+    protected Object getTypedObject(String attribute) {
+        if (LINE_START.equals(attribute)) {
+            return Integer.toString(lineStart);
+        }
+        if (COL_START.equals(attribute)) {
+            return Integer.toString(colStart);
+        }
+        if (LINE_END.equals(attribute)) {
+            return Integer.toString(lineEnd);
+        }
+        if (COL_END.equals(attribute)) {
+            return Integer.toString(colEnd);
+        }
+
+        return null;
+    }
+
+    /**
+     * Sets a typed attribute, converting the value from its string form if needed.
+     *
+     * @return false if the attribute is not kept in a typed field
+     */
+    protected boolean setTypedObject(String attribute, Object value) {
+        if (LINE_START.equals(attribute)) {
+            lineStart = toInt(value);
+        } else if (COL_START.equals(attribute)) {
+            colStart = toInt(value);
+        } else if (LINE_END.equals(attribute)) {
+            lineEnd = toInt(value);
+        } else if (COL_END.equals(attribute)) {
+            colEnd = toInt(value);
+        } else {
+            return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public Collection<String> getAttributes() {
+        var otherAttributes = super.getAttributes();
+        if (otherAttributes.isEmpty()) {
+            return getTypedAttributes();
+        }
+
+        // Same order as if all attributes were in the map, typed ones first as they were set by the parser
+        var attributes = new HashMap<String, Object>();
+        getTypedAttributes().forEach(attribute -> attributes.put(attribute, attribute));
+        otherAttributes.forEach(attribute -> attributes.put(attribute, attribute));
+
+        return List.copyOf(attributes.keySet());
+    }
+
+    @Override
+    public boolean hasAttribute(String attribute) {
+        return getTypedObject(attribute) != null || super.getAttributes().contains(attribute);
+    }
+
+    @Override
+    public Object getObject(String attribute) {
+        var value = getTypedObject(attribute);
+        return value != null ? value : super.getObject(attribute);
+    }
+
+    @Override
+    public Object putObject(String attribute, Object value) {
+        var previous = getTypedObject(attribute);
+        return setTypedObject(attribute, value) ? previous : super.putObject(attribute, value);
+    }
+
+    /**
+     * Same as {@link #putObject(String, Object)}, with the previous value in the string form {@link #get(String)}
+     * returns, since typed attributes may hold booleans or lists.
+     */
+    @Override
+    public String put(String attribute, String value) {
+        var previous = putObject(attribute, value);
+        return previous != null ? previous.toString() : null;
+    }
+
+    /**
+     * @return the given attributes, plus the position ones, in the order a {@link HashMap} would iterate them after
+     * inserting the position attributes and then the given ones, which is the order of the generic conversion
+     */
+    protected static List<String> attributeOrder(String... attributes) {
+        var map = new HashMap<String, Object>();
+        for (var attribute : List.of(LINE_START, COL_START, LINE_END, COL_END)) {
+            map.put(attribute, attribute);
+        }
+        for (var attribute : attributes) {
+            map.put(attribute, attribute);
+        }
+
+        return List.copyOf(map.keySet());
+    }
+
+    private record ExprType(SymbolTable table, Type type) {
+    }
+
+    protected static int toInt(Object value) {
+        return value instanceof Integer integer ? integer : Integer.parseInt(value.toString());
+    }
+
+    protected static boolean toBoolean(Object value) {
+        return value instanceof Boolean bool ? bool : Boolean.parseBoolean(value.toString());
+    }
+}
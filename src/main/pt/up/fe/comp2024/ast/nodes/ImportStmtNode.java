@@ -0,0 +1,63 @@
+package pt.up.fe.comp2024.ast.nodes;
+
+import pt.up.fe.comp2024.ast.Kind;
+
+import java.util.List;
+
+/**
+ * ImportStmt node, with the parts of the imported name. As in the parser, 'ID' is the last part of the name.
+ */
+public class ImportStmtNode extends CompactJmmNode {
+
+    private static final String ID = "ID";
+    private static final String NAME = "name";
+
+    private static final List<String> ATTRIBUTES = attributeOrder(ID, NAME);
+
+    private String id;
+    private List<String> name;
+
+    public ImportStmtNode(List<String> hierarchy, Kind nodeKind, List<String> name) {
+        super(hierarchy, nodeKind);
+        this.id = name.get(name.size() - 1);
+        this.name = name;
+    }
+
+    public List<String> getName() {
+        return name;
+    }
+
+    @Override
+    protected List<String> getTypedAttributes() {
+        return ATTRIBUTES;
+    }
+
+    @Override
+    protected Object getTypedObject(String attribute) {
+        return switch (attribute) {
+            case ID -> id;
+            case NAME -> name;
+            default -> super.getTypedObject(attribute);
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected boolean setTypedObject(String attribute, Object value) {
+        switch (attribute) {
+            case ID -> id = value.toString();
+            case NAME -> {
+                // The parts of the name cannot be told apart in a string
+                if (!(value instanceof List<?>)) {
+                    throw new IllegalArgumentException("Attribute '" + NAME + "' of an import is a list, got " + value);
+                }
+                name = (List<String>) value;
+            }
+            default -> {
+                return super.setTypedObject(attribute, value);
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,46 @@
+package pt.up.fe.comp2024.ast.nodes;
+
+import pt.up.fe.comp2024.ast.Kind;
+
+import java.util.List;
+
+/**
+ * IntegerLiteral node, with the value as an int. Literals that do not fit in an int are kept in a {@link TokenNode}.
+ */
+public class IntegerLiteralNode extends CompactJmmNode {
+
+    private static final String VALUE = "value";
+
+    private static final List<String> ATTRIBUTES = attributeOrder(VALUE);
+
+    private int value;
+
+    public IntegerLiteralNode(List<String> hierarchy, Kind nodeKind, int value) {
+        super(hierarchy, nodeKind);
+        this.value = value;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    @Override
+    protected List<String> getTypedAttributes() {
+        return ATTRIBUTES;
+    }
+
+    @Override
+    protected Object getTypedObject(String attribute) {
+        return VALUE.equals(attribute) ? Integer.toString(value) : super.getTypedObject(attribute);
+    }
+
+    @Override
+    protected boolean setTypedObject(String attribute, Object value) {
+        if (!VALUE.equals(attribute)) {
+            return super.setTypedObject(attribute, value);
+        }
+
+        this.value = toInt(value);
+        return true;
+    }
+}
@@ -0,0 +1,79 @@
+package pt.up.fe.comp2024.ast.nodes;
+
+import pt.up.fe.comp2024.ast.Kind;
+
+import java.util.List;
+
+/**
+ * MethodDecl node, with the name of the method, its modifiers and, for the main method, the name of its argument.
+ */
+public class MethodDeclNode extends CompactJmmNode {
+
+    private static final String IS_PUBLIC = "isPublic";
+    private static final String IS_MAIN = "isMain";
+    private static final String NAME = "name";
+    private static final String ARG = "arg";
+
+    private static final List<String> ATTRIBUTES = attributeOrder(IS_PUBLIC, IS_MAIN, NAME);
+    private static final List<String> ATTRIBUTES_WITH_ARG = attributeOrder(IS_PUBLIC, IS_MAIN, NAME, ARG);
+
+    private String name;
+    private boolean isPublic;
+    private boolean isMain;
+    private String arg;
+
+    /**
+     * @param arg the name of the argument of the main method, or null for other methods
+     */
+    public MethodDeclNode(List<String> hierarchy, Kind nodeKind, String name, boolean isPublic, boolean isMain,
+                          String arg) {
+        super(hierarchy, nodeKind);
+        this.name = name;
+        this.isPublic = isPublic;
+        this.isMain = isMain;
+        this.arg = arg;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isPublic() {
+        return isPublic;
+    }
+
+    public boolean isMain() {
+        return isMain;
+    }
+
+    @Override
+    protected List<String> getTypedAttributes() {
+        return arg == null ? ATTRIBUTES : ATTRIBUTES_WITH_ARG;
+    }
+
+    @Override
+    protected Object getTypedObject(String attribute) {
+        return switch (attribute) {
+            case NAME -> name;
+            case IS_PUBLIC -> isPublic;
+            case IS_MAIN -> isMain;
+            case ARG -> arg;
+            default -> super.getTypedObject(attribute);
+        };
+    }
+
+    @Override
+    protected boolean setTypedObject(String attribute, Object value) {
+        switch (attribute) {
+            case NAME -> name = value.toString();
+            case IS_PUBLIC -> isPublic = toBoolean(value);
+            case IS_MAIN -> isMain = toBoolean(value);
+            case ARG -> arg = value.toString();
+            default -> {
+                return super.setTypedObject(attribute, value);
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,54 @@
+package pt.up.fe.comp2024.ast.nodes;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The operators of BinaryExpr nodes.
+ */
+public enum Operator {
+    MUL("*"),
+    DIV("/"),
+    ADD("+"),
+    SUB("-"),
+    MUL_ASSIGN("*="),
+    DIV_ASSIGN("/="),
+    SUB_ASSIGN("-="),
+    LT("<"),
+    GT(">"),
+    LE("<="),
+    GE(">="),
+    EQ("=="),
+    NE("!="),
+    AND("&&"),
+    OR("||");
+
+    private static final Map<String, Operator> OPERATORS = Arrays.stream(values())
+            .collect(Collectors.toMap(Operator::getSymbol, Function.identity()));
+
+    private final String symbol;
+
+    Operator(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public static Operator fromSymbol(String symbol) {
+        var operator = OPERATORS.get(symbol);
+        if (operator == null) {
+            throw new RuntimeException("Could not convert string '" + symbol + "' to an Operator");
+        }
+
+        return operator;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    @Override
+    public String toString() {
+        return symbol;
+    }
+}
@@ -0,0 +1,51 @@
+package pt.up.fe.comp2024.ast.nodes;
+
+import pt.up.fe.comp2024.ast.Kind;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Node with a single attribute holding the text of a token, e.g. the 'name' of a VarDecl or the 'value' of a
+ * TrueLiteral.
+ */
+public class TokenNode extends CompactJmmNode {
+
+    private static final Map<String, List<String>> ATTRIBUTES = new ConcurrentHashMap<>();
+
+    private final String attribute;
+    private final List<String> attributes;
+    private String text;
+
+    public TokenNode(List<String> hierarchy, Kind nodeKind, String attribute, String text) {
+        super(hierarchy, nodeKind);
+        this.attribute = attribute;
+        this.attributes = ATTRIBUTES.computeIfAbsent(attribute, CompactJmmNode::attributeOrder);
+        this.text = text;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    protected List<String> getTypedAttributes() {
+        return attributes;
+    }
+
+    @Override
+    protected Object getTypedObject(String attribute) {
+        return this.attribute.equals(attribute) ? text : super.getTypedObject(attribute);
+    }
+
+    @Override
+    protected boolean setTypedObject(String attribute, Object value) {
+        if (!this.attribute.equals(attribute)) {
+            return super.setTypedObject(attribute, value);
+        }
+
+        text = value.toString();
+        return true;
+    }
+}
@@ -0,0 +1,69 @@
+package pt.up.fe.comp2024.ast.nodes;
+
+import pt.up.fe.comp2024.ast.Kind;
+
+import java.util.List;
+
+/**
+ * Type node, with the name of the type and whether it is an array or varargs.
+ */
+public class TypeNode extends CompactJmmNode {
+
+    private static final String IS_ARRAY = "isArray";
+    private static final String IS_VAR_ARGS = "isVarArgs";
+    private static final String NAME = "name";
+
+    private static final List<String> ATTRIBUTES = attributeOrder(IS_ARRAY, IS_VAR_ARGS, NAME);
+
+    private String name;
+    private boolean isArray;
+    private boolean isVarArgs;
+
+    public TypeNode(List<String> hierarchy, Kind nodeKind, String name, boolean isArray, boolean isVarArgs) {
+        super(hierarchy, nodeKind);
+        this.name = name;
+        this.isArray = isArray;
+        this.isVarArgs = isVarArgs;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isArray() {
+        return isArray;
+    }
+
+    public boolean isVarArgs() {
+        return isVarArgs;
+    }
+
+    @Override
+    protected List<String> getTypedAttributes() {
+        return ATTRIBUTES;
+    }
+
+    @Override
+    protected Object getTypedObject(String attribute) {
+        return switch (attribute) {
+            case NAME -> name;
+            case IS_ARRAY -> isArray;
+            case IS_VAR_ARGS -> isVarArgs;
+            default -> super.getTypedObject(attribute);
+        };
+    }
+
+    @Override
+    protected boolean setTypedObject(String attribute, Object value) {
+        switch (attribute) {
+            case NAME -> name = value.toString();
+            case IS_ARRAY -> isArray = toBoolean(value);
+            case IS_VAR_ARGS -> isVarArgs = toBoolean(value);
+            default -> {
+                return super.setTypedObject(attribute, value);
+            }
+        }
+
+        return true;
+    }
+}
@@ -3,15 +3,22 @@ package pt.up.fe.comp2024.backend;
 import pt.up.fe.comp.jmm.jasmin.JasminBackend;
 import pt.up.fe.comp.jmm.jasmin.JasminResult;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.MethodCodeCache;
+import pt.up.fe.comp2024.metrics.Metrics;
 
 public class JasminBackendImpl implements JasminBackend {
 
     @Override
     public JasminResult toJasmin(OllirResult ollirResult) {
 
-        var jasminGenerator = new JasminGenerator(ollirResult);
-        var jasminCode = jasminGenerator.build();
-        System.out.println(jasminCode);
+        var methodCache = CompilerConfig.isIncremental(ollirResult.getConfig())
+                ? MethodCodeCache.getJasminShared() : null;
+        var jasminGenerator = new JasminGenerator(ollirResult, methodCache);
+        String jasminCode;
+        try (var phase = Metrics.start("jasmin-generation")) {
+            jasminCode = jasminGenerator.build();
+        }
 
         return new JasminResult(ollirResult, jasminCode, jasminGenerator.getReports());
     }
@@ -4,14 +4,17 @@ import org.specs.comp.ollir.*;
 import org.specs.comp.ollir.tree.TreeNode;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
 import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.MethodCodeCache;
 import pt.up.fe.specs.util.classmap.FunctionClassMap;
 import pt.up.fe.specs.util.exceptions.NotImplementedException;
 import pt.up.fe.specs.util.utilities.StringLines;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import static java.lang.Integer.parseInt;
@@ -41,8 +44,20 @@ public class JasminGenerator {
 
     private final FunctionClassMap<TreeNode, String> generators;
 
+    // Code of the methods generated before, null if it is not used
+    private final MethodCodeCache methodCache;
+
     public JasminGenerator(OllirResult ollirResult) {
+        this(ollirResult, null);
+    }
+
+    /**
+     * @param methodCache the code of the methods generated before, which is reused for the methods whose OLLIR code
+     *                    did not change
+     */
+    public JasminGenerator(OllirResult ollirResult, MethodCodeCache methodCache) {
         this.ollirResult = ollirResult;
+        this.methodCache = methodCache;
 
         reports = new ArrayList<>();
         code = null;
@@ -199,6 +214,7 @@ public class JasminGenerator {
         code.append(constructor);
 
         // METHODS --------------------------------------------------------------------------------
+        var methodKeys = getMethodKeys();
         for (var method : ollirResult.getOllirClass().getMethods()) {
 
             // Ignore constructor, since there is always one constructor
@@ -208,12 +224,49 @@ public class JasminGenerator {
                 continue;
             }
 
-            code.append(generators.apply(method));
+            var key = methodKeys.get(method.getMethodName());
+            if (key == null) {
+                code.append(generators.apply(method));
+                continue;
+            }
+
+            var methodCode = methodCache.get(key).orElse(null);
+            if (methodCode == null) {
+                methodCode = generators.apply(method);
+                methodCache.put(key, methodCode);
+            }
+            code.append(methodCode);
         }
 
         return code.toString();
     }
 
+    /**
+     * The Jasmin code of a method depends on its OLLIR code, on the rest of the class (the imports, the class and the
+     * fields), and on the options that change the OLLIR code after it was parsed.
+     *
+     * @return the keys of the methods in the cache, by name, empty if they are not cached
+     */
+    private Map<String, String> getMethodKeys() {
+        if (methodCache == null) {
+            return Map.of();
+        }
+
+        var parts = OllirCodeParts.split(ollirResult.getOllirCode()).orElse(null);
+        if (parts == null) {
+            return Map.of();
+        }
+
+        var config = ollirResult.getConfig();
+        var classKey = methodCache.getKey(parts.header(), "optimize=" + CompilerConfig.getOptimize(config),
+                "registerAllocation=" + CompilerConfig.getRegisterAllocation(config));
+
+        Map<String, String> keys = new HashMap<>();
+        parts.methods().forEach((name, methodCode) -> keys.put(name, methodCache.getKey(classKey, methodCode)));
+
+        return keys;
+    }
+
 
     private String generateMethod(Method method) {
 
@@ -293,14 +346,14 @@ public class JasminGenerator {
     }
 
     private int calculateLimitLocals(Method method) {
-        Set<Integer> uniqueRegisters = new TreeSet<>();
-        uniqueRegisters.add(0);
+        // The locals go up to the highest register, several variables may share one after register allocation, and
+        // fields have none (-1)
+        int limitLocals = method.isStaticMethod() ? 0 : 1;
 
-        // Verify all variables
         for (Descriptor variable : method.getVarTable().values()) {
-            uniqueRegisters.add(variable.getVirtualReg()); // Variable index
+            limitLocals = Math.max(limitLocals, variable.getVirtualReg() + 1);
         }
-        return uniqueRegisters.size();
+        return limitLocals;
     }
 
 
@@ -0,0 +1,96 @@
+package pt.up.fe.comp2024.backend;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The OLLIR code of a class split into the code of each method and the rest of the class (imports, the declaration
+ * of the class, the fields and the constructor).
+ *
+ * @param header  the code outside the methods
+ * @param methods the code of each method, by name
+ */
+record OllirCodeParts(String header, Map<String, String> methods) {
+
+    private static final String METHOD_START = ".method ";
+
+    /**
+     * @return the parts of the given code, or empty if two methods have the same name
+     */
+    static Optional<OllirCodeParts> split(String ollirCode) {
+        var header = new StringBuilder();
+        Map<String, String> methods = new LinkedHashMap<>();
+
+        StringBuilder method = null;
+        String methodName = null;
+        int depth = 0;
+        boolean opened = false;
+
+        for (var line : ollirCode.split("\n", -1)) {
+            if (method == null && line.stripLeading().startsWith(METHOD_START)) {
+                method = new StringBuilder();
+                methodName = getMethodName(line);
+                depth = 0;
+                opened = false;
+            }
+
+            if (method == null) {
+                header.append(line).append('\n');
+                continue;
+            }
+
+            method.append(line).append('\n');
+            depth += countBraces(line);
+            opened |= depth > 0;
+
+            // The method ends with the brace that closes its body
+            if (opened && depth <= 0) {
+                if (methods.put(methodName, method.toString()) != null) {
+                    return Optional.empty();
+                }
+                method = null;
+            }
+        }
+
+        // A method that is not closed is only part of the header, its code is not reused
+        if (method != null) {
+            header.append(method);
+        }
+
+        return Optional.of(new OllirCodeParts(header.toString(), methods));
+    }
+
+    private static String getMethodName(String line) {
+        var signature = line.stripLeading().substring(METHOD_START.length());
+        int paramsStart = signature.indexOf('(');
+        if (paramsStart >= 0) {
+            signature = signature.substring(0, paramsStart);
+        }
+
+        // The name comes after the modifiers
+        var words = signature.trim().split("\\s+");
+        return words[words.length - 1];
+    }
+
+    /**
+     * @return the number of opening braces minus the number of closing ones, outside string literals
+     */
+    private static int countBraces(String line) {
+        int count = 0;
+        boolean inString = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                inString = !inString;
+            } else if (!inString && c == '{') {
+                count++;
+            } else if (!inString && c == '}') {
+                count--;
+            }
+        }
+
+        return count;
+    }
+}
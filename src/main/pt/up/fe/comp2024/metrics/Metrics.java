@@ -0,0 +1,168 @@
+package pt.up.fe.comp2024.metrics;
+
+import com.google.gson.GsonBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records wall time, CPU time and allocated bytes of the phases of the compiler.
+ * <p>
+ * Phases are recorded per thread, so several inputs can be compiled concurrently. Use it with try-with-resources:
+ * <pre>
+ * try (var phase = Metrics.start("parsing")) {
+ *     ...
+ * }
+ * </pre>
+ * Phases started inside another phase are nested in it. Each finished phase is also emitted as a JFR event.
+ * <p>
+ * Phases are only recorded between {@link #enable()} and {@link #collect()} (e.g. for '-m', or by
+ * {@link pt.up.fe.comp2024.JmmCompiler}). Outside of them, the stages can be used directly (e.g. by the tests and the
+ * benchmarks) without keeping their phases: a phase only emits its JFR event, and measures nothing else.
+ */
+public class Metrics {
+
+    private static final java.lang.management.ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final ThreadLocal<Recorder> RECORDER = ThreadLocal.withInitial(Recorder::new);
+
+    private static class Recorder {
+        private final List<PhaseMetrics> phases = new ArrayList<>();
+        private int depth = 0;
+        private boolean isEnabled = false;
+    }
+
+    /**
+     * A phase that is being measured, stops measuring when closed.
+     */
+    public static class Phase implements AutoCloseable {
+
+        private final String name;
+        private final Recorder recorder;
+        private final PhaseMetrics metrics;
+        private final PhaseEvent event;
+        private final long startWall;
+        private final long startCpu;
+        private final long startAllocated;
+
+        /**
+         * @param recorder the recorder that keeps the phase, or null to only emit the JFR event
+         */
+        private Phase(String name, Recorder recorder) {
+            this.name = name;
+            this.recorder = recorder;
+            this.metrics = recorder == null ? null : new PhaseMetrics(name, recorder.depth);
+            this.event = new PhaseEvent();
+            this.event.begin();
+
+            if (recorder == null) {
+                this.startAllocated = -1;
+                this.startCpu = -1;
+                this.startWall = 0;
+                return;
+            }
+
+            // Phases are kept in the order they start, so that nested phases come after the enclosing one
+            recorder.phases.add(metrics);
+            recorder.depth++;
+
+            this.startAllocated = getAllocatedBytes();
+            this.startCpu = getCpuNanos();
+            this.startWall = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            long cpu = -1;
+            long allocated = -1;
+
+            if (recorder != null) {
+                long wall = System.nanoTime() - startWall;
+                cpu = startCpu < 0 ? -1 : getCpuNanos() - startCpu;
+                allocated = startAllocated < 0 ? -1 : getAllocatedBytes() - startAllocated;
+
+                metrics.finish(wall, cpu, allocated);
+                recorder.depth--;
+            }
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = name;
+                event.cpuTime = cpu;
+                event.allocated = allocated;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Starts measuring a phase in the current thread. The phase is only recorded if the thread is between
+     * {@link #enable()} and {@link #collect()}.
+     *
+     * @param name the name of the phase
+     * @return the phase, which must be closed when the phase ends
+     */
+    public static Phase start(String name) {
+        var recorder = RECORDER.get();
+
+        return new Phase(name, recorder.isEnabled ? recorder : null);
+    }
+
+    /**
+     * Starts recording the phases of the current thread, discarding any phases left by a previous recording.
+     */
+    public static void enable() {
+        var recorder = RECORDER.get();
+        recorder.phases.clear();
+        recorder.depth = 0;
+        recorder.isEnabled = true;
+    }
+
+    /**
+     * Returns the phases recorded in the current thread since {@link #enable()}, and stops recording them.
+     *
+     * @return the phases in the order they started, empty if the thread was not recording
+     */
+    public static List<PhaseMetrics> collect() {
+        var recorder = RECORDER.get();
+        var phases = List.copyOf(recorder.phases);
+        recorder.phases.clear();
+        recorder.depth = 0;
+        recorder.isEnabled = false;
+
+        return phases;
+    }
+
+    /**
+     * Converts the phases of each input to JSON.
+     *
+     * @param phasesPerInput the phases recorded for each input, in the order they should be reported
+     */
+    public static String toJson(Map<String, List<PhaseMetrics>> phasesPerInput) {
+        List<Map<String, Object>> inputs = new ArrayList<>();
+
+        phasesPerInput.forEach((input, phases) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("input", input);
+            entry.put("phases", phases);
+            inputs.add(entry);
+        });
+
+        return new GsonBuilder().setPrettyPrinting().create().toJson(Map.of("inputs", inputs));
+    }
+
+    private static long getCpuNanos() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long getAllocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemorySupported()) {
+            return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        return -1;
+    }
+}
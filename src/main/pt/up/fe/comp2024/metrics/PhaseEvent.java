@@ -0,0 +1,29 @@
+package pt.up.fe.comp2024.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event emitted at the end of each compiler phase, so phases show up in a flight recording
+ * (e.g. 'java -XX:StartFlightRecording=filename=jmm.jfr ...').
+ */
+@Name("pt.up.fe.comp2024.Phase")
+@Label("Compiler Phase")
+@Category("Java-- Compiler")
+class PhaseEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("CPU Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long cpuTime;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+}
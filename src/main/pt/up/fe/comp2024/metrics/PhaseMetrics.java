@@ -0,0 +1,55 @@
+package pt.up.fe.comp2024.metrics;
+
+/**
+ * Measurements of a single phase of the compiler (e.g. parsing, or one analysis pass).
+ * <p>
+ * Times are in nanoseconds. CPU time and allocated bytes are -1 if the JVM does not support measuring them.
+ */
+public class PhaseMetrics {
+
+    private final String name;
+    private final int depth;
+    private long wallNanos;
+    private long cpuNanos;
+    private long allocatedBytes;
+
+    PhaseMetrics(String name, int depth) {
+        this.name = name;
+        this.depth = depth;
+    }
+
+    void finish(long wallNanos, long cpuNanos, long allocatedBytes) {
+        this.wallNanos = wallNanos;
+        this.cpuNanos = cpuNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return how many phases enclose this one, 0 for a top-level phase
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "  ".repeat(depth) + name + ": " + (wallNanos / 1000) + " us wall, " + (cpuNanos / 1000) + " us cpu, "
+                + allocatedBytes + " bytes";
+    }
+}
@@ -3,11 +3,11 @@ package pt.up.fe.comp2024.optimization;
 import org.antlr.v4.runtime.misc.Pair;
 import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
 import pt.up.fe.comp.jmm.ast.JmmNode;
-import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
-import pt.up.fe.comp.jmm.ast.antlr.JmmNodeCleanup;
 import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.ast.TypeUtils;
 
 import java.util.List;
+import java.util.Optional;
 
 public class ConstantFolding {
     public Pair<JmmSemanticsResult,Boolean> optimize(JmmSemanticsResult semanticsResult) {
@@ -16,85 +16,47 @@ public class ConstantFolding {
         List<JmmNode> methods = root.getDescendants(Kind.METHOD_DECL);
         boolean isChanged = false;
         for (JmmNode method : methods) {
-            isChanged = isChanged || foldConstants(method);
+            isChanged |= foldConstants(method);
+        }
+        if (isChanged) {
+            TypeUtils.clearExprTypes(root);
         }
         return new Pair<>(semanticsResult, isChanged);
     }
 
+    /**
+     * Folds the children before the node, so that nested expressions, e.g. '(1 + 2) * 3', are folded in one pass.
+     */
     private boolean foldConstants(JmmNode node) {
         boolean isChanged = false;
-        if (primitiveIntBinaryExpr(node)) {
-            JmmNode newNode = node.getJmmChild(0).copyNode();
-            JmmNode leftNode = node.getJmmChild(0);
-            JmmNode rightNode = node.getJmmChild(1);
-
-            int left = Integer.parseInt(leftNode.get("value"));
-            int right = Integer.parseInt(rightNode.get("value"));
-
-            if (node.get("op").equals("<")){
-                boolean result = left < right;
-                newNode.put("value", Boolean.toString(result));
-                newNode = new JmmNodeImpl("TrueLiteral");
-                newNode.put("value", Boolean.toString(result));
-            }
-            else {
-                int result = switch (node.get("op")) {
-                    case "+" -> left + right;
-                    case "-" -> left - right;
-                    case "*" -> left * right;
-                    case "/" -> left / right;
-                    default -> 0;
-                };
-                newNode.put("value", Integer.toString(result));
-            }
-            leftNode.detach();
-            rightNode.detach();
-            node.replace(newNode);
-            isChanged = true;
-        }
-        else if (primitiveBooleanBinaryExpr(node)) {
-            JmmNode newNode = node.getJmmChild(0).copyNode();
-            JmmNode leftNode = node.getJmmChild(0);
-            JmmNode rightNode = node.getJmmChild(1);
-            boolean left = Boolean.parseBoolean(leftNode.get("value"));
-            boolean right = Boolean.parseBoolean(rightNode.get("value"));
-            boolean result = left && right;
-            newNode.put("value", Boolean.toString(result));
-            leftNode.detach();
-            rightNode.detach();
-            node.replace(newNode);
-            isChanged = true;
+        // Copy, children may be replaced while folding
+        for (JmmNode child : List.copyOf(node.getChildren())) {
+            isChanged |= foldConstants(child);
         }
-        else if (primitiveBooleanNegation(node)) {
-            JmmNode newNode = node.getJmmChild(0).copyNode();
-            JmmNode child = node.getJmmChild(0);
-            boolean value = Boolean.parseBoolean(child.get("value"));
-            boolean result = !value;
-            newNode.put("value", Boolean.toString(result));
-            child.detach();
-            node.replace(newNode);
+
+        var value = fold(node);
+        if (value.isPresent()) {
+            node.replace(ConstantValues.newLiteral(value.get()));
             isChanged = true;
         }
-        for (JmmNode child : node.getChildren()) {
-            isChanged = isChanged || foldConstants(child);
-        }
         return isChanged;
     }
 
-    private boolean primitiveIntBinaryExpr(JmmNode node) {
-        return Kind.BINARY_EXPR.check(node) && Kind.INTEGER_LITERAL.check(node.getJmmChild(0)) && Kind.INTEGER_LITERAL.check(node.getJmmChild(1));
-    }
-
-    private boolean primitiveBooleanBinaryExpr(JmmNode node) {
-        if (!Kind.BINARY_EXPR.check(node)) {
-            return false;
+    private Optional<String> fold(JmmNode node) {
+        if (Kind.BINARY_EXPR.check(node)) {
+            var left = ConstantValues.getLiteralValue(node.getJmmChild(0));
+            var right = ConstantValues.getLiteralValue(node.getJmmChild(1));
+            if (left.isEmpty() || right.isEmpty()) {
+                return Optional.empty();
+            }
+            return ConstantValues.evaluate(node.get("op"), left.get(), right.get());
         }
-        boolean right = Kind.TRUE_LITERAL.check(node.getJmmChild(0)) || Kind.FALSE_LITERAL.check(node.getJmmChild(0));
-        boolean left = Kind.TRUE_LITERAL.check(node.getJmmChild(1)) || Kind.FALSE_LITERAL.check(node.getJmmChild(1));
-        return right && left;
-    }
-
-    private boolean primitiveBooleanNegation(JmmNode node) {
-        return Kind.NEGATION.check(node) && (Kind.TRUE_LITERAL.check(node.getJmmChild(0)) || Kind.FALSE_LITERAL.check(node.getJmmChild(0)));
+        if (Kind.NEGATION.check(node)) {
+            return ConstantValues.getLiteralValue(node.getJmmChild(0)).flatMap(ConstantValues::negate);
+        }
+        if (Kind.PARENTHESIS.check(node)) {
+            return ConstantValues.getLiteralValue(node.getJmmChild(0));
+        }
+        return Optional.empty();
     }
 }
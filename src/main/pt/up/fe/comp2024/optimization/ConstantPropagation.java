@@ -3,15 +3,42 @@ package pt.up.fe.comp2024.optimization;
 import org.antlr.v4.runtime.misc.Pair;
 import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
 import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
 import pt.up.fe.comp2024.ast.Kind;
-
-import java.util.HashMap;
+import pt.up.fe.comp2024.ast.TypeUtils;
+import pt.up.fe.comp2024.optimization.dataflow.ControlFlowGraph;
+import pt.up.fe.comp2024.optimization.dataflow.ReachingConstants;
+import pt.up.fe.comp2024.optimization.dataflow.SparseConditionalConstants;
+import pt.up.fe.comp2024.optimization.dataflow.SsaForm;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
+/**
+ * Replaces the uses of the local variables and parameters whose value is always the same constant by the constant,
+ * removes the branches that never run, and removes the variables that are no longer used.
+ * <p>
+ * The constants and the branches that run are found together, by sparse conditional constant propagation over the
+ * SSA form of each method ({@link SparseConditionalConstants}). An if whose condition is a constant is replaced by the
+ * branch that runs, and a while whose condition is false the first time is removed. The values assigned in branches
+ * that never run are ignored, so 'if (false) { a = 2; }' does not stop 'a' from being a constant after the if.
+ * <p>
+ * With {@link PropagationMode#REACHING}, the constants are found from the reaching definitions instead
+ * ({@link ReachingConstants}), and no branch is removed.
+ */
 public class ConstantPropagation {
-    private final Map<String, JmmNode> constants = new HashMap<>();
+
+    private final PropagationMode mode;
+
+    public ConstantPropagation() {
+        this(PropagationMode.SCCP);
+    }
+
+    public ConstantPropagation(PropagationMode mode) {
+        this.mode = mode;
+    }
 
     public Pair<JmmSemanticsResult,Boolean> optimize(JmmSemanticsResult semanticsResult) {
 
@@ -19,121 +46,176 @@ public class ConstantPropagation {
         List<JmmNode> methods = root.getDescendants(Kind.METHOD_DECL);
         boolean isChanged = false;
         for (JmmNode method : methods) {
-            isChanged = isChanged || propagateConstants(method);
-            var varRefExprs = method.getDescendants(Kind.VAR_REF_EXPR);
-            var varDecls = method.getChildren(Kind.VAR_DECL);
-            boolean found;
-            for (var varDecl : varDecls) {
-                found = false;
-                for (var varRef : varRefExprs) {
-                    if (varRef.get("name").equals(varDecl.get("name"))){
-                        found = true;
-                        if (constants.get(varRef.get("name")) != null && constants.get(varRef.get("name")).equals(varRef.getParent())){
-                            found = false;
-                        }
-                        else {
-                            break;
-                        }
-                    }
-                }
-                if (!found) {
-                    varDecl.detach();
-                    for (var key : constants.keySet()) {
-                        if (Objects.equals(key, varDecl.get("name"))) {
-                            constants.get(key).detach();
-                        }
-                    }
-                }
-            }
-            constants.clear();
+            isChanged |= propagateConstants(method);
+            isChanged |= removeUnusedVariables(method);
         }
+        // Unused declarations are removed even when no constant is propagated
+        TypeUtils.clearExprTypes(root);
         return new Pair<>(semanticsResult, isChanged);
     }
 
-    private boolean propagateConstants(JmmNode node) {
-        boolean isChanged = false;
+    private boolean propagateConstants(JmmNode method) {
+        var graph = ControlFlowGraph.build(method);
+        if (graph.isEmpty()) {
+            return false;
+        }
 
-         if (isVariableUsage(node)) {
-            String variable = getVariableName(node);
-            if (constants.containsKey(variable) && !usedInLoop(node)) {
-                JmmNode constantNode = getConstantValue(constants.get(variable));
-                replaceWithConstant(node, constantNode);
-                isChanged = true;
-            }
+        if (mode == PropagationMode.REACHING) {
+            return propagateReachingConstants(graph.get());
         }
-        else if (isIntegerAssignment(node) || isBooleanAssignment(node)) {
-            String variable = getAssignedVariable(node);
-            if (constants.containsKey(variable)) {
-                JmmNode nodeToRemove = constants.get(variable);
-                nodeToRemove.detach();
-                constants.remove(variable);
-                isChanged = true;
-            }
-            constants.put(variable, node);
+
+        var ssa = SsaForm.build(graph.get(), graph.get().getVariables());
+        var constants = SparseConditionalConstants.solve(ssa);
+
+        // Finds all the changes before making any, the graph refers to the nodes of the AST
+        Map<JmmNode, String> constantUses = new IdentityHashMap<>();
+        for (var use : ssa.getUses()) {
+            constants.getUseConstant(use).ifPresent(value -> constantUses.put(use, value));
         }
-        else if (isAssignedVariable(node)) {
-             for (JmmNode child : node.getChildren()) {
-                 isChanged = isChanged || propagateConstants(child);
-             }
-             var varRefExprs = node.getJmmChild(1).getDescendants(Kind.VAR_REF_EXPR);
-             if (!varRefExprs.isEmpty() && !Kind.VAR_REF_EXPR.check(node.getJmmChild(1))) {
-                 String variable = getAssignedVariable(node);
-                 constants.remove(variable);
-             }
+
+        // The ifs and whiles whose conditions are constants, by their statements
+        Map<JmmNode, Boolean> constantBranches = new IdentityHashMap<>();
+        for (var block : graph.get().getNodes()) {
+            var value = constants.getConditionConstant(block).map(Boolean::parseBoolean);
+            if (value.isEmpty()) {
+                continue;
+            }
+
+            var statement = block.getCondition().orElseThrow().getParent();
+            // Loops that never end are kept as they are
+            if (Kind.IF_EXPR.check(statement) || !value.get()) {
+                constantBranches.put(statement, value.get());
+            }
         }
-        for (JmmNode child : node.getChildren()) {
-            isChanged = isChanged || propagateConstants(child);
+
+        constantUses.forEach((use, value) -> use.replace(ConstantValues.newLiteral(value)));
+        constantBranches.forEach(ConstantPropagation::foldBranch);
+
+        return !constantUses.isEmpty() || !constantBranches.isEmpty();
+    }
+
+    private boolean propagateReachingConstants(ControlFlowGraph graph) {
+        var constants = ReachingConstants.solve(graph);
+
+        // Finds all the values before replacing any use, the definitions refer to the nodes of the uses
+        Map<JmmNode, String> constantUses = new IdentityHashMap<>();
+        for (var use : constants.getUses()) {
+            constants.getUseConstant(use).ifPresent(value -> constantUses.put(use, value));
         }
-        return isChanged;
+
+        constantUses.forEach((use, value) -> use.replace(ConstantValues.newLiteral(value)));
+
+        return !constantUses.isEmpty();
     }
 
-    private boolean usedInLoop(JmmNode node) {
-        if(node.getAncestor(Kind.WHILE_STMT).isPresent()) {
-            var loop = node.getAncestor(Kind.WHILE_STMT).get();
-            var assignStmts = loop.getDescendants(Kind.ASSIGN_STMT);
-            for (var assignStmt : assignStmts) {
-                if (assignStmt.getJmmChild(0).get("name").equals(node.get("name"))) {
-                    return true;
-                }
+    /**
+     * Replaces an if by the branch that runs, or removes a while that never runs.
+     *
+     * @param statement the if part of a conditional statement, or a while statement
+     */
+    private static void foldBranch(JmmNode statement, boolean condition) {
+        if (Kind.WHILE_STMT.check(statement)) {
+            removeStatement(statement);
+            return;
+        }
+
+        var conditional = statement.getParent();
+        var branch = condition ? statement.getJmmChild(1) : conditional.getJmmChild(1).getJmmChild(0);
+        var parent = conditional.getParent();
+
+        // The statements of a block are moved to where the if was, unless a single statement must be there
+        if (Kind.CURLY_STMT.check(branch) && !Kind.check(parent, Kind.IF_EXPR, Kind.ELSE_EXPR, Kind.WHILE_STMT)) {
+            int index = conditional.getIndexOfSelf();
+            conditional.detach();
+            for (var child : new ArrayList<>(branch.getChildren())) {
+                parent.add(child.detach(), index++);
             }
+            return;
         }
-        return false;
-    }
 
-    private boolean isAssignedVariable(JmmNode node) {
-        return Kind.ASSIGN_STMT.check(node) && constants.containsKey(node.getJmmChild(0).get("name"));
+        branch.detach();
+        conditional.replace(branch);
     }
 
-    private boolean isIntegerAssignment(JmmNode node) {
-        return Kind.ASSIGN_STMT.check(node) && Kind.INTEGER_LITERAL.check(node.getJmmChild(1));
-    }
+    /**
+     * Removes the local variables that are only assigned, and never read, with the assignments, as long as their right
+     * sides have no effects (e.g. calls).
+     */
+    private boolean removeUnusedVariables(JmmNode method) {
+        boolean isChanged = false;
 
-    private boolean isBooleanAssignment(JmmNode node) {
-        return Kind.ASSIGN_STMT.check(node) && (Kind.TRUE_LITERAL.check(node.getJmmChild(1)) || Kind.FALSE_LITERAL.check(node.getJmmChild(1)));
-    }
+        // Removing the assignments of a variable may leave the variables they read unused
+        boolean removed = true;
+        while (removed) {
+            removed = false;
 
-    private String getAssignedVariable(JmmNode node) {
-        return node.getJmmChild(0).get("name");
-    }
+            for (var varDecl : method.getChildren(Kind.VAR_DECL)) {
+                var name = varDecl.get("name");
+
+                List<JmmNode> assignments = new ArrayList<>();
+                if (!isOnlyAssigned(method, name, assignments)) {
+                    continue;
+                }
 
-    private JmmNode getConstantValue(JmmNode node) {
-        return node.getJmmChild(1);
+                for (var assignment : assignments) {
+                    removeStatement(assignment);
+                }
+                varDecl.detach();
+                removed = true;
+                isChanged = true;
+            }
+        }
+
+        return isChanged;
     }
 
-    private boolean isVariableUsage(JmmNode node) {
-        if (Kind.VAR_REF_EXPR.check(node)) {
-            return !Kind.ASSIGN_STMT.check(node.getParent()) || !node.getParent().getJmmChild(0).equals(node);
+    /**
+     * @param assignments where the assignments of the variable are added to
+     * @return true if all the references to the variable are assignments without effects
+     */
+    private static boolean isOnlyAssigned(JmmNode node, String name, List<JmmNode> assignments) {
+        if (Kind.VAR_REF_EXPR.check(node) && node.get("name").equals(name)) {
+            var parent = node.getParent();
+            if (!Kind.ASSIGN_STMT.check(parent) || parent.getJmmChild(0) != node
+                    || !hasNoEffects(parent.getJmmChild(1))) {
+                return false;
+            }
+            assignments.add(parent);
         }
-        return false;
+
+        for (var child : node.getChildren()) {
+            if (!isOnlyAssigned(child, name, assignments)) {
+                return false;
+            }
+        }
+
+        return true;
     }
 
-    private String getVariableName(JmmNode node) {
-        return node.get("name");
+    /**
+     * @return true if evaluating the expression has no effects, and cannot fail (e.g. a division by zero)
+     */
+    private static boolean hasNoEffects(JmmNode expr) {
+        boolean noEffects = switch (Kind.of(expr)) {
+            case INTEGER_LITERAL, TRUE_LITERAL, FALSE_LITERAL, VAR_REF_EXPR, PARENTHESIS, NEGATION -> true;
+            // Dividing by a constant other than 0 cannot fail
+            case BINARY_EXPR -> !expr.get("op").equals("/") || ConstantValues.getLiteralValue(expr.getJmmChild(1))
+                    .filter(value -> !value.matches("0+"))
+                    .isPresent();
+            default -> false;
+        };
+
+        return noEffects && expr.getChildren().stream().allMatch(ConstantPropagation::hasNoEffects);
     }
 
-    private void replaceWithConstant(JmmNode node, JmmNode constantNode) {
-        JmmNode newNode = constantNode.copy();
-        newNode.put("value", constantNode.get("value"));
-        node.replace(newNode);
+    private static void removeStatement(JmmNode statement) {
+        var parent = statement.getParent();
+
+        // The statement of an if, an else or a while is replaced by an empty block, they must have one
+        if (Kind.check(parent, Kind.IF_EXPR, Kind.ELSE_EXPR, Kind.WHILE_STMT)) {
+            statement.replace(new JmmNodeImpl(Kind.CURLY_STMT.getNodeName()));
+        } else {
+            statement.detach();
+        }
     }
 }
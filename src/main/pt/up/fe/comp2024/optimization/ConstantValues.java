@@ -0,0 +1,105 @@
+package pt.up.fe.comp2024.optimization;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.comp2024.ast.Kind;
+
+import java.util.Optional;
+
+/**
+ * Values of the integer and boolean literals, as the text of their 'value' attribute ("10", "true"), and the
+ * operations that fold them.
+ */
+public class ConstantValues {
+
+    private ConstantValues() {
+    }
+
+    /**
+     * @return the value of the node, if it is an integer or boolean literal
+     */
+    public static Optional<String> getLiteralValue(JmmNode node) {
+        if (Kind.check(node, Kind.INTEGER_LITERAL, Kind.TRUE_LITERAL, Kind.FALSE_LITERAL)) {
+            return Optional.of(node.get("value"));
+        }
+
+        return Optional.empty();
+    }
+
+    public static boolean isBoolean(String value) {
+        return value.equals("true") || value.equals("false");
+    }
+
+    /**
+     * @return a literal node with the given value
+     */
+    public static JmmNode newLiteral(String value) {
+        var kind = switch (value) {
+            case "true" -> Kind.TRUE_LITERAL;
+            case "false" -> Kind.FALSE_LITERAL;
+            default -> Kind.INTEGER_LITERAL;
+        };
+
+        var literal = new JmmNodeImpl(kind.getNodeName());
+        literal.put("value", value);
+
+        return literal;
+    }
+
+    /**
+     * @return the value of '!value', or empty if the value is not a boolean
+     */
+    public static Optional<String> negate(String value) {
+        if (!isBoolean(value)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(Boolean.toString(!Boolean.parseBoolean(value)));
+    }
+
+    /**
+     * @return the value of the binary operation, or empty if it cannot be computed at compile time, e.g. a division
+     * by zero, which must still fail when the program runs
+     */
+    public static Optional<String> evaluate(String op, String left, String right) {
+        if (isBoolean(left) && isBoolean(right)) {
+            boolean l = Boolean.parseBoolean(left);
+            boolean r = Boolean.parseBoolean(right);
+
+            return switch (op) {
+                case "&&" -> Optional.of(Boolean.toString(l && r));
+                case "||" -> Optional.of(Boolean.toString(l || r));
+                case "==" -> Optional.of(Boolean.toString(l == r));
+                case "!=" -> Optional.of(Boolean.toString(l != r));
+                default -> Optional.empty();
+            };
+        }
+
+        if (isBoolean(left) || isBoolean(right)) {
+            return Optional.empty();
+        }
+
+        int l;
+        int r;
+        try {
+            l = Integer.parseInt(left);
+            r = Integer.parseInt(right);
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+
+        return switch (op) {
+            case "+" -> Optional.of(Integer.toString(l + r));
+            case "-" -> Optional.of(Integer.toString(l - r));
+            case "*" -> Optional.of(Integer.toString(l * r));
+            case "/" -> r == 0 ? Optional.empty() : Optional.of(Integer.toString(l / r));
+            case "<" -> Optional.of(Boolean.toString(l < r));
+            case ">" -> Optional.of(Boolean.toString(l > r));
+            case "<=" -> Optional.of(Boolean.toString(l <= r));
+            case ">=" -> Optional.of(Boolean.toString(l >= r));
+            case "==" -> Optional.of(Boolean.toString(l == r));
+            case "!=" -> Optional.of(Boolean.toString(l != r));
+            default -> Optional.empty();
+        };
+    }
+}
@@ -0,0 +1,256 @@
+package pt.up.fe.comp2024.optimization;
+
+import org.specs.comp.ollir.ClassUnit;
+import org.specs.comp.ollir.Instruction;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Node;
+import pt.up.fe.comp2024.optimization.dataflow.BitVectorProblem;
+import pt.up.fe.comp2024.optimization.dataflow.DataflowResult;
+import pt.up.fe.comp2024.optimization.dataflow.DataflowSolver;
+import pt.up.fe.comp2024.optimization.dataflow.InstructionAccesses;
+import pt.up.fe.comp2024.optimization.dataflow.LiveVariables;
+import pt.up.fe.comp2024.optimization.dataflow.OllirFlowGraph;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Removes the copies between variables ({@code a.i32 :=.i32 b.i32;}) the OLLIR generator leaves after each expression
+ * (e.g. {@code tmp0.i32 :=.i32 a.i32 +.i32 1.i32; a.i32 :=.i32 tmp0.i32;}), in two steps:
+ * <ul>
+ *     <li>The variables of a copy that never hold different values at the same time (found with the
+ *     {@link InterferenceGraph}) are coalesced: one of them is renamed to the other everywhere in the method, and the
+ *     copy, which becomes an assignment of a variable to itself, is removed (above, {@code a.i32 :=.i32 a.i32 +.i32
+ *     1.i32;}). A temporary is renamed to the variable it is copied from or to, so the names of the source are kept, and
+ *     'this' and the parameters are never renamed.</li>
+ *     <li>The reads of the variable a copy assigns are replaced by the variable it copies, while no assignment to
+ *     either of them may have run since the copy (the available copies). The copies that are no longer read are left
+ *     for {@link DeadCodeElimination}.</li>
+ * </ul>
+ * Both steps only rename operands, so the backend emits fewer loads and stores of locals for the same instructions.
+ */
+public class CopyPropagation {
+
+    /**
+     * @return true if any method changed
+     */
+    public boolean optimize(ClassUnit ollirClass) {
+        boolean isChanged = false;
+        for (var method : ollirClass.getMethods()) {
+            isChanged |= coalesceCopies(method);
+            isChanged |= propagateCopies(method);
+            isChanged |= removeSelfCopies(method);
+        }
+
+        return isChanged;
+    }
+
+    private boolean coalesceCopies(Method method) {
+        var varTable = method.getVarTable();
+        Set<String> variables = RegisterAllocation.getVariables(method);
+        int numEntryVariables = RegisterAllocation.getNumEntryVariables(method);
+
+        var liveness = LiveVariables.solve(OllirFlowGraph.build(method), variables);
+        var interference = InterferenceGraph.build(liveness, numEntryVariables);
+
+        // The variable each coalesced variable was renamed to
+        Map<String, String> renamed = new HashMap<>();
+        for (var instruction : method.getInstructions()) {
+            var copied = InstructionAccesses.getCopiedVariable(instruction);
+            if (copied.isEmpty()) {
+                continue;
+            }
+
+            var dest = getRepresentative(renamed, InstructionAccesses.getDefinedVariable(instruction).orElseThrow());
+            var source = getRepresentative(renamed, copied.get());
+            int destIndex = liveness.getIndex(dest);
+            int sourceIndex = liveness.getIndex(source);
+            // 'this' is loaded by name, so it is never coalesced
+            if (dest.equals(source) || destIndex < 0 || sourceIndex < 0
+                    || dest.equals("this") || source.equals("this")) {
+                continue;
+            }
+
+            boolean isDestEntry = destIndex < numEntryVariables;
+            boolean isSourceEntry = sourceIndex < numEntryVariables;
+            var destType = varTable.get(dest).getVarType().toString();
+            var sourceType = varTable.get(source).getVarType().toString();
+            if ((isDestEntry && isSourceEntry) || !destType.equals(sourceType)
+                    || interference.interferes(destIndex, sourceIndex)) {
+                continue;
+            }
+
+            // The parameter, or the variable of the source when the other one is a temporary, keeps its name
+            boolean keepSource = isSourceEntry || (!isDestEntry && isTemporary(dest) && !isTemporary(source));
+            var kept = keepSource ? source : dest;
+            var merged = keepSource ? dest : source;
+
+            interference.merge(liveness.getIndex(kept), liveness.getIndex(merged));
+            renamed.put(merged, kept);
+        }
+
+        if (renamed.isEmpty()) {
+            return false;
+        }
+
+        for (var instruction : method.getInstructions()) {
+            for (var operand : InstructionAccesses.getAccesses(instruction, renamed.keySet())) {
+                operand.setName(getRepresentative(renamed, operand.getName()));
+            }
+        }
+        varTable.keySet().removeAll(renamed.keySet());
+
+        return true;
+    }
+
+    private static String getRepresentative(Map<String, String> renamed, String variable) {
+        while (renamed.containsKey(variable)) {
+            variable = renamed.get(variable);
+        }
+
+        return variable;
+    }
+
+    private static boolean isTemporary(String variable) {
+        return variable.startsWith("tmp");
+    }
+
+    private boolean propagateCopies(Method method) {
+        var graph = OllirFlowGraph.build(method);
+        var availableCopies = new AvailableCopies(method, RegisterAllocation.getVariables(method));
+        if (availableCopies.getSize() == 0) {
+            return false;
+        }
+
+        var result = DataflowSolver.solve(graph, availableCopies);
+        return availableCopies.replaceUses(method, result);
+    }
+
+    private boolean removeSelfCopies(Method method) {
+        boolean isChanged = false;
+
+        var instructions = method.getInstructions();
+        for (int i = instructions.size() - 1; i >= 0; i--) {
+            var instruction = instructions.get(i);
+            var copied = InstructionAccesses.getCopiedVariable(instruction);
+
+            if (copied.isPresent() && copied.equals(InstructionAccesses.getDefinedVariable(instruction))) {
+                isChanged |= DeadCodeElimination.removeInstruction(method, i);
+            }
+        }
+
+        return isChanged;
+    }
+
+    /**
+     * The copies that reach a point of the method in all its paths with no assignment to their variables since. Each
+     * copy instruction is a fact, and an assignment to a variable stops the copies that assign or copy it.
+     */
+    private static class AvailableCopies implements BitVectorProblem<Node> {
+
+        private final Set<String> variables;
+        private final List<Instruction> copies;
+        private final Map<Node, BitSet> gen;
+        private final Map<Node, BitSet> kill;
+
+        private AvailableCopies(Method method, Set<String> variables) {
+            this.variables = variables;
+            this.copies = new ArrayList<>();
+            this.gen = new IdentityHashMap<>();
+            this.kill = new IdentityHashMap<>();
+
+            for (var instruction : method.getInstructions()) {
+                var copied = InstructionAccesses.getCopiedVariable(instruction);
+                if (copied.isPresent() && variables.contains(copied.get())
+                        && !copied.equals(InstructionAccesses.getDefinedVariable(instruction))) {
+                    copies.add(instruction);
+                }
+            }
+
+            // The copies each variable takes part in
+            Map<String, BitSet> copiesOf = new HashMap<>();
+            for (int i = 0; i < copies.size(); i++) {
+                var copy = copies.get(i);
+                for (var variable : List.of(getDest(copy), getSource(copy))) {
+                    copiesOf.computeIfAbsent(variable, key -> new BitSet()).set(i);
+                }
+            }
+
+            for (int i = 0; i < copies.size(); i++) {
+                gen.computeIfAbsent(copies.get(i), key -> new BitSet()).set(i);
+            }
+            for (var instruction : method.getInstructions()) {
+                InstructionAccesses.getDefinedVariable(instruction)
+                        .map(copiesOf::get)
+                        .ifPresent(stopped -> {
+                            var instructionKill = (BitSet) stopped.clone();
+                            // A copy stops the other copies of its variable, but is available after itself
+                            instructionKill.andNot(gen.getOrDefault(instruction, new BitSet()));
+                            kill.put(instruction, instructionKill);
+                        });
+            }
+        }
+
+        private static String getDest(Instruction copy) {
+            return InstructionAccesses.getDefinedVariable(copy).orElseThrow();
+        }
+
+        private static String getSource(Instruction copy) {
+            return InstructionAccesses.getCopiedVariable(copy).orElseThrow();
+        }
+
+        /**
+         * Replaces each read of a variable with the variable it was copied from, if the copy is available.
+         *
+         * @return true if any read was replaced
+         */
+        private boolean replaceUses(Method method, DataflowResult<Node> result) {
+            boolean isChanged = false;
+
+            for (var instruction : method.getInstructions()) {
+                var available = result.getIn(instruction);
+                for (var use : InstructionAccesses.getUses(instruction, variables)) {
+                    for (int i = available.nextSetBit(0); i >= 0; i = available.nextSetBit(i + 1)) {
+                        if (getDest(copies.get(i)).equals(use.getName())) {
+                            use.setName(getSource(copies.get(i)));
+                            isChanged = true;
+                            break;
+                        }
+                    }
+                }
+            }
+
+            return isChanged;
+        }
+
+        @Override
+        public Direction getDirection() {
+            return Direction.FORWARD;
+        }
+
+        @Override
+        public Meet getMeet() {
+            return Meet.INTERSECTION;
+        }
+
+        @Override
+        public int getSize() {
+            return copies.size();
+        }
+
+        @Override
+        public BitSet getGen(Node node) {
+            return gen.getOrDefault(node, new BitSet());
+        }
+
+        @Override
+        public BitSet getKill(Node node) {
+            return kill.getOrDefault(node, new BitSet());
+        }
+    }
+}
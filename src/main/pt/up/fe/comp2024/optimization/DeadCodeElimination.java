@@ -0,0 +1,180 @@
+package pt.up.fe.comp2024.optimization;
+
+import org.specs.comp.ollir.ArrayOperand;
+import org.specs.comp.ollir.AssignInstruction;
+import org.specs.comp.ollir.ClassUnit;
+import org.specs.comp.ollir.CondBranchInstruction;
+import org.specs.comp.ollir.GotoInstruction;
+import org.specs.comp.ollir.Instruction;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Node;
+import org.specs.comp.ollir.OpInstruction;
+import org.specs.comp.ollir.OperationType;
+import org.specs.comp.ollir.SingleOpInstruction;
+import pt.up.fe.comp2024.optimization.dataflow.InstructionAccesses;
+import pt.up.fe.comp2024.optimization.dataflow.LiveVariables;
+import pt.up.fe.comp2024.optimization.dataflow.OllirFlowGraph;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Removes the OLLIR instructions that do nothing: the instructions that can never run (e.g. after a 'goto' or a 'ret'),
+ * the assignments whose variable is not read before it is assigned again or the method returns (found with
+ * {@link LiveVariables}), and the jumps to the next instruction. Then, removes the labels no jump goes to.
+ * <p>
+ * Assignments whose right side may have an effect (calls, divisions and reads of array elements, which may throw) are
+ * kept. Removing an instruction may make others useless, so the method is simplified until nothing changes.
+ */
+public class DeadCodeElimination {
+
+    /**
+     * @return true if any method changed
+     */
+    public boolean optimize(ClassUnit ollirClass) {
+        boolean isChanged = false;
+        for (var method : ollirClass.getMethods()) {
+            isChanged |= eliminateDeadCode(method);
+        }
+
+        return isChanged;
+    }
+
+    private boolean eliminateDeadCode(Method method) {
+        boolean isChanged = false;
+
+        boolean removed = true;
+        while (removed) {
+            removed = removeUnreachable(method);
+            removed |= removeDeadAssignments(method);
+            removed |= removeJumpsToNext(method);
+            isChanged |= removed;
+        }
+        isChanged |= removeUnusedLabels(method);
+
+        return isChanged;
+    }
+
+    private boolean removeUnreachable(Method method) {
+        var graph = OllirFlowGraph.build(method);
+
+        Set<Node> reachable = Collections.newSetFromMap(new IdentityHashMap<>());
+        var worklist = new ArrayDeque<Node>();
+        reachable.add(graph.getEntry());
+        worklist.add(graph.getEntry());
+        while (!worklist.isEmpty()) {
+            for (var successor : graph.getSuccessors(worklist.poll())) {
+                if (reachable.add(successor)) {
+                    worklist.add(successor);
+                }
+            }
+        }
+
+        // The labels of unreachable instructions can only be jumped to from unreachable instructions
+        boolean isChanged = method.getInstructions().removeIf(instruction -> !reachable.contains(instruction));
+        method.getLabels().values().removeIf(instruction -> !reachable.contains(instruction));
+
+        return isChanged;
+    }
+
+    private boolean removeDeadAssignments(Method method) {
+        Set<String> variables = new LinkedHashSet<>();
+        for (var instruction : method.getInstructions()) {
+            InstructionAccesses.getDefinedVariable(instruction).ifPresent(variables::add);
+        }
+
+        var liveness = LiveVariables.solve(OllirFlowGraph.build(method), variables);
+        boolean isChanged = false;
+
+        var instructions = method.getInstructions();
+        for (int i = instructions.size() - 1; i >= 0; i--) {
+            var instruction = instructions.get(i);
+            var variable = InstructionAccesses.getDefinedVariable(instruction);
+
+            if (variable.isPresent() && !liveness.getLiveOut(instruction).get(liveness.getIndex(variable.get()))
+                    && hasNoEffects(((AssignInstruction) instruction).getRhs())) {
+                isChanged |= removeInstruction(method, i);
+            }
+        }
+
+        return isChanged;
+    }
+
+    /**
+     * @return true if running the instruction can only change the variable it is assigned to
+     */
+    private static boolean hasNoEffects(Instruction rhs) {
+        return switch (rhs.getInstType()) {
+            case NOPER -> !(((SingleOpInstruction) rhs).getSingleOperand() instanceof ArrayOperand);
+            case BINARYOPER -> ((OpInstruction) rhs).getOperation().getOpType() != OperationType.DIV;
+            case UNARYOPER, GETFIELD -> true;
+            default -> false;
+        };
+    }
+
+    private boolean removeJumpsToNext(Method method) {
+        boolean isChanged = false;
+
+        var instructions = method.getInstructions();
+        for (int i = instructions.size() - 2; i >= 0; i--) {
+            // The conditions of branches are operands or comparisons, which have no effects
+            var target = getJumpLabel(instructions.get(i))
+                    .map(label -> method.getLabels().get(label))
+                    .orElse(null);
+
+            if (target == instructions.get(i + 1)) {
+                isChanged |= removeInstruction(method, i);
+            }
+        }
+
+        return isChanged;
+    }
+
+    private boolean removeUnusedLabels(Method method) {
+        Set<String> usedLabels = new HashSet<>();
+        for (var instruction : method.getInstructions()) {
+            getJumpLabel(instruction).ifPresent(usedLabels::add);
+        }
+
+        return method.getLabels().keySet().retainAll(usedLabels);
+    }
+
+    private static Optional<String> getJumpLabel(Instruction instruction) {
+        if (instruction instanceof GotoInstruction gotoInstruction) {
+            return Optional.of(gotoInstruction.getLabel());
+        }
+        if (instruction instanceof CondBranchInstruction branch) {
+            return Optional.of(branch.getLabel());
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Removes an instruction, moving its labels to the next instruction.
+     *
+     * @return false if the instruction has labels and is the last one, in which case it is kept
+     */
+    static boolean removeInstruction(Method method, int index) {
+        var instructions = method.getInstructions();
+        var instruction = instructions.get(index);
+        var labels = method.getLabels();
+
+        if (labels.containsValue(instruction)) {
+            if (index + 1 == instructions.size()) {
+                return false;
+            }
+
+            var next = instructions.get(index + 1);
+            labels.replaceAll((label, labelled) -> labelled == instruction ? next : labelled);
+        }
+
+        instructions.remove(index);
+        return true;
+    }
+}
@@ -0,0 +1,218 @@
+package pt.up.fe.comp2024.optimization;
+
+import org.specs.comp.ollir.Instruction;
+import pt.up.fe.comp2024.optimization.dataflow.InstructionAccesses;
+import pt.up.fe.comp2024.optimization.dataflow.LiveVariables;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The variables of a method that cannot share a register, because both hold a value that is still needed at the same
+ * time, and the coloring that gives each variable a register.
+ * <p>
+ * The variables are numbered from 0, and some of them may have a fixed register (e.g. 'this' and the parameters, which
+ * the JVM puts in the first locals). The coloring simplifies the graph by removing the variables with fewer neighbors
+ * than registers, and, when none is left, the variable with the most neighbors, which may still get a register when the
+ * variables are put back (Briggs' optimistic coloring).
+ */
+public class InterferenceGraph {
+
+    private final List<String> variables;
+    private final List<BitSet> neighbors;
+    private final int[] fixedRegisters;
+
+    public InterferenceGraph(List<String> variables) {
+        this.variables = List.copyOf(variables);
+        this.neighbors = new ArrayList<>(variables.size());
+        for (int i = 0; i < variables.size(); i++) {
+            neighbors.add(new BitSet());
+        }
+        this.fixedRegisters = new int[variables.size()];
+        Arrays.fill(fixedRegisters, -1);
+    }
+
+    /**
+     * Finds the variables that interfere: a variable interferes with the variables that are live after each of its
+     * assignments, except the one it copies, and the variables live when the method starts interfere with each other.
+     *
+     * @param numEntryVariables the number of variables, the first ones of the liveness, that get their values when the
+     *                          method starts (e.g. the parameters)
+     */
+    public static InterferenceGraph build(LiveVariables liveness, int numEntryVariables) {
+        var interference = new InterferenceGraph(liveness.getVariables());
+
+        // The parameters, and anything read before it is assigned, hold their values together when the method starts
+        var live = (BitSet) liveness.getLiveOut(liveness.getGraph().getEntry()).clone();
+        live.set(0, numEntryVariables);
+        for (int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+            for (int j = live.nextSetBit(i + 1); j >= 0; j = live.nextSetBit(j + 1)) {
+                interference.addInterference(i, j);
+            }
+        }
+
+        for (var node : liveness.getGraph().getNodes()) {
+            if (!(node instanceof Instruction instruction)) {
+                continue;
+            }
+
+            int defined = InstructionAccesses.getDefinedVariable(instruction).map(liveness::getIndex).orElse(-1);
+            if (defined < 0) {
+                continue;
+            }
+
+            // A copy can share the register of the variable it copies, unless another assignment separates them
+            int copied = InstructionAccesses.getCopiedVariable(instruction).map(liveness::getIndex).orElse(-1);
+            var liveOut = liveness.getLiveOut(instruction);
+            for (int i = liveOut.nextSetBit(0); i >= 0; i = liveOut.nextSetBit(i + 1)) {
+                if (i != copied) {
+                    interference.addInterference(defined, i);
+                }
+            }
+        }
+
+        return interference;
+    }
+
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    public void addInterference(int first, int second) {
+        if (first != second) {
+            neighbors.get(first).set(second);
+            neighbors.get(second).set(first);
+        }
+    }
+
+    public boolean interferes(int first, int second) {
+        return neighbors.get(first).get(second);
+    }
+
+    /**
+     * Joins the second variable into the first one, which then interferes with the variables either interfered with.
+     * The second variable is left without interferences.
+     */
+    public void merge(int kept, int merged) {
+        var mergedNeighbors = neighbors.get(merged);
+        for (int i = mergedNeighbors.nextSetBit(0); i >= 0; i = mergedNeighbors.nextSetBit(i + 1)) {
+            neighbors.get(i).clear(merged);
+            addInterference(kept, i);
+        }
+        mergedNeighbors.clear();
+    }
+
+    public void setFixedRegister(int variable, int register) {
+        fixedRegisters[variable] = register;
+    }
+
+    /**
+     * @return the fewest registers that a coloring can use, the ones the variables with fixed registers need
+     */
+    public int getMinRegisters() {
+        int min = 0;
+        for (int register : fixedRegisters) {
+            min = Math.max(min, register + 1);
+        }
+
+        return min;
+    }
+
+    /**
+     * @return the register of each variable, between 0 and the number of registers, or empty if the coloring needs
+     * more registers
+     */
+    public Optional<int[]> color(int numRegisters) {
+        if (numRegisters < getMinRegisters()) {
+            return Optional.empty();
+        }
+
+        int numVariables = variables.size();
+        var removed = new BitSet(numVariables);
+        int[] degrees = new int[numVariables];
+        for (int i = 0; i < numVariables; i++) {
+            degrees[i] = neighbors.get(i).cardinality();
+            if (fixedRegisters[i] >= 0) {
+                // Variables with fixed registers are never removed, they are colored from the start
+                removed.set(i);
+            }
+        }
+
+        var stack = new ArrayDeque<Integer>();
+        while (removed.cardinality() < numVariables) {
+            int next = -1;
+            for (int i = removed.nextClearBit(0); i < numVariables; i = removed.nextClearBit(i + 1)) {
+                if (degrees[i] < numRegisters) {
+                    next = i;
+                    break;
+                }
+                // Otherwise, the variable that blocks the most others is removed, optimistically
+                if (next < 0 || degrees[i] > degrees[next]) {
+                    next = i;
+                }
+            }
+
+            removed.set(next);
+            stack.push(next);
+            var nextNeighbors = neighbors.get(next);
+            for (int i = nextNeighbors.nextSetBit(0); i >= 0; i = nextNeighbors.nextSetBit(i + 1)) {
+                degrees[i]--;
+            }
+        }
+
+        int[] registers = fixedRegisters.clone();
+        while (!stack.isEmpty()) {
+            int variable = stack.pop();
+
+            var used = new BitSet(numRegisters);
+            var variableNeighbors = neighbors.get(variable);
+            for (int i = variableNeighbors.nextSetBit(0); i >= 0; i = variableNeighbors.nextSetBit(i + 1)) {
+                if (registers[i] >= 0) {
+                    used.set(registers[i]);
+                }
+            }
+
+            int register = used.nextClearBit(0);
+            if (register >= numRegisters) {
+                return Optional.empty();
+            }
+            registers[variable] = register;
+        }
+
+        return Optional.of(registers);
+    }
+
+    /**
+     * @return the registers of the coloring with the fewest registers this coloring finds
+     */
+    public int[] colorWithFewestRegisters() {
+        // A register for each variable is always enough
+        for (int numRegisters = getMinRegisters(); ; numRegisters++) {
+            var registers = color(numRegisters);
+            if (registers.isPresent()) {
+                return registers.get();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        var builder = new StringBuilder();
+        for (int i = 0; i < variables.size(); i++) {
+            List<String> variableNeighbors = new ArrayList<>();
+            var bits = neighbors.get(i);
+            for (int j = bits.nextSetBit(0); j >= 0; j = bits.nextSetBit(j + 1)) {
+                variableNeighbors.add(variables.get(j));
+            }
+            Collections.sort(variableNeighbors);
+            builder.append(variables.get(i)).append(" -- ").append(variableNeighbors).append("\n");
+        }
+
+        return builder.toString();
+    }
+}
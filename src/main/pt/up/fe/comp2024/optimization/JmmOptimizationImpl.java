@@ -1,9 +1,11 @@
 package pt.up.fe.comp2024.optimization;
 
-import org.antlr.v4.runtime.misc.Pair;
 import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
 import pt.up.fe.comp.jmm.ollir.JmmOptimization;
 import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.MethodCodeCache;
+import pt.up.fe.comp2024.metrics.Metrics;
 
 import java.util.Collections;
 
@@ -12,9 +14,13 @@ public class JmmOptimizationImpl implements JmmOptimization {
     @Override
     public OllirResult toOllir(JmmSemanticsResult semanticsResult) {
 
-        var visitor = new OllirGeneratorVisitor(semanticsResult.getSymbolTable());
-        var ollirCode = visitor.visit(semanticsResult.getRootNode());
-        System.out.println(ollirCode);
+        String ollirCode;
+        try (var phase = Metrics.start("ollir-generation")) {
+            var methodCache = CompilerConfig.isIncremental(semanticsResult.getConfig())
+                    ? MethodCodeCache.getOllirShared() : null;
+            var visitor = new OllirGeneratorVisitor(semanticsResult.getSymbolTable(), methodCache);
+            ollirCode = visitor.visit(semanticsResult.getRootNode());
+        }
 
         return new OllirResult(semanticsResult, ollirCode, Collections.emptyList());
     }
@@ -22,7 +28,24 @@ public class JmmOptimizationImpl implements JmmOptimization {
     @Override
     public OllirResult optimize(OllirResult ollirResult) {
 
-        //TODO: Do your OLLIR-based optimizations here
+        // -o optimizations, before the registers are allocated for the instructions that are left
+        if (CompilerConfig.getOptimize(ollirResult.getConfig())) {
+            try (var phase = Metrics.start("copy-propagation")) {
+                new CopyPropagation().optimize(ollirResult.getOllirClass());
+            }
+            try (var phase = Metrics.start("dead-code-elimination")) {
+                new DeadCodeElimination().optimize(ollirResult.getOllirClass());
+            }
+        }
+
+        // -r register allocation, -1 keeps a local for each variable
+        int maxRegisters = CompilerConfig.getRegisterAllocation(ollirResult.getConfig());
+        if (maxRegisters >= 0) {
+            try (var phase = Metrics.start("register-allocation")) {
+                var reports = new RegisterAllocation(maxRegisters).optimize(ollirResult.getOllirClass());
+                ollirResult.getReports().addAll(reports);
+            }
+        }
 
         return ollirResult;
     }
@@ -30,23 +53,16 @@ public class JmmOptimizationImpl implements JmmOptimization {
     @Override
     public JmmSemanticsResult optimize(JmmSemanticsResult semanticsResult) {
         JmmSemanticsResult newSemanticsResult = semanticsResult;
-        boolean isChangedPropagate = true;
-        boolean isChangedFold = true;
         if(newSemanticsResult.getConfig().containsKey("optimize") && newSemanticsResult.getConfig().get("optimize").equals("true")) {
-            System.out.println("-o OPTIMIZATION STARTED");
-            System.out.println(newSemanticsResult.getRootNode().toTree());
-            while (isChangedPropagate || isChangedFold) {
-                ConstantPropagation constantPropagation = new ConstantPropagation();
-                Pair<JmmSemanticsResult,Boolean> resultPropagate = constantPropagation.optimize(newSemanticsResult);
-                newSemanticsResult = resultPropagate.a;
-                ConstantFolding constantFolding = new ConstantFolding();
-                Pair<JmmSemanticsResult,Boolean> resultFold = constantFolding.optimize(newSemanticsResult);
-                newSemanticsResult = resultFold.a;
-                isChangedPropagate = resultPropagate.b;
-                isChangedFold = resultFold.b;
+            // A single round is enough: propagation already evaluates whole expressions and skips the branches that
+            // never run, so folding the expressions it leaves with constant operands cannot make new constants
+            var mode = CompilerConfig.getPropagationMode(newSemanticsResult.getConfig());
+            try (var propagatePhase = Metrics.start("constant-propagation")) {
+                newSemanticsResult = new ConstantPropagation(mode).optimize(newSemanticsResult).a;
+            }
+            try (var foldPhase = Metrics.start("constant-folding")) {
+                newSemanticsResult = new ConstantFolding().optimize(newSemanticsResult).a;
             }
-            System.out.println("-o OPTIMIZATION FINISHED");
-            System.out.println(newSemanticsResult.getRootNode().toTree());
         }
         return newSemanticsResult;
     }
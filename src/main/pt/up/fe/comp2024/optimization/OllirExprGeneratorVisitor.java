@@ -4,19 +4,23 @@ import pt.up.fe.comp.jmm.analysis.table.Symbol;
 import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.JmmNode;
-import pt.up.fe.comp.jmm.ast.PreorderJmmVisitor;
+import pt.up.fe.comp.jmm.ast.AJmmVisitor;
 import pt.up.fe.comp.jmm.ollir.OllirUtils;
 import pt.up.fe.comp2024.ast.TypeUtils;
+import pt.up.fe.comp2024.ast.VisitDispatchTable;
+import pt.up.fe.comp2024.symboltable.JmmSymbolTable;
+import pt.up.fe.comp2024.symboltable.ResolvedSymbol;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiFunction;
 
 import static pt.up.fe.comp2024.ast.Kind.*;
 
 /**
  * Generates OLLIR code from JmmNodes that are expressions.
  */
-public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExprResult> {
+public class OllirExprGeneratorVisitor extends AJmmVisitor<Void, OllirExprResult> {
 
     private static final String SPACE = " ";
     private static final String ASSIGN = ":=";
@@ -24,21 +28,46 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
     private final String END_STMT = ";\n";
 
     private final SymbolTable table;
-    private static int logicalAndCounter = 0;
-    private static int trueFalseCounter = 0;
+
+    // Counters are kept per instance (one per compilation), so several classes can be generated concurrently
+    private int tempNumber = -1;
+    private int logicalAndCounter = 0;
+    private int trueFalseCounter = 0;
+
+    private final VisitDispatchTable<Void, OllirExprResult> dispatchTable = new VisitDispatchTable<>(super::getVisit);
 
     public OllirExprGeneratorVisitor(SymbolTable table) {
         this.table = table;
     }
 
-    private static int getNewAndCounter(){
+    /**
+     * Restarts the numbering of temporaries and labels, which only need to be unique in a method, so the code of a
+     * method does not depend on the methods generated before it.
+     */
+    void startMethod() {
+        tempNumber = -1;
+        logicalAndCounter = 0;
+        trueFalseCounter = 0;
+    }
+
+    private String getTemp() {
+        tempNumber += 1;
+        return "tmp" + tempNumber;
+    }
+
+    private int getNewAndCounter(){
         return logicalAndCounter++;
     }
 
-    private static int getNewTrueFalseCounter(){
+    private int getNewTrueFalseCounter(){
         return trueFalseCounter++;
     }
 
+    @Override
+    protected BiFunction<JmmNode, Void, OllirExprResult> getVisit(JmmNode node) {
+        return dispatchTable.getVisit(node);
+    }
+
     @Override
     protected void buildVisitor() {
         addVisit(VAR_REF_EXPR, this::visitVarRef);
@@ -73,7 +102,7 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
         var expr = visit(node.getJmmChild(0));
         var childType = TypeUtils.getExprType(node.getJmmChild(0), table);
         computation.append(expr.getComputation());
-        var temp = OptUtils.getTemp();
+        var temp = getTemp();
         var type = ".i32";
         computation.append(temp).append(type).append(SPACE);
         computation.append(ASSIGN).append(type).append(SPACE);
@@ -89,7 +118,7 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
         var ollirType = OptUtils.toOllirType(type);
         var item = visit(node.getJmmChild(1));
         computation.append(item.getComputation());
-        var temp = OptUtils.getTemp();
+        var temp = getTemp();
         computation.append(temp).append(ollirType).append(SPACE);
         computation.append(ASSIGN).append(ollirType).append(SPACE);
         computation.append("new(array, ").append(item.getCode()).append(")").append(ollirType).append(END_STMT);
@@ -114,7 +143,7 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
             code.append(refName).append("[").append(indexName).append("]").append(ollirType);
             return new OllirExprResult(code.toString(), computation);
         }
-        var temp = OptUtils.getTemp();
+        var temp = getTemp();
         computation.append(temp).append(ollirType).append(SPACE);
         computation.append(ASSIGN).append(ollirType).append(SPACE);
         computation.append(refName).append("[").append(indexName).append("]").append(ollirType).append(END_STMT);
@@ -126,7 +155,7 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
         StringBuilder computation = new StringBuilder();
         StringBuilder code = new StringBuilder();
         var numbers = node.getChildren();
-        String temp = OptUtils.getTemp();
+        String temp = getTemp();
         var type = TypeUtils.getExprType(node, table);
         String ollirType = OptUtils.toOllirType(type);
         computation.append(temp).append(ollirType).append(SPACE);
@@ -162,7 +191,7 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
         StringBuilder computation = new StringBuilder();
         var expr = visit(node.getJmmChild(0));
         computation.append(expr.getComputation());
-        var temp = OptUtils.getTemp();
+        var temp = getTemp();
         var type = ".bool";
         computation.append(temp).append(type).append(SPACE);
         computation.append(ASSIGN).append(type).append(SPACE);
@@ -211,7 +240,7 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
         // code to compute self
         Type resType = TypeUtils.getExprType(node, table);
         String resOllirType = OptUtils.toOllirType(resType);
-        String code = OptUtils.getTemp() + resOllirType;
+        String code = getTemp() + resOllirType;
 
         computation.append(code).append(SPACE)
                 .append(ASSIGN).append(resOllirType).append(SPACE)
@@ -241,7 +270,7 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
         int andCounter = getNewAndCounter();
         computation.append(rhs.getComputation());
         computation.append(lhs.getComputation());
-        String temp = OptUtils.getTemp();
+        String temp = getTemp();
         String type = ".bool";
         String code = temp + type;
         computation.append("if (").append(rhs.getCode()).append(") goto AND_").append(andCounter).append(END_STMT);
@@ -259,33 +288,16 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
         StringBuilder computation = new StringBuilder();
         StringBuilder code = new StringBuilder();
         var method = node.getAncestor(METHOD_DECL).get();
-        var locals = table.getLocalVariables(method.get("name"));
-        var params = table.getParameters(method.get("name"));
-        boolean isLocalParam = false;
-        for (var local : locals){
-            if (local.getName().equals(node.get("name"))){
-                isLocalParam = true;
-                break;
-            }
-        }
-        for (var param : params){
-            if (param.getName().equals(node.get("name"))){
-                isLocalParam = true;
-                break;
-            }
-        }
-        if (!isLocalParam) {
-            for (var field : table.getFields()) {
-                if (field.getName().equals(node.get("name"))) {
-                    var typeCode = OptUtils.toOllirType(field.getType());
-                    var temp = OptUtils.getTemp();
-                    computation.append(temp).append(typeCode).append(SPACE);
-                    computation.append(ASSIGN).append(typeCode).append(SPACE);
-                    computation.append("getfield(this, ").append(field.getName()).append(typeCode).append(")").append(typeCode).append(END_STMT);
-                    code.append(temp).append(typeCode);
-                    return new OllirExprResult(code.toString(), computation);
-                }
-            }
+        var resolved = JmmSymbolTable.from(table).resolve(method.get("name"), node.get("name"));
+        if (resolved.isPresent() && resolved.get().scope() == ResolvedSymbol.Scope.FIELD) {
+            var field = resolved.get().symbol();
+            var typeCode = OptUtils.toOllirType(field.getType());
+            var temp = getTemp();
+            computation.append(temp).append(typeCode).append(SPACE);
+            computation.append(ASSIGN).append(typeCode).append(SPACE);
+            computation.append("getfield(this, ").append(field.getName()).append(typeCode).append(")").append(typeCode).append(END_STMT);
+            code.append(temp).append(typeCode);
+            return new OllirExprResult(code.toString(), computation);
         }
         var id = node.get("name");
         Type type = TypeUtils.getExprType(node, table);
@@ -301,7 +313,7 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
         StringBuilder code = new StringBuilder();
         var field = TypeUtils.getExprType(node, table);
         var typeCode = OptUtils.toOllirType(field);
-        var temp = OptUtils.getTemp();
+        var temp = getTemp();
         computation.append(temp).append(typeCode).append(SPACE);
         computation.append(ASSIGN).append(typeCode).append(SPACE);
         computation.append("getfield(this, ").append(field.getName()).append(typeCode).append(")").append(typeCode).append(END_STMT);
@@ -312,7 +324,7 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
     private OllirExprResult visitObjDecl(JmmNode node, Void unused) {
         String id;
         StringBuilder computation = new StringBuilder();
-        var temp = OptUtils.getTemp();
+        var temp = getTemp();
         if (OBJECT.check(node)) {
             id = table.getClassName();
         } else {
@@ -340,7 +352,6 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
                     while (param.getNumChildren() > 0){
                         var type = param.getJmmChild(0);
                         if (type.get("isVarArgs").equals("true")){
-                            System.out.println(type);
                             return true;
                         }
                         if (param.getNumChildren() < 2)
@@ -367,15 +378,7 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
             varRefName = varRef.get("name");
         }
         StringBuilder computation = new StringBuilder();
-        boolean isStaticRef = false;
-        for (var import_ : table.getImports()){
-            var lst = import_.split("\\.");
-            String importName = lst[lst.length - 1];
-            if (importName.equals(varRefName)){
-                isStaticRef = true;
-                break;
-            }
-        }
+        boolean isStaticRef = JmmSymbolTable.from(table).isImported(varRefName);
         String methodName = '"'+node.get("name")+'"';
         if (isStaticRef){
             invoker.append("invokestatic(");
@@ -391,8 +394,7 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
         invoker.append(methodName);
         String tempVarArgs = "";
         if (hasVarargs) {
-            System.out.println(node);
-            tempVarArgs = OptUtils.getTemp();
+            tempVarArgs = getTemp();
             computation.append(tempVarArgs).append(".array.i32").append(SPACE);
             computation.append(ASSIGN).append(".array.i32").append(SPACE);
             computation.append("new(array, ").append(node.getNumChildren()-table.getParameters(node.get("name")).size()).append(".i32").append(")").append(".array.i32").append(END_STMT);
@@ -421,7 +423,7 @@ public class OllirExprGeneratorVisitor extends PreorderJmmVisitor<Void, OllirExp
             if (type.getName().isEmpty())
                 type = TypeUtils.getExprType(parent, table);
             String ollirType = OptUtils.toOllirType(type);
-            var temp = OptUtils.getTemp();
+            var temp = getTemp();
             computation.append(temp).append(ollirType).append(SPACE);
             computation.append(ASSIGN).append(ollirType).append(SPACE);
             computation.append(invoker).append(ollirType).append(END_STMT);
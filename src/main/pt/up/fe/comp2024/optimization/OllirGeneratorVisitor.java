@@ -4,10 +4,16 @@ import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.analysis.table.Type;
 import pt.up.fe.comp.jmm.ast.AJmmVisitor;
 import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.MethodCodeCache;
+import pt.up.fe.comp2024.ast.AstFingerprint;
 import pt.up.fe.comp2024.ast.NodeUtils;
 import pt.up.fe.comp2024.ast.TypeUtils;
+import pt.up.fe.comp2024.ast.VisitDispatchTable;
+import pt.up.fe.comp2024.symboltable.JmmSymbolTable;
+import pt.up.fe.comp2024.symboltable.ResolvedSymbol;
 
 import java.util.Objects;
+import java.util.function.BiFunction;
 
 import static pt.up.fe.comp2024.ast.Kind.*;
 
@@ -25,17 +31,37 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
 
 
     private final SymbolTable table;
-    private static int numberLoops = 0;
-    private static int numberIfs = 0;
+    private int numberLoops = 0;
+    private int numberIfs = 0;
 
     private final OllirExprGeneratorVisitor exprVisitor;
 
+    // Code of the methods generated before, null if it is not used
+    private final MethodCodeCache methodCache;
+    // The part of the keys of the methods shared by the whole class, null if the methods are not cached
+    private String classKey;
+
+    private final VisitDispatchTable<Void, String> dispatchTable = new VisitDispatchTable<>(super::getVisit);
+
     public OllirGeneratorVisitor(SymbolTable table) {
+        this(table, null);
+    }
+
+    /**
+     * @param methodCache the code of the methods generated before, which is reused for the methods that did not change
+     */
+    public OllirGeneratorVisitor(SymbolTable table, MethodCodeCache methodCache) {
         this.table = table;
+        this.methodCache = methodCache;
         exprVisitor = new OllirExprGeneratorVisitor(table);
     }
 
 
+    @Override
+    protected BiFunction<JmmNode, Void, String> getVisit(JmmNode node) {
+        return dispatchTable.getVisit(node);
+    }
+
     @Override
     protected void buildVisitor() {
 
@@ -55,11 +81,11 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
         setDefaultVisit(this::defaultVisit);
     }
 
-    private static int getLoopNumber() {
+    private int getLoopNumber() {
         return numberLoops++;
     }
 
-    private static int getIfNumber() {
+    private int getIfNumber() {
         return numberIfs++;
     }
 
@@ -70,26 +96,11 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
         if (ARRAY_SUBS.check(node)) {
             return false;
         }
-        JmmNode method;
-        if(node.getAncestor(METHOD_DECL).isPresent()) {
-            method = node.getAncestor(METHOD_DECL).get();
-            for (var local : table.getLocalVariables(method.get("name"))) {
-                if (local.getName().equals(node.get("name"))) {
-                    return false;
-                }
-            }
-            for (var param : table.getParameters(method.get("name"))) {
-                if (param.getName().equals(node.get("name"))) {
-                    return false;
-                }
-            }
-        }
-        for(var field: table.getFields()){
-            if (field.getName().equals(node.get("name"))){
-                return true;
-            }
-        }
-        return false;
+        var method = node.getAncestor(METHOD_DECL).map(methodDecl -> methodDecl.get("name")).orElse(null);
+
+        return JmmSymbolTable.from(table).resolve(method, node.get("name"))
+                .map(resolved -> resolved.scope() == ResolvedSymbol.Scope.FIELD)
+                .orElse(false);
     }
 
     private String visitWhileStmt(JmmNode node, Void unused) {
@@ -220,6 +231,29 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
 
 
     private String visitMethodDecl(JmmNode node, Void unused) {
+        if (classKey == null) {
+            return generateMethodDecl(node);
+        }
+
+        // The code of a method depends on its nodes and on the symbol table, built from the class fingerprint
+        var key = methodCache.getKey(classKey, AstFingerprint.getMethodFingerprint(node, false));
+        var cachedCode = methodCache.get(key);
+        if (cachedCode.isPresent()) {
+            return cachedCode.get();
+        }
+
+        var code = generateMethodDecl(node);
+        methodCache.put(key, code);
+
+        return code;
+    }
+
+    private String generateMethodDecl(JmmNode node) {
+        // Temporaries and labels are numbered per method
+        numberLoops = 0;
+        numberIfs = 0;
+        exprVisitor.startMethod();
+
         StringBuilder code = new StringBuilder(".method ");
 
         boolean isPublic = NodeUtils.getBooleanAttribute(node, "isPublic", "false");
@@ -342,6 +376,11 @@ public class OllirGeneratorVisitor extends AJmmVisitor<Void, String> {
 
 
     private String visitProgram(JmmNode node, Void unused) {
+        if (methodCache != null) {
+            var classFingerprint = AstFingerprint.getClassFingerprint(node);
+            classKey = classFingerprint.isEmpty() ? null : methodCache.getKey(classFingerprint);
+        }
+
         StringBuilder code = new StringBuilder();
         for (var import_ : table.getImports()) {
             code.append("import ").append(import_).append(";\n");
@@ -0,0 +1,23 @@
+package pt.up.fe.comp2024.optimization;
+
+/**
+ * How {@link ConstantPropagation} finds the uses that are constants.
+ */
+public enum PropagationMode {
+
+    /**
+     * Sparse conditional constant propagation over the SSA form, which also removes the branches that never run, see
+     * {@link pt.up.fe.comp2024.optimization.dataflow.SparseConditionalConstants}.
+     */
+    SCCP,
+
+    /**
+     * From the reaching definitions of each use, assuming that all branches run, see
+     * {@link pt.up.fe.comp2024.optimization.dataflow.ReachingConstants}.
+     */
+    REACHING;
+
+    public String getName() {
+        return name().toLowerCase();
+    }
+}
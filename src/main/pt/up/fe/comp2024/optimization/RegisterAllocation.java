@@ -0,0 +1,136 @@
+package pt.up.fe.comp2024.optimization;
+
+import org.specs.comp.ollir.ClassUnit;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.VarScope;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2024.optimization.dataflow.InstructionAccesses;
+import pt.up.fe.comp2024.optimization.dataflow.LiveVariables;
+import pt.up.fe.comp2024.optimization.dataflow.OllirFlowGraph;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Gives the variables of each OLLIR method the JVM locals they are stored in ('-r'), so that variables that are never
+ * live at the same time (e.g. most of the temporaries) share a local.
+ * <p>
+ * The variables that interfere are found with {@link LiveVariables} (see
+ * {@link InterferenceGraph#build(LiveVariables, int)}). 'this' and the parameters keep the locals the JVM puts them in,
+ * but the other variables can reuse them once they are no longer needed. The locals are then given by coloring the
+ * {@link InterferenceGraph} with at most the requested number of locals, or as few as possible when that number is 0.
+ * <p>
+ * Only the virtual registers of the variable tables are changed. The names in the tables that are never assigned nor
+ * read (the classes of static calls) are not variables, and get -1, like the fields. A variable read before it is
+ * assigned is live when the method starts, so it gets a local of its own, like the parameters.
+ */
+public class RegisterAllocation {
+
+    private final int maxRegisters;
+
+    /**
+     * @param maxRegisters the most locals each method may use, or 0 to use as few as possible
+     */
+    public RegisterAllocation(int maxRegisters) {
+        this.maxRegisters = maxRegisters;
+    }
+
+    /**
+     * @return an error for each method that needs more locals than allowed, whose variables are not changed
+     */
+    public List<Report> optimize(ClassUnit ollirClass) {
+        List<Report> reports = new ArrayList<>();
+        for (var method : ollirClass.getMethods()) {
+            allocate(method).ifPresent(reports::add);
+        }
+
+        return reports;
+    }
+
+    private Optional<Report> allocate(Method method) {
+        var varTable = method.getVarTable();
+        var variables = getVariables(method);
+        int numFixed = getNumEntryVariables(method);
+
+        var liveness = LiveVariables.solve(OllirFlowGraph.build(method), variables);
+        var interference = InterferenceGraph.build(liveness, numFixed);
+        for (int i = 0; i < numFixed; i++) {
+            var descriptor = varTable.get(liveness.getVariables().get(i));
+            // 'this' is not in the table of the methods that do not use it
+            interference.setFixedRegister(i, descriptor == null ? 0 : descriptor.getVirtualReg());
+        }
+
+        int[] registers;
+        if (maxRegisters == 0) {
+            registers = interference.colorWithFewestRegisters();
+        } else {
+            var colored = interference.color(maxRegisters);
+            if (colored.isEmpty()) {
+                int needed = getNumRegisters(interference.colorWithFewestRegisters());
+                return Optional.of(Report.newError(Stage.OPTIMIZATION, -1, -1, "Method '" + method.getMethodName() +
+                        "' needs at least " + needed + " locals, but only " + maxRegisters + " were allowed", null));
+            }
+            registers = colored.get();
+        }
+
+        for (var entry : varTable.entrySet()) {
+            if (entry.getValue().getScope() == VarScope.LOCAL && !variables.contains(entry.getKey())) {
+                entry.getValue().setVirtualReg(-1);
+            }
+        }
+        for (int i = numFixed; i < interference.getVariables().size(); i++) {
+            varTable.get(interference.getVariables().get(i)).setVirtualReg(registers[i]);
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * @return 'this' and the parameters first, by their registers, then the other variables in the order they are first
+     * read or assigned
+     */
+    static Set<String> getVariables(Method method) {
+        var varTable = method.getVarTable();
+
+        Set<String> variables = new LinkedHashSet<>();
+        if (!method.isStaticMethod()) {
+            variables.add("this");
+        }
+        varTable.entrySet().stream()
+                .filter(entry -> entry.getValue().getScope() == VarScope.PARAMETER)
+                .sorted(Comparator.comparingInt(entry -> entry.getValue().getVirtualReg()))
+                .forEach(entry -> variables.add(entry.getKey()));
+
+        for (var instruction : method.getInstructions()) {
+            for (var use : InstructionAccesses.getUses(instruction, varTable.keySet())) {
+                variables.add(use.getName());
+            }
+            InstructionAccesses.getDefinedVariable(instruction)
+                    .filter(varTable::containsKey)
+                    .ifPresent(variables::add);
+        }
+
+        return variables;
+    }
+
+    /**
+     * @return the number of variables that have their values when the method starts, 'this' and the parameters
+     */
+    static int getNumEntryVariables(Method method) {
+        return (method.isStaticMethod() ? 0 : 1) + method.getParams().size();
+    }
+
+    private static int getNumRegisters(int[] registers) {
+        int numRegisters = 0;
+        for (int register : registers) {
+            numRegisters = Math.max(numRegisters, register + 1);
+        }
+
+        return numRegisters;
+    }
+}
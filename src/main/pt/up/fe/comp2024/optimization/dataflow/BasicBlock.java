@@ -0,0 +1,79 @@
+package pt.up.fe.comp2024.optimization.dataflow;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A sequence of statements that always run one after the other, which may end with the condition of an if or a
+ * while that chooses the next block.
+ * <p>
+ * The nodes of a block are simple statements (assignments, expression statements and returns), followed by the
+ * condition, if there is one. A block with a condition has two successors, the block that runs when the condition
+ * is true, and then the one that runs when it is false.
+ */
+public class BasicBlock {
+
+    private final int id;
+    private final List<JmmNode> nodes;
+    private JmmNode condition;
+
+    private final List<BasicBlock> successors;
+    private final List<BasicBlock> predecessors;
+
+    BasicBlock(int id) {
+        this.id = id;
+        this.nodes = new ArrayList<>();
+        this.condition = null;
+        this.successors = new ArrayList<>(2);
+        this.predecessors = new ArrayList<>();
+    }
+
+    /**
+     * @return the index of the block in its graph
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return the statements of the block, in order, followed by the condition, if there is one
+     */
+    public List<JmmNode> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    public Optional<JmmNode> getCondition() {
+        return Optional.ofNullable(condition);
+    }
+
+    public List<BasicBlock> getSuccessors() {
+        return Collections.unmodifiableList(successors);
+    }
+
+    public List<BasicBlock> getPredecessors() {
+        return Collections.unmodifiableList(predecessors);
+    }
+
+    void addStatement(JmmNode statement) {
+        nodes.add(statement);
+    }
+
+    void setCondition(JmmNode condition) {
+        this.condition = condition;
+        nodes.add(condition);
+    }
+
+    void addSuccessor(BasicBlock successor) {
+        successors.add(successor);
+        successor.predecessors.add(this);
+    }
+
+    @Override
+    public String toString() {
+        return "B" + id;
+    }
+}
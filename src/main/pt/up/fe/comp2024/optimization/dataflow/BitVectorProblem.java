@@ -0,0 +1,55 @@
+package pt.up.fe.comp2024.optimization.dataflow;
+
+import java.util.BitSet;
+
+/**
+ * A dataflow problem whose values are sets of facts, as bits (e.g. the definitions that reach a point of the program),
+ * and whose transfer function is {@code out = gen | (in - kill)}.
+ *
+ * @param <N> the type of the nodes of the graph
+ */
+public interface BitVectorProblem<N> {
+
+    enum Direction {
+        FORWARD,
+        BACKWARD
+    }
+
+    enum Meet {
+        /**
+         * A fact holds if it holds in any of the paths (e.g. reaching definitions, liveness)
+         */
+        UNION,
+        /**
+         * A fact holds if it holds in all of the paths (e.g. available expressions)
+         */
+        INTERSECTION
+    }
+
+    Direction getDirection();
+
+    Meet getMeet();
+
+    /**
+     * @return the number of facts, the bits of the values are between 0 and this number
+     */
+    int getSize();
+
+    /**
+     * @return the facts the node makes hold
+     */
+    BitSet getGen(N node);
+
+    /**
+     * @return the facts the node stops from holding
+     */
+    BitSet getKill(N node);
+
+    /**
+     * @return the facts that hold when entering the entry node (forward problems) or when leaving the exit node
+     * (backward problems)
+     */
+    default BitSet getBoundary() {
+        return new BitSet();
+    }
+}
@@ -0,0 +1,213 @@
+package pt.up.fe.comp2024.optimization.dataflow;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.ast.Kind;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The basic blocks of a method and the edges between them.
+ * <p>
+ * Conditional statements end the current block with their condition, followed by a block for each branch, which join
+ * in a new block. While statements have a block with only their condition, the header, which the end of the body goes
+ * back to. The entry block is the first one, and the exit block, which is empty, is the last one. Returns go to the
+ * exit block, and the statements after them are in blocks without predecessors.
+ */
+public class ControlFlowGraph implements FlowGraph<BasicBlock> {
+
+    private final JmmNode method;
+    private final List<BasicBlock> blocks;
+    private BasicBlock exit;
+
+    // The block the statements are added to while building the graph, and the blocks that end with a return, which
+    // go to the exit block once it is created
+    private BasicBlock current;
+    private final List<BasicBlock> returnBlocks;
+
+    private ControlFlowGraph(JmmNode method) {
+        this.method = method;
+        this.blocks = new ArrayList<>();
+        this.returnBlocks = new ArrayList<>();
+    }
+
+    /**
+     * @return the graph of the method, or empty if it has statements the graph does not support (for statements)
+     */
+    public static Optional<ControlFlowGraph> build(JmmNode method) {
+        Kind.METHOD_DECL.checkOrThrow(method);
+
+        var graph = new ControlFlowGraph(method);
+        graph.current = graph.newBlock();
+
+        for (var child : method.getChildren()) {
+            // The signature and the declarations of the variables are not run
+            if (Kind.check(child, Kind.TYPE, Kind.PARAM, Kind.VAR_DECL)) {
+                continue;
+            }
+
+            if (!graph.addStatement(child)) {
+                return Optional.empty();
+            }
+        }
+
+        graph.exit = graph.newBlock();
+        graph.current.addSuccessor(graph.exit);
+        for (var block : graph.returnBlocks) {
+            block.addSuccessor(graph.exit);
+        }
+        graph.current = null;
+        graph.returnBlocks.clear();
+
+        return Optional.of(graph);
+    }
+
+    public JmmNode getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the names of the parameters and local variables of the method, the other names are fields or classes
+     */
+    public Set<String> getVariables() {
+        Set<String> variables = new LinkedHashSet<>();
+
+        var params = method.getChildren(Kind.PARAM);
+        while (!params.isEmpty()) {
+            var param = params.get(0);
+            variables.add(param.get("name"));
+            params = param.getChildren(Kind.PARAM);
+        }
+
+        for (var varDecl : method.getChildren(Kind.VAR_DECL)) {
+            variables.add(varDecl.get("name"));
+        }
+
+        return variables;
+    }
+
+    /**
+     * @return the blocks, in the order of the statements of the method
+     */
+    @Override
+    public List<BasicBlock> getNodes() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    @Override
+    public BasicBlock getEntry() {
+        return blocks.get(0);
+    }
+
+    @Override
+    public BasicBlock getExit() {
+        return exit;
+    }
+
+    @Override
+    public List<BasicBlock> getSuccessors(BasicBlock block) {
+        return block.getSuccessors();
+    }
+
+    @Override
+    public List<BasicBlock> getPredecessors(BasicBlock block) {
+        return block.getPredecessors();
+    }
+
+    private BasicBlock newBlock() {
+        var block = new BasicBlock(blocks.size());
+        blocks.add(block);
+
+        return block;
+    }
+
+    /**
+     * @return false if the statement is not supported
+     */
+    private boolean addStatement(JmmNode statement) {
+        switch (Kind.of(statement)) {
+            case ASSIGN_STMT, EXPR_STMT -> current.addStatement(statement);
+            case RETURN_STMT -> {
+                current.addStatement(statement);
+                returnBlocks.add(current);
+                // Nothing runs after a return, the next statements are unreachable
+                current = newBlock();
+            }
+            case CURLY_STMT -> {
+                for (var child : statement.getChildren()) {
+                    if (!addStatement(child)) {
+                        return false;
+                    }
+                }
+            }
+            case CONDITIONAL_STMT -> {
+                var ifExpr = statement.getJmmChild(0);
+                var elseExpr = statement.getJmmChild(1);
+
+                var conditionBlock = current;
+                conditionBlock.setCondition(ifExpr.getJmmChild(0));
+
+                var thenBlock = newBlock();
+                conditionBlock.addSuccessor(thenBlock);
+                current = thenBlock;
+                if (!addStatement(ifExpr.getJmmChild(1))) {
+                    return false;
+                }
+                var thenEnd = current;
+
+                var elseBlock = newBlock();
+                conditionBlock.addSuccessor(elseBlock);
+                current = elseBlock;
+                if (!addStatement(elseExpr.getJmmChild(0))) {
+                    return false;
+                }
+                var elseEnd = current;
+
+                var join = newBlock();
+                thenEnd.addSuccessor(join);
+                elseEnd.addSuccessor(join);
+                current = join;
+            }
+            case WHILE_STMT -> {
+                var header = newBlock();
+                current.addSuccessor(header);
+                header.setCondition(statement.getJmmChild(0));
+
+                var body = newBlock();
+                header.addSuccessor(body);
+                current = body;
+                if (!addStatement(statement.getJmmChild(1))) {
+                    return false;
+                }
+                current.addSuccessor(header);
+
+                var after = newBlock();
+                header.addSuccessor(after);
+                current = after;
+            }
+            default -> {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        var code = new StringBuilder();
+        for (var block : blocks) {
+            code.append(block).append(" -> ").append(block.getSuccessors()).append(":");
+            for (var node : block.getNodes()) {
+                code.append(" ").append(node.getKind());
+            }
+            code.append("\n");
+        }
+
+        return code.toString();
+    }
+}
@@ -0,0 +1,35 @@
+package pt.up.fe.comp2024.optimization.dataflow;
+
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * The facts that hold before and after each node of a graph, the solution of a {@link BitVectorProblem}. Before and
+ * after are in the order the program runs, whatever the direction of the problem.
+ *
+ * @param <N> the type of the nodes of the graph
+ */
+public class DataflowResult<N> {
+
+    private final Map<N, BitSet> in;
+    private final Map<N, BitSet> out;
+
+    DataflowResult(Map<N, BitSet> in, Map<N, BitSet> out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    /**
+     * @return the facts that hold before the node, which must not be changed
+     */
+    public BitSet getIn(N node) {
+        return in.get(node);
+    }
+
+    /**
+     * @return the facts that hold after the node, which must not be changed
+     */
+    public BitSet getOut(N node) {
+        return out.get(node);
+    }
+}
@@ -0,0 +1,96 @@
+package pt.up.fe.comp2024.optimization.dataflow;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Solves {@link BitVectorProblem}s with a worklist: a node is computed again only when the value of one of the nodes
+ * it depends on changed, until no value changes.
+ */
+public class DataflowSolver {
+
+    private DataflowSolver() {
+    }
+
+    public static <N> DataflowResult<N> solve(FlowGraph<N> graph, BitVectorProblem<N> problem) {
+        boolean forward = problem.getDirection() == BitVectorProblem.Direction.FORWARD;
+        boolean union = problem.getMeet() == BitVectorProblem.Meet.UNION;
+
+        // The values before and after each node, in the direction of the problem
+        Map<N, BitSet> input = new IdentityHashMap<>();
+        Map<N, BitSet> output = new IdentityHashMap<>();
+
+        // The most optimistic value, which the meet of the paths only makes smaller
+        var initial = new BitSet();
+        if (!union) {
+            initial.set(0, problem.getSize());
+        }
+
+        List<N> nodes = graph.getNodes();
+        for (var node : nodes) {
+            output.put(node, (BitSet) initial.clone());
+        }
+
+        var boundaryNode = forward ? graph.getEntry() : graph.getExit();
+
+        // Backward problems converge faster visiting the nodes from the end
+        var worklist = new ArrayDeque<N>(nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            worklist.add(nodes.get(forward ? i : nodes.size() - 1 - i));
+        }
+        Set<N> queued = Collections.newSetFromMap(new IdentityHashMap<>());
+        queued.addAll(nodes);
+
+        while (!worklist.isEmpty()) {
+            var node = worklist.poll();
+            queued.remove(node);
+
+            var sources = forward ? graph.getPredecessors(node) : graph.getSuccessors(node);
+            BitSet in;
+            if (node == boundaryNode) {
+                in = (BitSet) problem.getBoundary().clone();
+                for (var source : sources) {
+                    meet(in, output.get(source), union);
+                }
+            } else if (sources.isEmpty()) {
+                // Unreachable, nothing flows into the node
+                in = (BitSet) initial.clone();
+            } else {
+                in = (BitSet) output.get(sources.get(0)).clone();
+                for (int i = 1; i < sources.size(); i++) {
+                    meet(in, output.get(sources.get(i)), union);
+                }
+            }
+            input.put(node, in);
+
+            var out = (BitSet) in.clone();
+            out.andNot(problem.getKill(node));
+            out.or(problem.getGen(node));
+
+            if (!out.equals(output.get(node))) {
+                output.put(node, out);
+
+                for (var target : forward ? graph.getSuccessors(node) : graph.getPredecessors(node)) {
+                    if (queued.add(target)) {
+                        worklist.add(target);
+                    }
+                }
+            }
+        }
+
+        return forward ? new DataflowResult<>(input, output) : new DataflowResult<>(output, input);
+    }
+
+    private static void meet(BitSet value, BitSet other, boolean union) {
+        if (union) {
+            value.or(other);
+        } else {
+            value.and(other);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package pt.up.fe.comp2024.optimization.dataflow;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The dominators of the blocks of a {@link ControlFlowGraph}: a block dominates another if every path from the entry
+ * to the other block goes through it.
+ * <p>
+ * The immediate dominators are found with the iterative algorithm of Cooper, Harvey and Kennedy, and the dominance
+ * frontier of a block has the blocks where its dominance ends, i.e. the blocks it does not strictly dominate that
+ * have a predecessor it dominates. Blocks that cannot be reached from the entry have no dominators.
+ */
+public class DominatorTree {
+
+    private final ControlFlowGraph graph;
+
+    // By the id of the blocks, -1 (or null) for the unreachable blocks
+    private final int[] postorderNumbers;
+    private final BasicBlock[] immediateDominators;
+    private final List<List<BasicBlock>> children;
+    private final List<Set<BasicBlock>> frontiers;
+
+    private final List<BasicBlock> reversePostorder;
+
+    private DominatorTree(ControlFlowGraph graph) {
+        int numBlocks = graph.getNodes().size();
+
+        this.graph = graph;
+        this.postorderNumbers = new int[numBlocks];
+        this.immediateDominators = new BasicBlock[numBlocks];
+        this.children = new ArrayList<>(numBlocks);
+        this.frontiers = new ArrayList<>(numBlocks);
+        for (int i = 0; i < numBlocks; i++) {
+            children.add(new ArrayList<>());
+            frontiers.add(new LinkedHashSet<>());
+        }
+        this.reversePostorder = new ArrayList<>(numBlocks);
+    }
+
+    public static DominatorTree build(ControlFlowGraph graph) {
+        var tree = new DominatorTree(graph);
+        tree.orderBlocks();
+        tree.findImmediateDominators();
+        tree.findFrontiers();
+
+        return tree;
+    }
+
+    /**
+     * Numbers the reachable blocks in postorder, with a depth-first search from the entry.
+     */
+    private void orderBlocks() {
+        Arrays.fill(postorderNumbers, -1);
+
+        boolean[] visited = new boolean[postorderNumbers.length];
+        List<BasicBlock> postorder = new ArrayList<>();
+
+        // Each entry is a block and the index of the next successor to visit
+        var stack = new ArrayDeque<int[]>();
+        var blocks = graph.getNodes();
+        visited[graph.getEntry().getId()] = true;
+        stack.push(new int[]{graph.getEntry().getId(), 0});
+
+        while (!stack.isEmpty()) {
+            var top = stack.peek();
+            var block = blocks.get(top[0]);
+            var successors = block.getSuccessors();
+
+            if (top[1] < successors.size()) {
+                var successor = successors.get(top[1]++);
+                if (!visited[successor.getId()]) {
+                    visited[successor.getId()] = true;
+                    stack.push(new int[]{successor.getId(), 0});
+                }
+            } else {
+                stack.pop();
+                postorderNumbers[block.getId()] = postorder.size();
+                postorder.add(block);
+            }
+        }
+
+        for (int i = postorder.size() - 1; i >= 0; i--) {
+            reversePostorder.add(postorder.get(i));
+        }
+    }
+
+    private void findImmediateDominators() {
+        var entry = graph.getEntry();
+        immediateDominators[entry.getId()] = entry;
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            for (var block : reversePostorder) {
+                if (block == entry) {
+                    continue;
+                }
+
+                BasicBlock newDominator = null;
+                for (var predecessor : block.getPredecessors()) {
+                    if (immediateDominators[predecessor.getId()] == null) {
+                        // Not processed yet, or unreachable
+                        continue;
+                    }
+                    newDominator = newDominator == null ? predecessor : intersect(predecessor, newDominator);
+                }
+
+                if (immediateDominators[block.getId()] != newDominator) {
+                    immediateDominators[block.getId()] = newDominator;
+                    changed = true;
+                }
+            }
+        }
+
+        for (var block : reversePostorder) {
+            if (block != entry) {
+                children.get(immediateDominators[block.getId()].getId()).add(block);
+            }
+        }
+    }
+
+    /**
+     * @return the closest common dominator of the blocks
+     */
+    private BasicBlock intersect(BasicBlock first, BasicBlock second) {
+        while (first != second) {
+            while (postorderNumbers[first.getId()] < postorderNumbers[second.getId()]) {
+                first = immediateDominators[first.getId()];
+            }
+            while (postorderNumbers[second.getId()] < postorderNumbers[first.getId()]) {
+                second = immediateDominators[second.getId()];
+            }
+        }
+
+        return first;
+    }
+
+    private void findFrontiers() {
+        for (var block : reversePostorder) {
+            var predecessors = block.getPredecessors().stream().filter(this::isReachable).toList();
+            if (predecessors.size() < 2) {
+                continue;
+            }
+
+            var dominator = immediateDominators[block.getId()];
+            for (var predecessor : predecessors) {
+                var runner = predecessor;
+                while (runner != dominator) {
+                    frontiers.get(runner.getId()).add(block);
+                    runner = immediateDominators[runner.getId()];
+                }
+            }
+        }
+    }
+
+    public ControlFlowGraph getGraph() {
+        return graph;
+    }
+
+    public boolean isReachable(BasicBlock block) {
+        return postorderNumbers[block.getId()] >= 0;
+    }
+
+    /**
+     * @return the immediate dominator of the block, empty for the entry and the unreachable blocks
+     */
+    public Optional<BasicBlock> getImmediateDominator(BasicBlock block) {
+        if (block == graph.getEntry()) {
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable(immediateDominators[block.getId()]);
+    }
+
+    /**
+     * @return the blocks the block is the immediate dominator of
+     */
+    public List<BasicBlock> getChildren(BasicBlock block) {
+        return Collections.unmodifiableList(children.get(block.getId()));
+    }
+
+    public Set<BasicBlock> getFrontier(BasicBlock block) {
+        return Collections.unmodifiableSet(frontiers.get(block.getId()));
+    }
+
+    /**
+     * @return true if the first block dominates the second one, which includes being the same block
+     */
+    public boolean dominates(BasicBlock dominator, BasicBlock block) {
+        if (!isReachable(block)) {
+            return false;
+        }
+
+        var current = block;
+        while (current != dominator) {
+            if (current == graph.getEntry()) {
+                return false;
+            }
+            current = immediateDominators[current.getId()];
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the reachable blocks, in reverse postorder, where each block comes before the blocks it dominates
+     */
+    public List<BasicBlock> getReversePostorder() {
+        return Collections.unmodifiableList(reversePostorder);
+    }
+}
@@ -0,0 +1,31 @@
+package pt.up.fe.comp2024.optimization.dataflow;
+
+import java.util.List;
+
+/**
+ * A graph that data flows through, e.g. the basic blocks of a method, which the {@link DataflowSolver} works on.
+ *
+ * @param <N> the type of the nodes
+ */
+public interface FlowGraph<N> {
+
+    /**
+     * @return all the nodes, preferably in the order the program runs through them, which makes forward problems
+     * converge faster
+     */
+    List<N> getNodes();
+
+    /**
+     * @return the node where the program starts
+     */
+    N getEntry();
+
+    /**
+     * @return the node where the program ends
+     */
+    N getExit();
+
+    List<N> getSuccessors(N node);
+
+    List<N> getPredecessors(N node);
+}
@@ -0,0 +1,106 @@
+package pt.up.fe.comp2024.optimization.dataflow;
+
+import org.specs.comp.ollir.ArrayOperand;
+import org.specs.comp.ollir.AssignInstruction;
+import org.specs.comp.ollir.CallInstruction;
+import org.specs.comp.ollir.CallType;
+import org.specs.comp.ollir.FieldInstruction;
+import org.specs.comp.ollir.Instruction;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.SingleOpInstruction;
+import org.specs.comp.ollir.tree.TreeNode;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The variables each OLLIR instruction writes and reads, the OLLIR counterpart of {@link VariableAccesses}.
+ */
+public class InstructionAccesses {
+
+    private InstructionAccesses() {
+    }
+
+    /**
+     * @return the variable the instruction assigns, if it is an assignment to a whole variable (an assignment to an
+     * element of an array reads the array)
+     */
+    public static Optional<String> getDefinedVariable(Instruction instruction) {
+        if (instruction instanceof AssignInstruction assign && assign.getDest() instanceof Operand dest
+                && !(dest instanceof ArrayOperand)) {
+            return Optional.of(dest.getName());
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * @return the variable the instruction copies, if it assigns a whole variable to another
+     */
+    public static Optional<String> getCopiedVariable(Instruction instruction) {
+        if (getDefinedVariable(instruction).isPresent()
+                && ((AssignInstruction) instruction).getRhs() instanceof SingleOpInstruction single
+                && single.getSingleOperand() instanceof Operand operand && !(operand instanceof ArrayOperand)) {
+            return Optional.of(operand.getName());
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * @return the operands of the instruction that write or read the variables
+     */
+    public static List<Operand> getAccesses(Instruction instruction, Collection<String> variables) {
+        var accesses = getUses(instruction, variables);
+        if (instruction instanceof AssignInstruction assign && assign.getDest() instanceof Operand dest
+                && !(dest instanceof ArrayOperand) && variables.contains(dest.getName())) {
+            accesses.add(dest);
+        }
+
+        return accesses;
+    }
+
+    /**
+     * @param variables the variables to look for, the other names are fields, classes or variables that are not tracked
+     * @return the operands of the instruction that read the variables, in the order they appear
+     */
+    public static List<Operand> getUses(Instruction instruction, Collection<String> variables) {
+        List<Operand> uses = new ArrayList<>();
+
+        if (instruction instanceof AssignInstruction assign) {
+            // The assigned variable is not read, but the array and the indices of an assigned element are
+            if (assign.getDest() instanceof ArrayOperand) {
+                addUses(assign.getDest(), variables, uses);
+            }
+            addUses(assign.getRhs(), variables, uses);
+        } else {
+            addUses(instruction, variables, uses);
+        }
+
+        return uses;
+    }
+
+    private static boolean isClassCall(CallInstruction call) {
+        return call.getInvocationType() == CallType.invokestatic || call.getInvocationType() == CallType.NEW;
+    }
+
+    private static void addUses(TreeNode node, Collection<String> variables, List<Operand> uses) {
+        if (node instanceof Operand operand && variables.contains(operand.getName())) {
+            uses.add(operand);
+        }
+
+        for (var child : node.getChildren()) {
+            // A field with the name of a local variable is not the variable
+            if (node instanceof FieldInstruction field && field.getField() == child) {
+                continue;
+            }
+            // Neither is the class of a static call or of a 'new', which the variable tables may have as a local
+            if (node instanceof CallInstruction call && call.getCaller() == child && isClassCall(call)) {
+                continue;
+            }
+            addUses(child, variables, uses);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package pt.up.fe.comp2024.optimization.dataflow;
+
+import org.specs.comp.ollir.Instruction;
+import org.specs.comp.ollir.Node;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The variables of an OLLIR method that are live before and after each instruction, i.e. whose current value may still
+ * be read by an instruction that runs later.
+ * <p>
+ * Each variable is a fact, numbered by its position in the variables given to {@link #solve(OllirFlowGraph, Collection)}.
+ * An instruction makes the variables it reads live, and the variable it assigns dead before it.
+ */
+public class LiveVariables implements BitVectorProblem<Node> {
+
+    private final OllirFlowGraph graph;
+    private final List<String> variables;
+    private final Map<String, Integer> variableIndices;
+
+    private final Map<Node, BitSet> gen;
+    private final Map<Node, BitSet> kill;
+
+    private DataflowResult<Node> result;
+
+    private LiveVariables(OllirFlowGraph graph, Collection<String> variables) {
+        this.graph = graph;
+        this.variables = List.copyOf(new LinkedHashSet<>(variables));
+        this.variableIndices = new HashMap<>();
+        for (int i = 0; i < this.variables.size(); i++) {
+            variableIndices.put(this.variables.get(i), i);
+        }
+        this.gen = new IdentityHashMap<>();
+        this.kill = new IdentityHashMap<>();
+    }
+
+    /**
+     * @param variables the names of the variables to track, the other names are not tracked
+     */
+    public static LiveVariables solve(OllirFlowGraph graph, Collection<String> variables) {
+        var liveVariables = new LiveVariables(graph, variables);
+        liveVariables.findAccesses();
+        liveVariables.result = DataflowSolver.solve(graph, liveVariables);
+
+        return liveVariables;
+    }
+
+    private void findAccesses() {
+        for (var node : graph.getNodes()) {
+            var nodeGen = new BitSet();
+            var nodeKill = new BitSet();
+
+            if (node instanceof Instruction instruction) {
+                for (var use : InstructionAccesses.getUses(instruction, variableIndices.keySet())) {
+                    nodeGen.set(variableIndices.get(use.getName()));
+                }
+                InstructionAccesses.getDefinedVariable(instruction)
+                        .filter(variableIndices::containsKey)
+                        .ifPresent(variable -> nodeKill.set(variableIndices.get(variable)));
+            }
+
+            gen.put(node, nodeGen);
+            kill.put(node, nodeKill);
+        }
+    }
+
+    public OllirFlowGraph getGraph() {
+        return graph;
+    }
+
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * @return the index of the variable in the sets of live variables, or -1 if it is not tracked
+     */
+    public int getIndex(String variable) {
+        return variableIndices.getOrDefault(variable, -1);
+    }
+
+    /**
+     * @return the variables that are live before the node, which must not be changed
+     */
+    public BitSet getLiveIn(Node node) {
+        return result.getIn(node);
+    }
+
+    /**
+     * @return the variables that are live after the node, which must not be changed
+     */
+    public BitSet getLiveOut(Node node) {
+        return result.getOut(node);
+    }
+
+    @Override
+    public Direction getDirection() {
+        return Direction.BACKWARD;
+    }
+
+    @Override
+    public Meet getMeet() {
+        return Meet.UNION;
+    }
+
+    @Override
+    public int getSize() {
+        return variables.size();
+    }
+
+    @Override
+    public BitSet getGen(Node node) {
+        return gen.get(node);
+    }
+
+    @Override
+    public BitSet getKill(Node node) {
+        return kill.get(node);
+    }
+}
@@ -0,0 +1,125 @@
+package pt.up.fe.comp2024.optimization.dataflow;
+
+import org.specs.comp.ollir.CondBranchInstruction;
+import org.specs.comp.ollir.GotoInstruction;
+import org.specs.comp.ollir.Instruction;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Node;
+import org.specs.comp.ollir.NodeType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The control flow graph of an OLLIR method, whose nodes are its instructions, between a begin and an end node.
+ * <p>
+ * The edges are found from the labels of the method, the successors and predecessors of its instructions are not used,
+ * so the method does not need (and is not changed by) {@link Method#buildCFG()}. The successors of a branch are the
+ * instruction of its label first, and then the next instruction.
+ */
+public class OllirFlowGraph implements FlowGraph<Node> {
+
+    private final Method method;
+    private final Node entry;
+    private final Node exit;
+    private final List<Node> nodes;
+    private final Map<Node, List<Node>> successors;
+    private final Map<Node, List<Node>> predecessors;
+
+    private OllirFlowGraph(Method method) {
+        this.method = method;
+        this.entry = new Node(NodeType.BEGIN);
+        this.exit = new Node(NodeType.END);
+        this.nodes = new ArrayList<>();
+        this.successors = new IdentityHashMap<>();
+        this.predecessors = new IdentityHashMap<>();
+    }
+
+    public static OllirFlowGraph build(Method method) {
+        var graph = new OllirFlowGraph(method);
+        graph.addEdges();
+
+        return graph;
+    }
+
+    private void addEdges() {
+        var instructions = method.getInstructions();
+
+        nodes.add(getEntry());
+        nodes.addAll(instructions);
+        nodes.add(getExit());
+        for (var node : nodes) {
+            successors.put(node, new ArrayList<>());
+            predecessors.put(node, new ArrayList<>());
+        }
+
+        addEdge(getEntry(), instructions.isEmpty() ? getExit() : instructions.get(0));
+
+        for (int i = 0; i < instructions.size(); i++) {
+            var instruction = instructions.get(i);
+            Node next = i + 1 < instructions.size() ? instructions.get(i + 1) : getExit();
+
+            switch (instruction.getInstType()) {
+                case GOTO -> addEdge(instruction, getLabelled(((GotoInstruction) instruction).getLabel()));
+                case BRANCH -> {
+                    addEdge(instruction, getLabelled(((CondBranchInstruction) instruction).getLabel()));
+                    addEdge(instruction, next);
+                }
+                case RETURN -> addEdge(instruction, getExit());
+                default -> addEdge(instruction, next);
+            }
+        }
+    }
+
+    private Instruction getLabelled(String label) {
+        var instruction = method.getLabels().get(label);
+        if (instruction == null) {
+            throw new RuntimeException("Label '" + label + "' not found in method '" + method.getMethodName() + "'");
+        }
+
+        return instruction;
+    }
+
+    private void addEdge(Node source, Node target) {
+        // A branch to the next instruction has a single edge
+        if (!successors.get(source).contains(target)) {
+            successors.get(source).add(target);
+            predecessors.get(target).add(source);
+        }
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the begin node, the instructions in the order of the method, and the end node
+     */
+    @Override
+    public List<Node> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    @Override
+    public Node getEntry() {
+        return entry;
+    }
+
+    @Override
+    public Node getExit() {
+        return exit;
+    }
+
+    @Override
+    public List<Node> getSuccessors(Node node) {
+        return Collections.unmodifiableList(successors.get(node));
+    }
+
+    @Override
+    public List<Node> getPredecessors(Node node) {
+        return Collections.unmodifiableList(predecessors.get(node));
+    }
+}
@@ -0,0 +1,111 @@
+package pt.up.fe.comp2024.optimization.dataflow;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.optimization.ConstantValues;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The uses of the local variables and parameters of a method whose value is always the same constant, found from the
+ * definitions that reach them ({@link ReachingDefinitions}): if all of them assign the same constant, the use is that
+ * constant.
+ * <p>
+ * The value a definition assigns is computed from the definitions that reach the uses in its right side, so a whole
+ * chain of constants (e.g. 'a = 1; b = a + 1;') is found with a single solution of the reaching definitions. Unlike
+ * {@link SparseConditionalConstants}, all branches are assumed to run, so 'if (false) { a = 2; }' stops 'a' from being
+ * a constant after the if.
+ */
+public class ReachingConstants {
+
+    private final ReachingDefinitions reachingDefinitions;
+
+    // The value of each definition, empty if it is not a constant
+    private final Map<JmmNode, Optional<String>> definitionValues = new IdentityHashMap<>();
+    // The definitions being computed, a definition that depends on itself, through a loop, is not a constant
+    private final Set<JmmNode> computing = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private ReachingConstants(ReachingDefinitions reachingDefinitions) {
+        this.reachingDefinitions = reachingDefinitions;
+    }
+
+    public static ReachingConstants solve(ControlFlowGraph graph) {
+        return new ReachingConstants(ReachingDefinitions.solve(graph, graph.getVariables()));
+    }
+
+    /**
+     * @return the uses of the variables, in the order of the blocks
+     */
+    public List<JmmNode> getUses() {
+        return reachingDefinitions.getUses();
+    }
+
+    /**
+     * @return the constant the use always reads, if there is one
+     */
+    public Optional<String> getUseConstant(JmmNode use) {
+        var definitions = reachingDefinitions.getReachingDefinitions(use);
+        if (definitions == null || definitions.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String value = null;
+        for (int i = definitions.nextSetBit(0); i >= 0; i = definitions.nextSetBit(i + 1)) {
+            // The value of a parameter, or of a variable that may not have been assigned
+            var definition = reachingDefinitions.getDefinition(i);
+            if (definition.isEmpty()) {
+                return Optional.empty();
+            }
+
+            var definitionValue = getDefinitionValue(definition.get());
+            if (definitionValue.isEmpty() || (value != null && !value.equals(definitionValue.get()))) {
+                return Optional.empty();
+            }
+            value = definitionValue.get();
+        }
+
+        return Optional.of(value);
+    }
+
+    private Optional<String> getDefinitionValue(JmmNode definition) {
+        var value = definitionValues.get(definition);
+        if (value != null) {
+            return value;
+        }
+
+        if (!computing.add(definition)) {
+            return Optional.empty();
+        }
+        value = evaluate(definition.getJmmChild(1));
+        computing.remove(definition);
+
+        definitionValues.put(definition, value);
+        return value;
+    }
+
+    /**
+     * @return the value of the expression, if it is always the same constant
+     */
+    private Optional<String> evaluate(JmmNode expr) {
+        return switch (Kind.of(expr)) {
+            case INTEGER_LITERAL, TRUE_LITERAL, FALSE_LITERAL -> ConstantValues.getLiteralValue(expr);
+            case PARENTHESIS -> evaluate(expr.getJmmChild(0));
+            case NEGATION -> evaluate(expr.getJmmChild(0)).flatMap(ConstantValues::negate);
+            case BINARY_EXPR -> {
+                var left = evaluate(expr.getJmmChild(0));
+                var right = left.isEmpty() ? Optional.<String>empty() : evaluate(expr.getJmmChild(1));
+                if (right.isEmpty()) {
+                    yield Optional.empty();
+                }
+                yield ConstantValues.evaluate(expr.get("op"), left.get(), right.get());
+            }
+            case VAR_REF_EXPR -> getUseConstant(expr);
+            default -> Optional.empty();
+        };
+    }
+}
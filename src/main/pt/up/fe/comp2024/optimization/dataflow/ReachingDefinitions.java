@@ -0,0 +1,205 @@
+package pt.up.fe.comp2024.optimization.dataflow;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.ast.Kind;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The assignments of the local variables and parameters of a method that reach each use of the variables, i.e. that
+ * may have set the value the use reads.
+ * <p>
+ * The definitions are the assignments to a variable, plus one definition of each variable at the entry of the method,
+ * for the value of a parameter or a variable that was not assigned yet. A use that this definition reaches may read a
+ * value that is not known when compiling.
+ */
+public class ReachingDefinitions implements BitVectorProblem<BasicBlock> {
+
+    private final ControlFlowGraph graph;
+
+    // The definitions of all variables, the first ones are the definitions at the entry, in the order of the variables
+    private final List<String> variables;
+    private final List<JmmNode> definitions;
+    private final Map<String, BitSet> variableDefinitions;
+    private final Map<JmmNode, Integer> definitionIndices;
+
+    private final Map<BasicBlock, BitSet> gen;
+    private final Map<BasicBlock, BitSet> kill;
+
+    // The uses, in the order of the blocks, and the definitions of its variable that reach each one
+    private final List<JmmNode> uses;
+    private final Map<JmmNode, BitSet> useDefinitions;
+
+    private ReachingDefinitions(ControlFlowGraph graph, Collection<String> variables) {
+        this.graph = graph;
+        this.variables = List.copyOf(new LinkedHashSet<>(variables));
+        this.definitions = new ArrayList<>();
+        this.variableDefinitions = new HashMap<>();
+        this.definitionIndices = new IdentityHashMap<>();
+        this.gen = new IdentityHashMap<>();
+        this.kill = new IdentityHashMap<>();
+        this.uses = new ArrayList<>();
+        this.useDefinitions = new IdentityHashMap<>();
+    }
+
+    /**
+     * @param variables the names of the local variables and parameters of the method of the graph, the names that are
+     *                  not in it are fields or classes, which are not tracked
+     */
+    public static ReachingDefinitions solve(ControlFlowGraph graph, Collection<String> variables) {
+        var reachingDefinitions = new ReachingDefinitions(graph, variables);
+        reachingDefinitions.findDefinitions();
+
+        var result = DataflowSolver.solve(graph, reachingDefinitions);
+        reachingDefinitions.findUses(result);
+
+        return reachingDefinitions;
+    }
+
+    private void findDefinitions() {
+        for (var variable : variables) {
+            addDefinition(variable, null);
+        }
+
+        for (var block : graph.getNodes()) {
+            for (var node : block.getNodes()) {
+                getDefinedVariable(node).ifPresent(variable -> addDefinition(variable, node));
+            }
+        }
+
+        for (var block : graph.getNodes()) {
+            var blockGen = new BitSet();
+            var blockKill = new BitSet();
+
+            for (var node : block.getNodes()) {
+                var variable = getDefinedVariable(node);
+                if (variable.isEmpty()) {
+                    continue;
+                }
+
+                // A later definition of the same variable in the block replaces the earlier ones
+                var sameVariable = variableDefinitions.get(variable.get());
+                blockGen.andNot(sameVariable);
+                blockGen.set(definitionIndices.get(node));
+                blockKill.or(sameVariable);
+            }
+
+            gen.put(block, blockGen);
+            kill.put(block, blockKill);
+        }
+    }
+
+    private int addDefinition(String variable, JmmNode node) {
+        int index = definitions.size();
+        definitions.add(node);
+        variableDefinitions.computeIfAbsent(variable, name -> new BitSet()).set(index);
+        if (node != null) {
+            definitionIndices.put(node, index);
+        }
+
+        return index;
+    }
+
+    private Optional<String> getDefinedVariable(JmmNode node) {
+        return VariableAccesses.getDefinedVariable(node, variableDefinitions.keySet());
+    }
+
+    private void findUses(DataflowResult<BasicBlock> result) {
+        for (var block : graph.getNodes()) {
+            var reaching = (BitSet) result.getIn(block).clone();
+
+            for (var node : block.getNodes()) {
+                var defined = getDefinedVariable(node);
+                var nodeUses = VariableAccesses.getUses(node, variableDefinitions.keySet());
+
+                for (var use : nodeUses) {
+                    uses.add(use);
+                    var useReaching = (BitSet) reaching.clone();
+                    useReaching.and(variableDefinitions.get(use.get("name")));
+                    useDefinitions.put(use, useReaching);
+                }
+
+                if (defined.isPresent()) {
+                    reaching.andNot(variableDefinitions.get(defined.get()));
+                    reaching.set(definitionIndices.get(node));
+                }
+            }
+        }
+    }
+
+    public ControlFlowGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the uses of the tracked variables, in the order of the blocks
+     */
+    public List<JmmNode> getUses() {
+        return Collections.unmodifiableList(uses);
+    }
+
+    /**
+     * @return the definitions that reach the use, which must not be changed, or null if the node is not a use of a
+     * tracked variable
+     */
+    public BitSet getReachingDefinitions(JmmNode use) {
+        return useDefinitions.get(use);
+    }
+
+    /**
+     * @return the assignment of a definition, or empty for the definitions at the entry of the method
+     */
+    public Optional<JmmNode> getDefinition(int definition) {
+        return Optional.ofNullable(definitions.get(definition));
+    }
+
+    /**
+     * @return the definitions of the variable, which must not be changed
+     */
+    public BitSet getDefinitions(String variable) {
+        return variableDefinitions.getOrDefault(variable, new BitSet());
+    }
+
+    @Override
+    public Direction getDirection() {
+        return Direction.FORWARD;
+    }
+
+    @Override
+    public Meet getMeet() {
+        return Meet.UNION;
+    }
+
+    @Override
+    public int getSize() {
+        return definitions.size();
+    }
+
+    @Override
+    public BitSet getGen(BasicBlock block) {
+        return gen.get(block);
+    }
+
+    @Override
+    public BitSet getKill(BasicBlock block) {
+        return kill.get(block);
+    }
+
+    @Override
+    public BitSet getBoundary() {
+        // The definitions at the entry of the method
+        var boundary = new BitSet();
+        boundary.set(0, variables.size());
+
+        return boundary;
+    }
+}
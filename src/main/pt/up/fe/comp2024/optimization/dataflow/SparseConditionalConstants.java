@@ -0,0 +1,340 @@
+package pt.up.fe.comp2024.optimization.dataflow;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.optimization.ConstantValues;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Sparse conditional constant propagation (Wegman and Zadeck) over the {@link SsaForm} of a method: finds the values
+ * that are always the same constant, and the blocks and edges that can run, at the same time.
+ * <p>
+ * Each value starts as undefined, and can only go down to a constant, and then to varying. A block is only evaluated
+ * once an edge into it can run, and a condition that is a constant only lets the program through one of the edges of
+ * its block. So, a value assigned in a branch that never runs does not make the phis after it varying, and the
+ * constants found this way can, in turn, make more branches never run.
+ * <p>
+ * Expressions are constants only if they have no effects, and their operands are constants that fold without errors
+ * (see {@link ConstantValues#evaluate(String, String, String)}).
+ */
+public class SparseConditionalConstants {
+
+    private enum State {
+        UNDEFINED,
+        CONSTANT,
+        VARYING
+    }
+
+    private record Lattice(State state, String value) {
+
+        private static final Lattice UNDEFINED = new Lattice(State.UNDEFINED, null);
+        private static final Lattice VARYING = new Lattice(State.VARYING, null);
+
+        static Lattice constant(String value) {
+            return new Lattice(State.CONSTANT, value);
+        }
+
+        Lattice meet(Lattice other) {
+            if (state == State.UNDEFINED) {
+                return other;
+            }
+            if (other.state == State.UNDEFINED) {
+                return this;
+            }
+            if (state == State.VARYING || other.state == State.VARYING || !value.equals(other.value)) {
+                return VARYING;
+            }
+            return this;
+        }
+    }
+
+    private final SsaForm ssa;
+    private final ControlFlowGraph graph;
+
+    // By the id of the values
+    private final Lattice[] lattice;
+    private final List<List<SsaValue>> valueUsers;
+    private final List<List<BasicBlock>> conditionUsers;
+
+    // By the id of the blocks, and the edges by the id of their block and the index of the successor
+    private final BitSet executableBlocks;
+    private final BitSet executableEdges;
+
+    private final ArrayDeque<int[]> edgeWorklist;
+    private final ArrayDeque<SsaValue> valueWorklist;
+
+    private SparseConditionalConstants(SsaForm ssa) {
+        this.ssa = ssa;
+        this.graph = ssa.getGraph();
+
+        int numValues = ssa.getValues().size();
+        this.lattice = new Lattice[numValues];
+        this.valueUsers = new ArrayList<>(numValues);
+        this.conditionUsers = new ArrayList<>(numValues);
+        for (int i = 0; i < numValues; i++) {
+            lattice[i] = Lattice.UNDEFINED;
+            valueUsers.add(new ArrayList<>());
+            conditionUsers.add(new ArrayList<>());
+        }
+
+        this.executableBlocks = new BitSet();
+        this.executableEdges = new BitSet();
+        this.edgeWorklist = new ArrayDeque<>();
+        this.valueWorklist = new ArrayDeque<>();
+    }
+
+    public static SparseConditionalConstants solve(SsaForm ssa) {
+        var constants = new SparseConditionalConstants(ssa);
+        constants.findUsers();
+        constants.propagate();
+
+        return constants;
+    }
+
+    /**
+     * Finds which phis, assignments and conditions read each value, to evaluate them again when it changes.
+     */
+    private void findUsers() {
+        for (var value : ssa.getValues()) {
+            switch (value.getOrigin()) {
+                case ENTRY -> lattice[value.getId()] = Lattice.VARYING;
+                case PHI -> {
+                    for (var operand : value.getOperands()) {
+                        if (operand != null) {
+                            valueUsers.get(operand.getId()).add(value);
+                        }
+                    }
+                }
+                case ASSIGNMENT -> {
+                    var rhs = value.getAssignment().orElseThrow().getJmmChild(1);
+                    for (var use : VariableAccesses.getUses(rhs, ssa.getVariables())) {
+                        valueUsers.get(ssa.getUseValue(use).getId()).add(value);
+                    }
+                }
+            }
+        }
+
+        for (var block : ssa.getDominators().getReversePostorder()) {
+            block.getCondition().ifPresent(condition -> {
+                for (var use : VariableAccesses.getUses(condition, ssa.getVariables())) {
+                    conditionUsers.get(ssa.getUseValue(use).getId()).add(block);
+                }
+            });
+        }
+    }
+
+    private void propagate() {
+        visitBlock(graph.getEntry());
+
+        while (!edgeWorklist.isEmpty() || !valueWorklist.isEmpty()) {
+            while (!edgeWorklist.isEmpty()) {
+                var edge = edgeWorklist.poll();
+                var target = graph.getNodes().get(edge[0]).getSuccessors().get(edge[1]);
+
+                if (executableBlocks.get(target.getId())) {
+                    // Only the phis depend on the edges that reach the block
+                    getPhis(target).forEach(this::visitPhi);
+                } else {
+                    visitBlock(target);
+                }
+            }
+
+            while (!valueWorklist.isEmpty()) {
+                var value = valueWorklist.poll();
+
+                for (var user : valueUsers.get(value.getId())) {
+                    if (!executableBlocks.get(user.getBlock().getId())) {
+                        continue;
+                    }
+
+                    if (user.getOrigin() == SsaValue.Origin.PHI) {
+                        visitPhi(user);
+                    } else {
+                        visitAssignment(user);
+                    }
+                }
+
+                for (var block : conditionUsers.get(value.getId())) {
+                    if (executableBlocks.get(block.getId())) {
+                        visitCondition(block);
+                    }
+                }
+            }
+        }
+    }
+
+    private List<SsaValue> getPhis(BasicBlock block) {
+        return ssa.getPhis(block);
+    }
+
+    private void visitBlock(BasicBlock block) {
+        executableBlocks.set(block.getId());
+
+        getPhis(block).forEach(this::visitPhi);
+
+        for (var node : block.getNodes()) {
+            var value = ssa.getAssignmentValue(node);
+            if (value != null) {
+                visitAssignment(value);
+            }
+        }
+
+        if (block.getCondition().isPresent()) {
+            visitCondition(block);
+        } else {
+            for (int i = 0; i < block.getSuccessors().size(); i++) {
+                markEdge(block, i);
+            }
+        }
+    }
+
+    private void visitPhi(SsaValue phi) {
+        var block = phi.getBlock();
+        var result = Lattice.UNDEFINED;
+
+        for (int i = 0; i < phi.getOperands().size(); i++) {
+            var predecessor = block.getPredecessors().get(i);
+            int successorIndex = predecessor.getSuccessors().indexOf(block);
+            var operand = phi.getOperands().get(i);
+
+            if (operand != null && executableEdges.get(getEdgeIndex(predecessor, successorIndex))) {
+                result = result.meet(lattice[operand.getId()]);
+            }
+        }
+
+        setLattice(phi, result);
+    }
+
+    private void visitAssignment(SsaValue value) {
+        setLattice(value, evaluate(value.getAssignment().orElseThrow().getJmmChild(1)));
+    }
+
+    private void visitCondition(BasicBlock block) {
+        var condition = evaluate(block.getCondition().orElseThrow());
+
+        switch (condition.state()) {
+            case UNDEFINED -> {
+                // Waits for the values of the condition
+            }
+            case CONSTANT -> {
+                if (condition.value().equals("true")) {
+                    markEdge(block, 0);
+                } else if (condition.value().equals("false")) {
+                    markEdge(block, 1);
+                } else {
+                    markEdge(block, 0);
+                    markEdge(block, 1);
+                }
+            }
+            case VARYING -> {
+                markEdge(block, 0);
+                markEdge(block, 1);
+            }
+        }
+    }
+
+    private void markEdge(BasicBlock block, int successorIndex) {
+        int edge = getEdgeIndex(block, successorIndex);
+        if (!executableEdges.get(edge)) {
+            executableEdges.set(edge);
+            edgeWorklist.add(new int[]{block.getId(), successorIndex});
+        }
+    }
+
+    private static int getEdgeIndex(BasicBlock block, int successorIndex) {
+        // Blocks have at most two successors
+        return block.getId() * 2 + successorIndex;
+    }
+
+    private void setLattice(SsaValue value, Lattice newLattice) {
+        var current = lattice[value.getId()];
+
+        // Values only go down, which makes the propagation end
+        var lowered = current.meet(newLattice);
+        if (!lowered.equals(current)) {
+            lattice[value.getId()] = lowered;
+            valueWorklist.add(value);
+        }
+    }
+
+    private Lattice evaluate(JmmNode expr) {
+        return switch (Kind.of(expr)) {
+            case INTEGER_LITERAL, TRUE_LITERAL, FALSE_LITERAL -> Lattice.constant(expr.get("value"));
+            case PARENTHESIS -> evaluate(expr.getJmmChild(0));
+            case NEGATION -> {
+                var operand = evaluate(expr.getJmmChild(0));
+                if (operand.state() != State.CONSTANT) {
+                    yield operand;
+                }
+                yield ConstantValues.negate(operand.value()).map(Lattice::constant).orElse(Lattice.VARYING);
+            }
+            case BINARY_EXPR -> {
+                var left = evaluate(expr.getJmmChild(0));
+                var right = evaluate(expr.getJmmChild(1));
+                if (left.state() == State.VARYING || right.state() == State.VARYING) {
+                    yield Lattice.VARYING;
+                }
+                if (left.state() == State.UNDEFINED || right.state() == State.UNDEFINED) {
+                    yield Lattice.UNDEFINED;
+                }
+                yield ConstantValues.evaluate(expr.get("op"), left.value(), right.value())
+                        .map(Lattice::constant)
+                        .orElse(Lattice.VARYING);
+            }
+            case VAR_REF_EXPR -> {
+                var value = ssa.getUseValue(expr);
+                // Fields can change in any call
+                yield value == null ? Lattice.VARYING : lattice[value.getId()];
+            }
+            default -> Lattice.VARYING;
+        };
+    }
+
+    public SsaForm getSsa() {
+        return ssa;
+    }
+
+    /**
+     * @return true if the block can run
+     */
+    public boolean isExecutable(BasicBlock block) {
+        return executableBlocks.get(block.getId());
+    }
+
+    /**
+     * @return the constant of the value, if it always has the same one
+     */
+    public Optional<String> getConstant(SsaValue value) {
+        var valueLattice = lattice[value.getId()];
+        return valueLattice.state() == State.CONSTANT ? Optional.of(valueLattice.value()) : Optional.empty();
+    }
+
+    /**
+     * @return the constant the use reads, if it always reads the same one
+     */
+    public Optional<String> getUseConstant(JmmNode use) {
+        var value = ssa.getUseValue(use);
+        if (value == null) {
+            return Optional.empty();
+        }
+
+        return getConstant(value);
+    }
+
+    /**
+     * @return the constant of the condition of the block, if it always has the same one, and the block can run
+     */
+    public Optional<String> getConditionConstant(BasicBlock block) {
+        if (!isExecutable(block) || block.getCondition().isEmpty()) {
+            return Optional.empty();
+        }
+
+        var condition = evaluate(block.getCondition().get());
+        return condition.state() == State.CONSTANT ? Optional.of(condition.value()) : Optional.empty();
+    }
+}
@@ -0,0 +1,208 @@
+package pt.up.fe.comp2024.optimization.dataflow;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The static single assignment form of the variables of a method: each assignment creates a new {@link SsaValue},
+ * and each use of a variable reads exactly one value. Where the values of a variable from different paths join,
+ * there is a phi that chooses one of them.
+ * <p>
+ * The AST is not changed, the form only maps the nodes to their values. The phis are placed in the iterated dominance
+ * frontiers of the blocks that assign each variable (see {@link DominatorTree}), and the uses are then linked to
+ * their values by walking the dominator tree. Only the blocks reachable from the entry have values.
+ */
+public class SsaForm {
+
+    private final ControlFlowGraph graph;
+    private final DominatorTree dominators;
+    private final Set<String> variables;
+
+    private final List<SsaValue> values;
+    private final Map<BasicBlock, List<SsaValue>> phis;
+    private final Map<JmmNode, SsaValue> assignmentValues;
+
+    // The uses, in the order of the blocks of the dominator tree, and the value each one reads
+    private final List<JmmNode> uses;
+    private final Map<JmmNode, SsaValue> useValues;
+
+    // The current value of each variable, while walking the dominator tree
+    private final Map<String, Deque<SsaValue>> currentValues;
+
+    private SsaForm(ControlFlowGraph graph, Collection<String> variables) {
+        this.graph = graph;
+        this.dominators = DominatorTree.build(graph);
+        this.variables = Collections.unmodifiableSet(new LinkedHashSet<>(variables));
+        this.values = new ArrayList<>();
+        this.phis = new IdentityHashMap<>();
+        this.assignmentValues = new IdentityHashMap<>();
+        this.uses = new ArrayList<>();
+        this.useValues = new IdentityHashMap<>();
+        this.currentValues = new HashMap<>();
+    }
+
+    /**
+     * @param variables the names of the local variables and parameters of the method of the graph, the names that are
+     *                  not in it are fields or classes, which are not tracked
+     */
+    public static SsaForm build(ControlFlowGraph graph, Collection<String> variables) {
+        var ssa = new SsaForm(graph, variables);
+        ssa.placePhis();
+        ssa.renameVariables();
+
+        return ssa;
+    }
+
+    private void placePhis() {
+        // The blocks that assign each variable, the entry assigns all of them
+        Map<String, Set<BasicBlock>> assigningBlocks = new HashMap<>();
+        for (var variable : variables) {
+            assigningBlocks.computeIfAbsent(variable, name -> new LinkedHashSet<>()).add(graph.getEntry());
+        }
+        for (var block : dominators.getReversePostorder()) {
+            for (var node : block.getNodes()) {
+                VariableAccesses.getDefinedVariable(node, variables)
+                        .ifPresent(variable -> assigningBlocks.get(variable).add(block));
+            }
+        }
+
+        for (var variable : variables) {
+            Set<BasicBlock> hasPhi = Collections.newSetFromMap(new IdentityHashMap<>());
+            var worklist = new ArrayDeque<>(assigningBlocks.get(variable));
+
+            while (!worklist.isEmpty()) {
+                var block = worklist.poll();
+                for (var frontierBlock : dominators.getFrontier(block)) {
+                    if (!hasPhi.add(frontierBlock)) {
+                        continue;
+                    }
+
+                    var phi = newValue(SsaValue.Origin.PHI, variable, frontierBlock, null);
+                    phis.computeIfAbsent(frontierBlock, key -> new ArrayList<>()).add(phi);
+
+                    // The phi is a new assignment of the variable
+                    if (!assigningBlocks.get(variable).contains(frontierBlock)) {
+                        worklist.add(frontierBlock);
+                    }
+                }
+            }
+        }
+    }
+
+    private SsaValue newValue(SsaValue.Origin origin, String variable, BasicBlock block, JmmNode assignment) {
+        var value = new SsaValue(values.size(), origin, variable, block, assignment);
+        values.add(value);
+
+        return value;
+    }
+
+    private void renameVariables() {
+        var entry = graph.getEntry();
+        for (var variable : variables) {
+            var stack = new ArrayDeque<SsaValue>();
+            stack.push(newValue(SsaValue.Origin.ENTRY, variable, entry, null));
+            currentValues.put(variable, stack);
+        }
+
+        renameBlock(entry);
+    }
+
+    private void renameBlock(BasicBlock block) {
+        List<String> assigned = new ArrayList<>();
+
+        for (var phi : getPhis(block)) {
+            currentValues.get(phi.getVariable()).push(phi);
+            assigned.add(phi.getVariable());
+        }
+
+        for (var node : block.getNodes()) {
+            for (var use : VariableAccesses.getUses(node, variables)) {
+                uses.add(use);
+                useValues.put(use, currentValues.get(use.get("name")).peek());
+            }
+
+            var variable = VariableAccesses.getDefinedVariable(node, variables);
+            if (variable.isPresent()) {
+                var value = newValue(SsaValue.Origin.ASSIGNMENT, variable.get(), block, node);
+                assignmentValues.put(node, value);
+                currentValues.get(variable.get()).push(value);
+                assigned.add(variable.get());
+            }
+        }
+
+        // The values at the end of the block flow into the phis of its successors
+        for (var successor : block.getSuccessors()) {
+            int predecessor = successor.getPredecessors().indexOf(block);
+            for (var phi : getPhis(successor)) {
+                phi.setOperand(predecessor, currentValues.get(phi.getVariable()).peek());
+            }
+        }
+
+        for (var child : dominators.getChildren(block)) {
+            renameBlock(child);
+        }
+
+        for (var variable : assigned) {
+            currentValues.get(variable).pop();
+        }
+    }
+
+    public ControlFlowGraph getGraph() {
+        return graph;
+    }
+
+    public DominatorTree getDominators() {
+        return dominators;
+    }
+
+    public Set<String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * @return all the values, in the order of their ids
+     */
+    public List<SsaValue> getValues() {
+        return Collections.unmodifiableList(values);
+    }
+
+    /**
+     * @return the phis at the start of the block
+     */
+    public List<SsaValue> getPhis(BasicBlock block) {
+        return Collections.unmodifiableList(phis.getOrDefault(block, List.of()));
+    }
+
+    /**
+     * @return the value of the assignment, or null if the node is not an assignment to a tracked variable in a
+     * reachable block
+     */
+    public SsaValue getAssignmentValue(JmmNode assignment) {
+        return assignmentValues.get(assignment);
+    }
+
+    /**
+     * @return the uses of the tracked variables in the reachable blocks
+     */
+    public List<JmmNode> getUses() {
+        return Collections.unmodifiableList(uses);
+    }
+
+    /**
+     * @return the value the use reads, or null if the node is not a use of a tracked variable in a reachable block
+     */
+    public SsaValue getUseValue(JmmNode use) {
+        return useValues.get(use);
+    }
+}
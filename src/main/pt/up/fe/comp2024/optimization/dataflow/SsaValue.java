@@ -0,0 +1,93 @@
+package pt.up.fe.comp2024.optimization.dataflow;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A value of a variable in {@link SsaForm}, which is assigned in a single place: at the entry of the method, by an
+ * assignment, or by a phi at the start of a block where different values of the variable join.
+ */
+public class SsaValue {
+
+    public enum Origin {
+        /**
+         * The value of a parameter, or of a local variable before it is assigned
+         */
+        ENTRY,
+        ASSIGNMENT,
+        /**
+         * One of the values of the variable at the end of the predecessors of the block, depending on which one the
+         * program came from
+         */
+        PHI
+    }
+
+    private final int id;
+    private final Origin origin;
+    private final String variable;
+    private final BasicBlock block;
+    private final JmmNode assignment;
+
+    // The value coming from each predecessor of the block of a phi, null for the unreachable predecessors
+    private final List<SsaValue> operands;
+
+    SsaValue(int id, Origin origin, String variable, BasicBlock block, JmmNode assignment) {
+        this.id = id;
+        this.origin = origin;
+        this.variable = variable;
+        this.block = block;
+        this.assignment = assignment;
+
+        int numOperands = origin == Origin.PHI ? block.getPredecessors().size() : 0;
+        this.operands = new ArrayList<>(Collections.nCopies(numOperands, null));
+    }
+
+    /**
+     * @return the index of the value in its {@link SsaForm}
+     */
+    public int getId() {
+        return id;
+    }
+
+    public Origin getOrigin() {
+        return origin;
+    }
+
+    public String getVariable() {
+        return variable;
+    }
+
+    /**
+     * @return the block where the value is assigned
+     */
+    public BasicBlock getBlock() {
+        return block;
+    }
+
+    /**
+     * @return the assignment statement, for values assigned by one
+     */
+    public Optional<JmmNode> getAssignment() {
+        return Optional.ofNullable(assignment);
+    }
+
+    /**
+     * @return the values of a phi, in the order of the predecessors of its block
+     */
+    public List<SsaValue> getOperands() {
+        return Collections.unmodifiableList(operands);
+    }
+
+    void setOperand(int predecessor, SsaValue value) {
+        operands.set(predecessor, value);
+    }
+
+    @Override
+    public String toString() {
+        return variable + "_" + id;
+    }
+}
@@ -0,0 +1,57 @@
+package pt.up.fe.comp2024.optimization.dataflow;
+
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.ast.Kind;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Finds the variables that the nodes of a {@link BasicBlock} assign and read.
+ */
+class VariableAccesses {
+
+    private VariableAccesses() {
+    }
+
+    /**
+     * @return the variable the node assigns, if it is an assignment to one of the given variables
+     */
+    static Optional<String> getDefinedVariable(JmmNode node, Set<String> variables) {
+        if (!Kind.ASSIGN_STMT.check(node) || !Kind.VAR_REF_EXPR.check(node.getJmmChild(0))) {
+            return Optional.empty();
+        }
+
+        var name = node.getJmmChild(0).get("name");
+        return variables.contains(name) ? Optional.of(name) : Optional.empty();
+    }
+
+    /**
+     * @return the uses of the given variables in the node, in order, without the variable it assigns, if it is an
+     * assignment
+     */
+    static List<JmmNode> getUses(JmmNode node, Set<String> variables) {
+        List<JmmNode> uses = new ArrayList<>();
+
+        // The right side is read before the variable is assigned
+        if (getDefinedVariable(node, variables).isPresent()) {
+            addUses(node.getJmmChild(1), variables, uses);
+        } else {
+            addUses(node, variables, uses);
+        }
+
+        return uses;
+    }
+
+    private static void addUses(JmmNode node, Set<String> variables, List<JmmNode> uses) {
+        if (Kind.VAR_REF_EXPR.check(node) && variables.contains(node.get("name"))) {
+            uses.add(node);
+        }
+
+        for (var child : node.getChildren()) {
+            addUses(child, variables, uses);
+        }
+    }
+}
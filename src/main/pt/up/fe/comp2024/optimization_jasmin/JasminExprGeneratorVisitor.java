@@ -2,10 +2,12 @@ package pt.up.fe.comp2024.optimization_jasmin;
 
 import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.ast.PostorderJmmVisitor;
+import pt.up.fe.comp2024.ast.VisitDispatchTable;
 import pt.up.fe.specs.util.SpecsCheck;
 import pt.up.fe.specs.util.exceptions.NotImplementedException;
 
 import java.util.Map;
+import java.util.function.BiFunction;
 
 public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilder, Void> {
 
@@ -13,10 +15,17 @@ public class JasminExprGeneratorVisitor extends PostorderJmmVisitor<StringBuilde
 
     private final Map<String, Integer> currentRegisters;
 
+    private final VisitDispatchTable<StringBuilder, Void> dispatchTable = new VisitDispatchTable<>(super::getVisit);
+
     public JasminExprGeneratorVisitor(Map<String, Integer> currentRegisters) {
         this.currentRegisters = currentRegisters;
     }
 
+    @Override
+    protected BiFunction<JmmNode, StringBuilder, Void> getVisit(JmmNode node) {
+        return dispatchTable.getVisit(node);
+    }
+
     @Override
     protected void buildVisitor() {
         // Using strings to avoid compilation problems in projects that
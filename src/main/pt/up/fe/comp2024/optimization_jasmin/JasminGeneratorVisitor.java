@@ -3,11 +3,13 @@ package pt.up.fe.comp2024.optimization_jasmin;
 import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
 import pt.up.fe.comp.jmm.ast.AJmmVisitor;
 import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.ast.VisitDispatchTable;
 import pt.up.fe.specs.util.SpecsCheck;
 import pt.up.fe.specs.util.utilities.StringLines;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
@@ -24,6 +26,8 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
 
     private Map<String, Integer> currentRegisters;
 
+    private final VisitDispatchTable<Void, String> dispatchTable = new VisitDispatchTable<>(super::getVisit);
+
     public JasminGeneratorVisitor(SymbolTable table) {
         this.table = table;
         this.exprGenerator = null;
@@ -33,6 +37,11 @@ public class JasminGeneratorVisitor extends AJmmVisitor<Void, String> {
     }
 
 
+    @Override
+    protected BiFunction<JmmNode, Void, String> getVisit(JmmNode node) {
+        return dispatchTable.getVisit(node);
+    }
+
     @Override
     protected void buildVisitor() {
         // Using strings to avoid compilation problems in projects that
@@ -0,0 +1,182 @@
+package pt.up.fe.comp2024.parser;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.JavammParser;
+import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.ast.nodes.BinaryExprNode;
+import pt.up.fe.comp2024.ast.nodes.ClassDeclNode;
+import pt.up.fe.comp2024.ast.nodes.CompactJmmNode;
+import pt.up.fe.comp2024.ast.nodes.ImportStmtNode;
+import pt.up.fe.comp2024.ast.nodes.IntegerLiteralNode;
+import pt.up.fe.comp2024.ast.nodes.MethodDeclNode;
+import pt.up.fe.comp2024.ast.nodes.Operator;
+import pt.up.fe.comp2024.ast.nodes.TokenNode;
+import pt.up.fe.comp2024.ast.nodes.TypeNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the AST directly from the contexts of {@link JavammParser}, creating {@link CompactJmmNode}s.
+ * <p>
+ * Gives the same tree (kinds, hierarchies, attributes and their order) as the generic AntlrToJmmNodeConverter, but
+ * without reflection and without a map of strings per node. Expression statements with an '=' become AssignStmt nodes
+ * (see the 'stmt' rule of the grammar).
+ */
+public class JmmAstBuilder {
+
+    private static final String CONTEXT_SUFFIX = "Context";
+
+    private static final List<String> ASSIGN_STMT_HIERARCHY = List.of("AssignStmt", "Stmt");
+
+    /**
+     * The kind of a context followed by the kinds of its superclasses, up to ParserRuleContext, and the {@link Kind} of
+     * the context, if there is one.
+     */
+    private record NodeType(List<String> hierarchy, Kind kind) {
+    }
+
+    private static final ClassValue<NodeType> NODE_TYPES = new ClassValue<>() {
+        @Override
+        protected NodeType computeValue(Class<?> type) {
+            List<String> hierarchy = new ArrayList<>();
+            for (var current = type; current != ParserRuleContext.class; current = current.getSuperclass()) {
+                var name = current.getSimpleName();
+                hierarchy.add(name.substring(0, name.length() - CONTEXT_SUFFIX.length()));
+            }
+
+            var kind = Arrays.stream(Kind.values())
+                    .filter(value -> value.getNodeName().equals(hierarchy.get(0)))
+                    .findFirst()
+                    .orElse(null);
+
+            return new NodeType(List.copyOf(hierarchy), kind);
+        }
+    };
+
+    private final TokenStream tokens;
+
+    // The same identifiers and literals appear many times, so each node shares a single copy of the string
+    private final Map<String, String> strings;
+
+    private JmmAstBuilder(TokenStream tokens) {
+        this.tokens = tokens;
+        this.strings = new HashMap<>();
+    }
+
+    public static JmmNode build(ParserRuleContext root, TokenStream tokens) {
+        return new JmmAstBuilder(tokens).buildNode(root);
+    }
+
+    private CompactJmmNode buildNode(ParserRuleContext context) {
+        var node = createNode(context);
+        setPosition(node, context);
+
+        // Terminals are not part of the AST
+        for (int i = 0; i < context.getChildCount(); i++) {
+            if (context.getChild(i) instanceof ParserRuleContext child) {
+                node.add(buildNode(child));
+            }
+        }
+
+        return node;
+    }
+
+    private CompactJmmNode createNode(ParserRuleContext context) {
+        var nodeType = NODE_TYPES.get(context.getClass());
+        var hierarchy = nodeType.hierarchy();
+        var kind = nodeType.kind();
+
+        if (context instanceof JavammParser.ExprStmtContext exprStmt && exprStmt.EQUALS() != null) {
+            return new CompactJmmNode(ASSIGN_STMT_HIERARCHY, Kind.ASSIGN_STMT);
+        }
+        if (context instanceof JavammParser.BinaryExprContext binaryExpr) {
+            return new BinaryExprNode(hierarchy, kind, Operator.fromSymbol(binaryExpr.op.getText()));
+        }
+        if (context instanceof JavammParser.VarRefExprContext varRef) {
+            return new TokenNode(hierarchy, kind, "name", getText(varRef.name));
+        }
+        if (context instanceof JavammParser.IntegerLiteralContext literal) {
+            return createIntegerLiteral(hierarchy, kind, literal.value.getText());
+        }
+        if (context instanceof JavammParser.TypeContext type) {
+            return new TypeNode(hierarchy, kind, getText(type.name), type.isArray, type.isVarArgs);
+        }
+        if (context instanceof JavammParser.VarDeclContext varDecl) {
+            return new TokenNode(hierarchy, kind, "name", getText(varDecl.name));
+        }
+        if (context instanceof JavammParser.ParamContext param) {
+            return new TokenNode(hierarchy, kind, "name", getText(param.name));
+        }
+        if (context instanceof JavammParser.FunctionCallContext functionCall) {
+            return new TokenNode(hierarchy, kind, "name", getText(functionCall.name));
+        }
+        if (context instanceof JavammParser.ObjectDeclarationContext objectDeclaration) {
+            return new TokenNode(hierarchy, kind, "name", getText(objectDeclaration.name));
+        }
+        if (context instanceof JavammParser.FieldCallContext fieldCall) {
+            return new TokenNode(hierarchy, kind, "name", getText(fieldCall.name));
+        }
+        if (context instanceof JavammParser.TrueLiteralContext literal) {
+            return new TokenNode(hierarchy, kind, "value", getText(literal.value));
+        }
+        if (context instanceof JavammParser.FalseLiteralContext literal) {
+            return new TokenNode(hierarchy, kind, "value", getText(literal.value));
+        }
+        if (context instanceof JavammParser.ObjectContext object) {
+            return new TokenNode(hierarchy, kind, "value", getText(object.value));
+        }
+        if (context instanceof JavammParser.NegationContext negation) {
+            return new TokenNode(hierarchy, kind, "value", getText(negation.value));
+        }
+        if (context instanceof JavammParser.MethodDeclContext methodDecl) {
+            return new MethodDeclNode(hierarchy, kind, getText(methodDecl.name), methodDecl.isPublic,
+                    methodDecl.isMain, getText(methodDecl.arg));
+        }
+        if (context instanceof JavammParser.ClassDeclContext classDecl) {
+            return new ClassDeclNode(hierarchy, kind, getText(classDecl.classname), getText(classDecl.superclass));
+        }
+        if (context instanceof JavammParser.ImportStmtContext importStmt) {
+            return new ImportStmtNode(hierarchy, kind, importStmt.name.stream().map(this::getText).toList());
+        }
+
+        // Nodes without attributes besides the position
+        return new CompactJmmNode(hierarchy, kind);
+    }
+
+    private static CompactJmmNode createIntegerLiteral(List<String> hierarchy, Kind kind, String value) {
+        try {
+            return new IntegerLiteralNode(hierarchy, kind, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            // Does not fit in an int, keeps the text
+            return new TokenNode(hierarchy, kind, "value", value);
+        }
+    }
+
+    private void setPosition(CompactJmmNode node, ParserRuleContext context) {
+        // Same tokens as the source interval of the context
+        var start = context.getStart();
+        var stop = context.getStop();
+        if (stop == null || stop.getTokenIndex() < start.getTokenIndex()) {
+            // A context with no tokens ends at the token before it, if there is one
+            stop = start.getTokenIndex() > 0 ? tokens.get(start.getTokenIndex() - 1) : start;
+        }
+
+        node.setPosition(start.getLine(), start.getCharPositionInLine(), stop.getLine(),
+                stop.getCharPositionInLine());
+    }
+
+    private String getText(Token token) {
+        if (token == null) {
+            return null;
+        }
+
+        return strings.computeIfAbsent(token.getText(), text -> text);
+    }
+}
@@ -1,15 +1,35 @@
 package pt.up.fe.comp2024.parser;
 
-import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.BufferedTokenStream;
+import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTree;
+import pt.up.fe.comp.jmm.ast.JmmNode;
 import pt.up.fe.comp.jmm.ast.antlr.AntlrParser;
+import pt.up.fe.comp.jmm.ast.antlr.JmmErrorListener;
 import pt.up.fe.comp.jmm.parser.JmmParser;
 import pt.up.fe.comp.jmm.parser.JmmParserResult;
 import pt.up.fe.comp.jmm.report.Report;
 import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.metrics.Metrics;
+import pt.up.fe.comp2024.utils.ReportUtils;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Copyright 2022 SPeCS.
@@ -26,6 +46,28 @@ import java.util.Map;
 
 public class JmmParserImpl implements JmmParser {
 
+    // How many inputs were parsed with SLL first, and how many of those had to be parsed again with full LL
+    private static final AtomicLong SLL_PARSES = new AtomicLong();
+    private static final AtomicLong LL_FALLBACKS = new AtomicLong();
+
+    public static long getSllParses() {
+        return SLL_PARSES.get();
+    }
+
+    public static long getLlFallbacks() {
+        return LL_FALLBACKS.get();
+    }
+
+    private final ParserCache cache;
+
+    public JmmParserImpl() {
+        this(ParserCache.getShared());
+    }
+
+    public JmmParserImpl(ParserCache cache) {
+        this.cache = cache;
+    }
+
     @Override
     public String getDefaultRule() {
         return "program";
@@ -33,18 +75,41 @@ public class JmmParserImpl implements JmmParser {
 
     @Override
     public JmmParserResult parse(String jmmCode, String startingRule, Map<String, String> config) {
+        // Convert code string into a character stream, of the same type as the one of a file with the same code
+        return parse(MappedCharStream.fromString(jmmCode), startingRule, config);
+    }
+
+    /**
+     * Parses a source file, reading it through a memory-mapped {@link MappedCharStream} instead of a String.
+     */
+    public JmmParserResult parse(File file, Map<String, String> config) {
+        return parse(file, getDefaultRule(), config);
+    }
+
+    public JmmParserResult parse(File file, String startingRule, Map<String, String> config) {
+        CharStream input;
+        try {
+            input = MappedCharStream.open(file);
+        } catch (IOException e) {
+            return JmmParserResult.newError(Report.newError(Stage.SYNTATIC, -1, -1,
+                    "Could not read file '" + file + "'", e), config);
+        }
+
+        return parse(input, startingRule, config);
+    }
+
+    private JmmParserResult parse(CharStream input, String startingRule, Map<String, String> config) {
 
         try {
-            // Convert code string into a character stream
-            var input = new ANTLRInputStream(jmmCode);
             // Transform characters into tokens using the lexer
-            var lex = new pt.up.fe.comp2024.JavammLexer(input);
+            var lex = cache.newLexer(input);
             // Wrap lexer around a token stream
             var tokens = new CommonTokenStream(lex);
             // Transforms tokens into a parse tree
-            var parser = new pt.up.fe.comp2024.JavammParser(tokens);
+            var parser = cache.newParser(tokens);
             // Convert ANTLR CST to JmmNode AST
-            var ast = AntlrParser.parse(lex, parser, startingRule, config);
+            var ast = parse(lex, parser, startingRule, config);
+            cache.checkLimit();
 
             // Convert ANTLR CST to JmmNode AST
             return ast;
@@ -54,4 +119,83 @@ public class JmmParserImpl implements JmmParser {
             return JmmParserResult.newError(Report.newError(Stage.SYNTATIC, -1, -1, "Exception during parsing", e), config);
         }
     }
+
+    /**
+     * Same as {@link AntlrParser#parse(Lexer, Parser, String, Map)}, but invokes the starting rule without going through
+     * the method cache of SpecsSystem, which is not thread-safe. This way, several inputs can be parsed concurrently.
+     * The AST is built by {@link JmmAstBuilder} instead of the generic converter.
+     */
+    private JmmParserResult parse(Lexer lex, Parser parser, String startingRule, Map<String, String> config)
+            throws ReflectiveOperationException {
+
+        lex.removeErrorListeners();
+        var lexerListener = new JmmErrorListener(Stage.LEXICAL);
+        lex.addErrorListener(lexerListener);
+
+        parser.removeErrorListeners();
+        var parserListener = new JmmErrorListener(Stage.SYNTATIC);
+        parser.addErrorListener(parserListener);
+
+        // Tokenize the whole input before parsing, so lexing and parsing are measured separately
+        try (var phase = Metrics.start("lexing")) {
+            ((BufferedTokenStream) parser.getTokenStream()).fill();
+        }
+
+        ParseTree node;
+        try (var phase = Metrics.start("parsing")) {
+            node = CompilerConfig.isSllParsing(config) ? parseSllThenLl(parser, startingRule) : invoke(parser, startingRule);
+        }
+
+        List<Report> reports = new ArrayList<>();
+        reports.addAll(lexerListener.getReports());
+        reports.addAll(parserListener.getReports());
+
+        if (ReportUtils.anyError(reports)) {
+            return new JmmParserResult(null, reports, config);
+        }
+
+        JmmNode root;
+        try (var phase = Metrics.start("ast-conversion")) {
+            root = JmmAstBuilder.build((ParserRuleContext) node, parser.getTokenStream());
+        }
+
+        return new JmmParserResult(root, reports, config);
+    }
+
+    /**
+     * Parses with the faster SLL prediction first, stopping at the first syntax error. SLL only fails for
+     * syntax errors or inputs that need full context, so only in those cases the input is parsed again with full LL,
+     * which gives the same tree (and the same error reports) as parsing with LL from the start.
+     */
+    private static ParseTree parseSllThenLl(Parser parser, String startingRule) throws ReflectiveOperationException {
+        SLL_PARSES.incrementAndGet();
+
+        var listeners = List.copyOf(parser.getErrorListeners());
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new BailErrorStrategy());
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+
+        try {
+            return invoke(parser, startingRule);
+        } catch (InvocationTargetException e) {
+            if (!(e.getCause() instanceof ParseCancellationException)) {
+                throw e;
+            }
+        }
+
+        LL_FALLBACKS.incrementAndGet();
+
+        try (var phase = Metrics.start("ll-fallback")) {
+            parser.reset();
+            listeners.forEach(parser::addErrorListener);
+            parser.setErrorHandler(new DefaultErrorStrategy());
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+
+            return invoke(parser, startingRule);
+        }
+    }
+
+    private static ParseTree invoke(Parser parser, String startingRule) throws ReflectiveOperationException {
+        return (ParseTree) parser.getClass().getMethod(startingRule).invoke(parser);
+    }
 }
@@ -0,0 +1,171 @@
+package pt.up.fe.comp2024.parser;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link CharStream} that reads the characters directly from a memory-mapped file, without copying the source
+ * into a String and then into the char[] of an {@link ANTLRInputStream}.
+ * <p>
+ * Sources are expected to be ASCII, where each byte is a character. If the file has other bytes (e.g. UTF-8
+ * characters in comments), {@link #open(File)} decodes it as UTF-8 into a regular {@link ANTLRInputStream} instead.
+ */
+public class MappedCharStream implements CharStream {
+
+    private final ByteBuffer data;
+    private final int size;
+    private final String sourceName;
+
+    // Index of the next character to consume
+    private int p = 0;
+
+    private MappedCharStream(ByteBuffer data, String sourceName) {
+        this.data = data;
+        this.size = data.limit();
+        this.sourceName = sourceName;
+    }
+
+    /**
+     * Maps the given file into memory.
+     *
+     * @return a stream over the mapped file, or an {@link ANTLRInputStream} with the decoded file if it is not ASCII
+     */
+    public static CharStream open(File file) throws IOException {
+        ByteBuffer data;
+        try (var channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (!isAscii(data)) {
+            var input = new ANTLRInputStream(StandardCharsets.UTF_8.decode(data).toString());
+            input.name = file.getPath();
+            return input;
+        }
+
+        return new MappedCharStream(data, file.getPath());
+    }
+
+    /**
+     * Streams source code that is already in a String, choosing the type of stream as {@link #open(File)} does, so
+     * sources are lexed the same way whether they come from a String or a file.
+     *
+     * @return a stream over the ASCII bytes of the code, or an {@link ANTLRInputStream} if it is not ASCII
+     */
+    public static CharStream fromString(String code) {
+        for (int i = 0; i < code.length(); i++) {
+            if (code.charAt(i) > 0x7F) {
+                return new ANTLRInputStream(code);
+            }
+        }
+
+        return new MappedCharStream(ByteBuffer.wrap(code.getBytes(StandardCharsets.US_ASCII)),
+                IntStream.UNKNOWN_SOURCE_NAME);
+    }
+
+    private static boolean isAscii(ByteBuffer data) {
+        for (int i = 0; i < data.limit(); i++) {
+            if (data.get(i) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public void consume() {
+        if (p >= size) {
+            throw new IllegalStateException("cannot consume EOF");
+        }
+
+        p++;
+    }
+
+    @Override
+    public int LA(int i) {
+        if (i == 0) {
+            // undefined
+            return 0;
+        }
+
+        if (i < 0) {
+            // e.g., translate LA(-1) to use offset i=0; then data[p+0-1]
+            i++;
+            if ((p + i - 1) < 0) {
+                return IntStream.EOF;
+            }
+        }
+
+        int index = p + i - 1;
+        if (index >= size) {
+            return IntStream.EOF;
+        }
+
+        return data.get(index) & 0xFF;
+    }
+
+    @Override
+    public int mark() {
+        // The whole file is always available, there is nothing to keep
+        return -1;
+    }
+
+    @Override
+    public void release(int marker) {
+    }
+
+    @Override
+    public int index() {
+        return p;
+    }
+
+    @Override
+    public void seek(int index) {
+        if (index <= p) {
+            // Seeking backwards, just set p
+            p = index;
+            return;
+        }
+
+        p = Math.min(index, size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    @Override
+    public String getText(Interval interval) {
+        int start = interval.a;
+        int stop = Math.min(interval.b, size - 1);
+
+        if (start >= size || stop < start) {
+            return "";
+        }
+
+        var bytes = new byte[stop - start + 1];
+        data.get(start, bytes);
+
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public String toString() {
+        return getText(Interval.of(0, size - 1));
+    }
+}
@@ -0,0 +1,172 @@
+package pt.up.fe.comp2024.parser;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.LexerATNSimulator;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.dfa.DFA;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.JavammLexer;
+import pt.up.fe.comp2024.JavammParser;
+import pt.up.fe.comp2024.utils.JmmProgramGenerator;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The DFA caches that ANTLR builds during adaptive prediction, shared by every lexer and parser created through it.
+ * <p>
+ * Once a decision has been predicted for a given lookahead, later parses (in any thread) reuse the DFA instead of
+ * simulating the ATN again. {@link #warmUp()} fills the caches with a bundled corpus, so that a long-running compiler
+ * starts fast. The caches can be cleared, and limited to a maximum number of DFA states, after which they are cleared.
+ * <p>
+ * Clearing replaces the caches instead of changing them, so parses running at the same time are not affected.
+ */
+public class ParserCache {
+
+    private static final ParserCache SHARED = new ParserCache();
+
+    // Covers the constructs that JmmProgramGenerator does not generate (arrays, objects, varargs, length...)
+    private static final String WARM_UP_PROGRAM = """
+            import io;
+            import java.util.List;
+
+            class WarmUp extends Base {
+                int[] values;
+                boolean flag;
+                WarmUp other;
+
+                public int sum(int... numbers) {
+                    int i;
+                    int total;
+                    i = 0;
+                    total = 0;
+                    while (i < numbers.length) {
+                        total = total + numbers[i] / 2;
+                        i = i + 1;
+                    }
+                    return total;
+                }
+
+                public boolean check(int[] array, WarmUp w) {
+                    boolean result;
+                    int length;
+                    length = array.length;
+                    values = new int[length];
+                    values[0] = this.sum(1, 2, 3);
+                    array = [1, 2, 3];
+                    other = new WarmUp();
+                    result = !flag && (length < 10 || true) && false;
+                    if (this.flag) {
+                        io.println(w.sum(values[0], array[1]));
+                    } else {
+                        other.check(values, this);
+                    }
+                    {
+                        this.other = w;
+                    }
+                    return result;
+                }
+
+                public static void main(String[] args) {
+                    WarmUp w;
+                    w = new WarmUp();
+                    io.println(w.sum(1));
+                }
+            }
+            """;
+
+    private static class Caches {
+        private final DFA[] lexerDfa = newDfa(JavammLexer._ATN);
+        private final DFA[] parserDfa = newDfa(JavammParser._ATN);
+        private final PredictionContextCache lexerContexts = new PredictionContextCache();
+        private final PredictionContextCache parserContexts = new PredictionContextCache();
+
+        private static DFA[] newDfa(ATN atn) {
+            var dfa = new DFA[atn.getNumberOfDecisions()];
+            for (int i = 0; i < dfa.length; i++) {
+                dfa[i] = new DFA(atn.getDecisionState(i), i);
+            }
+            return dfa;
+        }
+
+        private int getNumStates() {
+            return Arrays.stream(lexerDfa).mapToInt(dfa -> dfa.states.size()).sum()
+                    + Arrays.stream(parserDfa).mapToInt(dfa -> dfa.states.size()).sum();
+        }
+    }
+
+    private volatile Caches caches = new Caches();
+    private volatile int maxDfaStates = -1;
+
+    /**
+     * @return the caches used by default by {@link JmmParserImpl}
+     */
+    public static ParserCache getShared() {
+        return SHARED;
+    }
+
+    public JavammLexer newLexer(CharStream input) {
+        var current = caches;
+        var lexer = new JavammLexer(input);
+        lexer.setInterpreter(new LexerATNSimulator(lexer, lexer.getATN(), current.lexerDfa, current.lexerContexts));
+
+        return lexer;
+    }
+
+    public JavammParser newParser(TokenStream tokens) {
+        var current = caches;
+        var parser = new JavammParser(tokens);
+        parser.setInterpreter(new ParserATNSimulator(parser, parser.getATN(), current.parserDfa, current.parserContexts));
+
+        return parser;
+    }
+
+    /**
+     * Parses the bundled corpus, so that the DFAs already contain the common predictions.
+     */
+    public void warmUp() {
+        var parser = new JmmParserImpl(this);
+        var config = CompilerConfig.getDefault();
+
+        var corpus = List.of(WARM_UP_PROGRAM,
+                new JmmProgramGenerator().setMethods(20).setNestingDepth(4).generate("WarmUpGenerated"));
+
+        for (var program : corpus) {
+            parser.parse(program, config);
+        }
+    }
+
+    /**
+     * Discards every cached prediction.
+     */
+    public void clear() {
+        caches = new Caches();
+    }
+
+    /**
+     * @param maxDfaStates the number of DFA states above which the caches are cleared, or a negative number for no
+     *                     limit (the default)
+     */
+    public void setMaxDfaStates(int maxDfaStates) {
+        this.maxDfaStates = maxDfaStates;
+    }
+
+    /**
+     * @return the number of states in the lexer and parser DFAs
+     */
+    public int getNumDfaStates() {
+        return caches.getNumStates();
+    }
+
+    /**
+     * Clears the caches if they are above the limit. Called after each parse.
+     */
+    void checkLimit() {
+        if (maxDfaStates >= 0 && getNumDfaStates() > maxDfaStates) {
+            clear();
+        }
+    }
+}
@@ -7,11 +7,24 @@ import pt.up.fe.comp2024.ast.TypeUtils;
 import pt.up.fe.specs.util.exceptions.NotImplementedException;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Symbol table of a class.
+ * <p>
+ * Besides the lists of the {@link SymbolTable} interface, it keeps the symbols indexed by name, so a name can be
+ * resolved with {@link #resolve(String, String)} without scanning the locals, parameters, fields and imports.
+ */
 public class JmmSymbolTable implements SymbolTable {
 
+    // The copies of the tables of other types, built once for each table, and dropped with it
+    private static final Map<SymbolTable, JmmSymbolTable> COPIES = Collections.synchronizedMap(new WeakHashMap<>());
+
     private final String className;
 
     private final String superclass;
@@ -24,6 +37,13 @@ public class JmmSymbolTable implements SymbolTable {
     private final Map<String, List<Symbol>> params;
     private final Map<String, List<Symbol>> locals;
 
+    // Indices by name. When a name is repeated (an error reported by the analysis), the first symbol is kept, as in
+    // a scan of the lists
+    private final Map<String, Map<String, Symbol>> paramsByName;
+    private final Map<String, Map<String, Symbol>> localsByName;
+    private final Map<String, Symbol> fieldsByName;
+    private final Map<String, Symbol> importsByName;
+
     public JmmSymbolTable(String className,
                           String superclass,
                           List<String> imports,
@@ -40,6 +60,114 @@ public class JmmSymbolTable implements SymbolTable {
         this.returnTypes = returnTypes;
         this.params = params;
         this.locals = locals;
+
+        this.paramsByName = new HashMap<>();
+        params.forEach((method, symbols) -> paramsByName.put(method, indexByName(symbols)));
+        this.localsByName = new HashMap<>();
+        locals.forEach((method, symbols) -> localsByName.put(method, indexByName(symbols)));
+        this.fieldsByName = indexByName(fields);
+        this.importsByName = new HashMap<>();
+        for (var importName : imports) {
+            var simpleName = getSimpleName(importName);
+            importsByName.putIfAbsent(simpleName, new Symbol(new Type(simpleName, false), simpleName));
+        }
+    }
+
+    /**
+     * @return the given table if it is a {@link JmmSymbolTable}, otherwise a {@link JmmSymbolTable} with its contents,
+     * the same one for every call with the same table (tables are not changed once built)
+     */
+    public static JmmSymbolTable from(SymbolTable table) {
+        if (table instanceof JmmSymbolTable jmmTable) {
+            return jmmTable;
+        }
+
+        return COPIES.computeIfAbsent(table, JmmSymbolTable::copy);
+    }
+
+    private static JmmSymbolTable copy(SymbolTable table) {
+        Map<String, Type> returnTypes = new HashMap<>();
+        Map<String, List<Symbol>> params = new HashMap<>();
+        Map<String, List<Symbol>> locals = new HashMap<>();
+        for (var method : table.getMethods()) {
+            returnTypes.put(method, table.getReturnType(method));
+            params.put(method, table.getParameters(method));
+            locals.put(method, table.getLocalVariables(method));
+        }
+
+        return new JmmSymbolTable(table.getClassName(), table.getSuper(), table.getImports(), table.getFields(),
+                table.getMethods(), returnTypes, params, locals);
+    }
+
+    private static Map<String, Symbol> indexByName(List<Symbol> symbols) {
+        Map<String, Symbol> index = new HashMap<>();
+        for (var symbol : symbols) {
+            index.putIfAbsent(symbol.getName(), symbol);
+        }
+
+        return index;
+    }
+
+    /**
+     * @return the last part of an import, e.g. 'C' for 'a.b.C'
+     */
+    public static String getSimpleName(String importName) {
+        return importName.substring(importName.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Resolves a name used inside a method, looking for it in the locals and parameters of the method, then in the
+     * fields of the class, and finally in the simple names of the imports.
+     *
+     * @param methodSignature the method where the name is used, or null if it is used outside methods
+     * @param name            the name to resolve
+     * @return the symbol with the given name and where it was found, or empty if the name is not declared
+     */
+    public Optional<ResolvedSymbol> resolve(String methodSignature, String name) {
+        if (methodSignature != null) {
+            var local = localsByName.getOrDefault(methodSignature, Map.of()).get(name);
+            if (local != null) {
+                return Optional.of(new ResolvedSymbol(local, ResolvedSymbol.Scope.LOCAL));
+            }
+
+            var param = paramsByName.getOrDefault(methodSignature, Map.of()).get(name);
+            if (param != null) {
+                return Optional.of(new ResolvedSymbol(param, ResolvedSymbol.Scope.PARAMETER));
+            }
+        }
+
+        var field = fieldsByName.get(name);
+        if (field != null) {
+            return Optional.of(new ResolvedSymbol(field, ResolvedSymbol.Scope.FIELD));
+        }
+
+        var importSymbol = importsByName.get(name);
+        if (importSymbol != null) {
+            return Optional.of(new ResolvedSymbol(importSymbol, ResolvedSymbol.Scope.IMPORT));
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * @return the field with the given name, if there is one
+     */
+    public Optional<Symbol> getField(String name) {
+        return Optional.ofNullable(fieldsByName.get(name));
+    }
+
+    /**
+     * @return the simple names of the imported classes (e.g. 'C' for 'import a.b.C;')
+     */
+    public Set<String> getImportedNames() {
+        return Collections.unmodifiableSet(importsByName.keySet());
+    }
+
+    /**
+     * @return true if a class with the given simple name is imported
+     */
+    public boolean isImported(String simpleName) {
+        return importsByName.containsKey(simpleName);
     }
 
     @Override
@@ -0,0 +1,25 @@
+package pt.up.fe.comp2024.symboltable;
+
+import pt.up.fe.comp.jmm.analysis.table.Symbol;
+
+/**
+ * A symbol found by {@link JmmSymbolTable#resolve(String, String)}, and where it was declared.
+ * <p>
+ * For imports, the symbol has the simple name of the imported class, and a non-array type with the same name.
+ */
+public record ResolvedSymbol(Symbol symbol, Scope scope) {
+
+    public enum Scope {
+        LOCAL,
+        PARAMETER,
+        FIELD,
+        IMPORT
+    }
+
+    /**
+     * @return true if the symbol is a local variable or a parameter of the method
+     */
+    public boolean isLocalOrParameter() {
+        return scope == Scope.LOCAL || scope == Scope.PARAMETER;
+    }
+}
@@ -0,0 +1,194 @@
+package pt.up.fe.comp2024.utils;
+
+import java.util.Random;
+
+/**
+ * Generates valid Java-- programs of configurable size, to measure how each stage of the compiler scales.
+ * <p>
+ * The generated class has the requested number of imports and int fields, and each method has int locals, nested
+ * while and if statements, arithmetic expressions of the requested depth, calls to the imported classes and a call
+ * to the previous method. The same options and seed always generate the same program.
+ */
+public class JmmProgramGenerator {
+
+    private static final String[] OPERATORS = {"+", "-", "*"};
+
+    private int numMethods = 10;
+    private int numFields = 2;
+    private int numLocals = 4;
+    private int numImports = 1;
+    private int nestingDepth = 2;
+    private int expressionDepth = 3;
+    private long seed = 0;
+
+    private Random random;
+    private StringBuilder code;
+
+    public JmmProgramGenerator setMethods(int numMethods) {
+        this.numMethods = numMethods;
+        return this;
+    }
+
+    public JmmProgramGenerator setFields(int numFields) {
+        this.numFields = numFields;
+        return this;
+    }
+
+    /**
+     * @param numLocals the number of int locals of each method, at least 1
+     */
+    public JmmProgramGenerator setLocals(int numLocals) {
+        this.numLocals = Math.max(1, numLocals);
+        return this;
+    }
+
+    public JmmProgramGenerator setImports(int numImports) {
+        this.numImports = numImports;
+        return this;
+    }
+
+    /**
+     * @param nestingDepth how many while and if statements are nested inside each other, alternating between both
+     */
+    public JmmProgramGenerator setNestingDepth(int nestingDepth) {
+        this.nestingDepth = nestingDepth;
+        return this;
+    }
+
+    /**
+     * @param expressionDepth how many binary operations are nested in each generated expression
+     */
+    public JmmProgramGenerator setExpressionDepth(int expressionDepth) {
+        this.expressionDepth = expressionDepth;
+        return this;
+    }
+
+    public JmmProgramGenerator setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public String generate(String className) {
+        random = new Random(seed);
+        code = new StringBuilder();
+
+        for (int i = 0; i < numImports; i++) {
+            code.append("import lib").append(i).append(";\n");
+        }
+        code.append("\n");
+
+        code.append("class ").append(className).append(" {\n");
+        for (int i = 0; i < numFields; i++) {
+            code.append("    int f").append(i).append(";\n");
+        }
+        code.append("\n");
+
+        for (int i = 0; i < numMethods; i++) {
+            generateMethod(i);
+        }
+
+        code.append("    public static void main(String[] args) {\n");
+        code.append("    }\n");
+        code.append("}\n");
+
+        return code.toString();
+    }
+
+    private void generateMethod(int index) {
+        code.append("    public int method").append(index).append("(int a, int b) {\n");
+
+        for (int i = 0; i < numLocals; i++) {
+            code.append("        int l").append(i).append(";\n");
+        }
+        // One counter per loop level, so nested loops do not share it
+        for (int i = 0; i < nestingDepth; i += 2) {
+            code.append("        int i").append(i).append(";\n");
+        }
+        code.append("        boolean c;\n");
+
+        for (int i = 0; i < numLocals; i++) {
+            code.append("        l").append(i).append(" = ").append(random.nextInt(100)).append(";\n");
+        }
+        code.append("        c = a < b;\n");
+
+        generateNested(nestingDepth, 2);
+
+        if (index > 0) {
+            indent(2).append(randomLocal()).append(" = this.method").append(index - 1).append("(")
+                    .append(randomLocal()).append(", a);\n");
+        }
+
+        code.append("        return l0;\n");
+        code.append("    }\n\n");
+    }
+
+    private void generateNested(int depth, int indentation) {
+        if (depth == 0) {
+            generateStatements(indentation);
+            return;
+        }
+
+        // Alternates between loops and conditionals, from the outside in
+        if ((nestingDepth - depth) % 2 == 0) {
+            var counter = "i" + (nestingDepth - depth);
+            indent(indentation).append(counter).append(" = 0;\n");
+            indent(indentation).append("while (").append(counter).append(" < a) {\n");
+            generateNested(depth - 1, indentation + 1);
+            indent(indentation + 1).append(counter).append(" = ").append(counter).append(" + 1;\n");
+            indent(indentation).append("}\n");
+        } else {
+            indent(indentation).append("if (c && ").append(randomLocal()).append(" < b) {\n");
+            generateNested(depth - 1, indentation + 1);
+            indent(indentation).append("} else {\n");
+            generateStatements(indentation + 1);
+            indent(indentation).append("}\n");
+        }
+    }
+
+    private void generateStatements(int indentation) {
+        indent(indentation).append(randomLocal()).append(" = ").append(generateExpression(expressionDepth))
+                .append(";\n");
+
+        if (numFields > 0) {
+            indent(indentation).append("f").append(random.nextInt(numFields)).append(" = ")
+                    .append(randomLocal()).append(";\n");
+        }
+
+        if (numImports > 0) {
+            indent(indentation).append("lib").append(random.nextInt(numImports)).append(".use(")
+                    .append(randomLocal()).append(");\n");
+        }
+    }
+
+    private String generateExpression(int depth) {
+        if (depth == 0) {
+            return randomOperand();
+        }
+
+        // Only one side is nested, so the size of the expression grows linearly with its depth
+        var nested = generateExpression(depth - 1);
+        var operand = randomOperand();
+        var operator = OPERATORS[random.nextInt(OPERATORS.length)];
+
+        return random.nextBoolean()
+                ? "(" + nested + " " + operator + " " + operand + ")"
+                : "(" + operand + " " + operator + " " + nested + ")";
+    }
+
+    private String randomOperand() {
+        return switch (random.nextInt(numFields > 0 ? 5 : 4)) {
+            case 0 -> "a";
+            case 1 -> String.valueOf(random.nextInt(100));
+            case 2, 3 -> randomLocal();
+            default -> "f" + random.nextInt(numFields);
+        };
+    }
+
+    private String randomLocal() {
+        return "l" + random.nextInt(numLocals);
+    }
+
+    private StringBuilder indent(int level) {
+        return code.append("    ".repeat(level));
+    }
+}
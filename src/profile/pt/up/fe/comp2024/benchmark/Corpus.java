@@ -0,0 +1,128 @@
+package pt.up.fe.comp2024.benchmark;
+
+import pt.up.fe.comp.jmm.analysis.JmmSemanticsResult;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2024.analysis.JmmAnalysisImpl;
+import pt.up.fe.comp2024.backend.JasminGenerator;
+import pt.up.fe.comp2024.optimization.OllirGeneratorVisitor;
+import pt.up.fe.comp2024.parser.JmmParserImpl;
+import pt.up.fe.comp2024.utils.JmmProgramGenerator;
+import pt.up.fe.comp2024.utils.ReportUtils;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * The inputs of the benchmarks.
+ * <p>
+ * 'cpf' is every program under test/pt/up/fe/comp/cpf that goes through the whole pipeline without errors (the
+ * programs that test error reporting are left out), and 'synthetic-N' is a program made by
+ * {@link JmmProgramGenerator} with N methods.
+ */
+public class Corpus {
+
+    private static final String CPF_FOLDER = "test/pt/up/fe/comp/cpf";
+    private static final String SYNTHETIC_PREFIX = "synthetic-";
+
+    private final List<String> sources;
+
+    private Corpus(List<String> sources) {
+        this.sources = sources;
+    }
+
+    public static Corpus load(String name) {
+        if (name.startsWith(SYNTHETIC_PREFIX)) {
+            var numMethods = Integer.parseInt(name.substring(SYNTHETIC_PREFIX.length()));
+            var program = new JmmProgramGenerator().setMethods(numMethods).generate("Synthetic" + numMethods);
+            return new Corpus(List.of(program));
+        }
+
+        if (!name.equals("cpf")) {
+            throw new RuntimeException("Unknown corpus '" + name + "'");
+        }
+
+        try (Stream<Path> files = Files.walk(Path.of(CPF_FOLDER))) {
+            var sources = files.map(Path::toString)
+                    .filter(file -> file.endsWith(".jmm"))
+                    .sorted()
+                    .map(file -> SpecsIo.read(new File(file)))
+                    .filter(Corpus::compiles)
+                    .toList();
+
+            return new Corpus(sources);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read corpus in '" + CPF_FOLDER + "', benchmarks must run from the project folder", e);
+        }
+    }
+
+    public List<String> getSources() {
+        return sources;
+    }
+
+    /**
+     * @return the parsed and analysed inputs, with fresh ASTs
+     */
+    public List<JmmSemanticsResult> analyse() {
+        var parser = new JmmParserImpl();
+        var analysis = new JmmAnalysisImpl();
+
+        List<JmmSemanticsResult> results = new ArrayList<>();
+        for (var source : sources) {
+            results.add(analysis.semanticAnalysis(parser.parse(source, config())));
+        }
+
+        return results;
+    }
+
+    public List<OllirResult> toOllir() {
+        List<OllirResult> results = new ArrayList<>();
+        for (var semantics : analyse()) {
+            results.add(toOllir(semantics));
+        }
+
+        return results;
+    }
+
+    public static Map<String, String> config() {
+        var config = new HashMap<String, String>();
+        config.put("optimize", "false");
+        config.put("registerAllocation", "-1");
+
+        return config;
+    }
+
+    private static OllirResult toOllir(JmmSemanticsResult semantics) {
+        var ollirCode = new OllirGeneratorVisitor(semantics.getSymbolTable()).visit(semantics.getRootNode());
+        return new OllirResult(semantics, ollirCode, Collections.emptyList());
+    }
+
+    private static boolean compiles(String source) {
+        try {
+            var parserResult = new JmmParserImpl().parse(source, config());
+            if (parserResult.getRootNode() == null || ReportUtils.anyError(parserResult.getReports())) {
+                return false;
+            }
+
+            var semantics = new JmmAnalysisImpl().semanticAnalysis(parserResult);
+            if (ReportUtils.anyError(semantics.getReports())) {
+                return false;
+            }
+
+            var generator = new JasminGenerator(toOllir(semantics));
+            generator.build();
+
+            return !ReportUtils.anyError(generator.getReports());
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package pt.up.fe.comp2024.benchmark;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.atn.DecisionInfo;
+import pt.up.fe.comp2024.JavammLexer;
+import pt.up.fe.comp2024.JavammParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports, for each decision of the grammar, how many tokens ANTLR had to look ahead to predict the alternative,
+ * using the ANTLR profiler. Run with 'gradle parserProfile', optionally passing the corpora to profile with
+ * -PprofileArgs="cpf synthetic-100" (see {@link Corpus}).
+ * <p>
+ * Decisions with a large maximum lookahead, or that fall back to full LL, are the ones worth restructuring in the
+ * grammar.
+ */
+public class ParserProfile {
+
+    public static void main(String[] args) {
+        var corpora = args.length == 0 ? new String[]{"cpf", "synthetic-100"} : args;
+
+        for (var corpus : corpora) {
+            System.out.println("Corpus '" + corpus + "'");
+            System.out.println(profile(Corpus.load(corpus).getSources()));
+        }
+    }
+
+    private static String profile(List<String> sources) {
+        List<DecisionInfo[]> runs = new ArrayList<>();
+        String[] ruleNames = null;
+        int[] decisionRules = null;
+
+        for (var source : sources) {
+            var parser = new JavammParser(new CommonTokenStream(new JavammLexer(new ANTLRInputStream(source))));
+            parser.setProfile(true);
+            parser.program();
+
+            runs.add(parser.getParseInfo().getDecisionInfo());
+
+            if (ruleNames == null) {
+                ruleNames = parser.getRuleNames();
+                var atn = parser.getATN();
+                decisionRules = new int[atn.getNumberOfDecisions()];
+                for (int i = 0; i < decisionRules.length; i++) {
+                    decisionRules[i] = atn.getDecisionState(i).ruleIndex;
+                }
+            }
+        }
+
+        if (ruleNames == null) {
+            return "  no inputs\n";
+        }
+
+        var report = new StringBuilder();
+        report.append(String.format("  %-8s %-12s %12s %12s %10s %12s %10s %10s%n", "decision", "rule",
+                "invocations", "total look", "max look", "avg look", "LL fallback", "LL max"));
+
+        long totalInvocations = 0;
+        long totalLook = 0;
+
+        for (int decision = 0; decision < decisionRules.length; decision++) {
+            long invocations = 0;
+            long look = 0;
+            long maxLook = 0;
+            long llFallback = 0;
+            long llMaxLook = 0;
+
+            for (var run : runs) {
+                var info = run[decision];
+                invocations += info.invocations;
+                look += info.SLL_TotalLook + info.LL_TotalLook;
+                maxLook = Math.max(maxLook, info.SLL_MaxLook);
+                llFallback += info.LL_Fallback;
+                llMaxLook = Math.max(llMaxLook, info.LL_MaxLook);
+            }
+
+            if (invocations == 0) {
+                continue;
+            }
+
+            totalInvocations += invocations;
+            totalLook += look;
+
+            report.append(String.format("  %-8d %-12s %12d %12d %10d %12.2f %10d %10d%n", decision,
+                    ruleNames[decisionRules[decision]], invocations, look, maxLook, (double) look / invocations,
+                    llFallback, llMaxLook));
+        }
+
+        report.append(String.format("  total: %d decisions, %d tokens of lookahead, %.2f per decision%n",
+                totalInvocations, totalLook, (double) totalLook / totalInvocations));
+
+        return report.toString();
+    }
+}
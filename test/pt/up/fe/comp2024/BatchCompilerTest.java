@@ -0,0 +1,238 @@
+package pt.up.fe.comp2024;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BatchCompilerTest {
+
+    private static final String CODE = """
+            class %s {
+                public int foo(int a) {
+                    return a + 1;
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    private static final String BRANCHES_CODE = """
+            class Branches {
+                public int foo(int a) {
+                    int i;
+                    i = 0;
+                    while (i < a * 2) {
+                        i = i + 1;
+                    }
+                    if (a < 2) {
+                        i = i * 3;
+                    } else {
+                        i = i - 1;
+                    }
+                    return i;
+                }
+                public int bar(int a) {
+                    if (a < 1) {
+                        a = a + a * 2;
+                    } else {
+                        a = 0;
+                    }
+                    return a;
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    private Path directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("jmm-batch");
+
+        writeClass("src/A.jmm", "A");
+        writeClass("src/nested/B.jmm", "B");
+        writeClass("other/C.jmm", "C");
+        Files.writeString(directory.resolve("src/notes.txt"), "not Java--");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (var file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private void writeClass(String path, String className) throws IOException {
+        var file = directory.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, CODE.formatted(className));
+    }
+
+    private List<String> getNames(List<File> files) {
+        return files.stream().map(file -> directory.relativize(file.toPath().toAbsolutePath()).toString()).toList();
+    }
+
+    @Test
+    public void directoriesAreSearchedRecursively() {
+        var inputs = BatchCompiler.collectInputs(directory.resolve("src").toString());
+
+        assertEquals(List.of("src/A.jmm", "src/nested/B.jmm"), getNames(inputs));
+    }
+
+    @Test
+    public void manifestsAreRelativeToTheirFolder() throws IOException {
+        var manifest = directory.resolve("src/inputs.txt");
+        Files.writeString(manifest, """
+                # Comments and empty lines are ignored
+                ../other/C.jmm
+
+                A.jmm
+                """);
+
+        var inputs = BatchCompiler.collectInputs(manifest.toString());
+
+        // Manifests keep their order
+        assertEquals(List.of("other/C.jmm", "src/A.jmm"), getNames(inputs));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void manifestsWithMissingFilesAreRejected() throws IOException {
+        var manifest = directory.resolve("inputs.txt");
+        Files.writeString(manifest, "src/Missing.jmm\n");
+
+        BatchCompiler.collectInputs(manifest.toString());
+    }
+
+    @Test
+    public void globsAreSearchedFromTheirFixedPrefix() {
+        var inputs = BatchCompiler.collectInputs(directory.resolve("*/*.jmm").toString());
+        assertEquals(List.of("other/C.jmm", "src/A.jmm"), getNames(inputs));
+
+        var nested = BatchCompiler.collectInputs(directory.resolve("src/**.jmm").toString());
+        assertEquals(List.of("src/A.jmm", "src/nested/B.jmm"), getNames(nested));
+    }
+
+    @Test
+    public void outputsAreNamedAfterTheirClass() throws IOException {
+        var outputDir = directory.resolve("out");
+        var config = CompilerConfig.getDefault();
+        config.put("batchInput", directory.toString());
+        config.put("outputDir", outputDir.toString());
+        config.put("threads", "2");
+
+        var summary = new ByteArrayOutputStream();
+        int failed = new BatchCompiler().run(config, new PrintStream(summary, true, StandardCharsets.UTF_8));
+
+        assertEquals(0, failed);
+        assertTrue(summary.toString(StandardCharsets.UTF_8).contains("Compiled 3 files"));
+
+        // All outputs are written to the same folder, whatever the folder of the input
+        try (Stream<Path> files = Files.list(outputDir)) {
+            var outputs = files.map(file -> file.getFileName().toString()).sorted().toList();
+            assertEquals(List.of("A.j", "A.ollir", "B.j", "B.ollir", "C.j", "C.ollir"), outputs);
+        }
+        assertTrue(Files.readString(outputDir.resolve("B.j")).contains(".class public B"));
+        assertFalse(Files.exists(directory.resolve("src/A.j")));
+    }
+
+    @Test
+    public void standardOutputOnlyHasTheSummary() throws IOException {
+        Files.writeString(directory.resolve("src/Broken.jmm"), "class Broken {");
+
+        var config = CompilerConfig.getDefault();
+        config.put("batchInput", directory.toString());
+        config.put("outputDir", directory.resolve("out").toString());
+        config.put("threads", "2");
+
+        var stdout = new ByteArrayOutputStream();
+        var previousOut = System.out;
+        System.setOut(new PrintStream(stdout, true, StandardCharsets.UTF_8));
+        int failed;
+        try {
+            failed = new BatchCompiler().run(config);
+        } finally {
+            System.setOut(previousOut);
+        }
+
+        assertEquals(1, failed);
+        var lines = stdout.toString(StandardCharsets.UTF_8).lines().toList();
+        assertTrue(lines.toString(), lines.get(0).startsWith("FAILED " + directory.resolve("src/Broken.jmm")));
+        assertTrue(lines.toString(), lines.get(1).startsWith("Compiled 4 files in "));
+        for (var line : lines.subList(2, lines.size())) {
+            assertTrue(lines.toString(), line.startsWith("SLL parsing fell back to full LL in "));
+        }
+    }
+
+    @Test
+    public void inputsWithTheSameClassAreNotOverwritten() throws IOException {
+        // Comes after 'other/C.jmm', and declares the same class with another method
+        writeClass("src/C.jmm", "C");
+        var duplicate = directory.resolve("src/C.jmm");
+        Files.writeString(duplicate, Files.readString(duplicate).replace("foo", "bar"));
+
+        var outputDir = directory.resolve("out");
+        var config = CompilerConfig.getDefault();
+        config.put("batchInput", directory.toString());
+        config.put("outputDir", outputDir.toString());
+
+        var summary = new ByteArrayOutputStream();
+        int failed = new BatchCompiler().run(config, new PrintStream(summary, true, StandardCharsets.UTF_8));
+
+        assertEquals(1, failed);
+        var lines = summary.toString(StandardCharsets.UTF_8).lines().toList();
+        assertTrue(lines.get(0), lines.get(0).startsWith("FAILED " + duplicate));
+        assertTrue(lines.get(0), lines.get(0).contains(directory.resolve("other/C.jmm").toString()));
+
+        // The outputs are the ones of the first input
+        assertTrue(Files.readString(outputDir.resolve("C.j")).contains("foo"));
+        assertFalse(Files.readString(outputDir.resolve("C.j")).contains("bar"));
+    }
+
+    @Test
+    public void parallelCompilationsNumberTheirOwnTempsAndLabels() throws IOException {
+        var input = directory.resolve("Branches.jmm");
+        Files.writeString(input, BRANCHES_CODE);
+        var inputs = Collections.nCopies(8, input.toFile());
+        var config = CompilerConfig.getDefault();
+
+        var batchCompiler = new BatchCompiler();
+        var expected = batchCompiler.compile(input.toFile(), config);
+        assertTrue(expected.getReports().toString(), expected.isSuccess());
+
+        // Temps and labels start again in each method of each compilation
+        var ollir = expected.getOllirCode().orElseThrow();
+        assertEquals(2, ollir.lines().filter(line -> line.strip().equals("IF_0:")).count());
+        assertFalse(ollir, ollir.contains("IF_1"));
+        assertTrue(ollir, ollir.contains("ENDLOOP_0"));
+        assertFalse(ollir, ollir.contains("ENDLOOP_1"));
+        assertTrue(ollir, ollir.contains("tmp0"));
+
+        for (int round = 0; round < 3; round++) {
+            for (int threads : new int[]{1, 4}) {
+                for (var result : batchCompiler.compileAll(inputs, config, threads)) {
+                    assertEquals(ollir, result.getOllirCode().orElseThrow());
+                    assertEquals(expected.getJasminCode(), result.getJasminCode());
+                }
+            }
+        }
+    }
+}
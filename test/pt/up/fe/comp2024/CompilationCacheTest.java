@@ -0,0 +1,144 @@
+package pt.up.fe.comp2024;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pt.up.fe.comp2024.metrics.PhaseMetrics;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompilationCacheTest {
+
+    private static final String CODE = """
+            class A {
+                public int foo(int a) {
+                    return a + 1;
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    private Path directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("jmm-cache");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (var file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private List<Path> getEntries() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(file -> file.toString().endsWith(".json")).toList();
+        }
+    }
+
+    @Test
+    public void unchangedInputsAreNotCompiled() {
+        var config = CompilerConfig.getDefault();
+        config.put("cacheDir", directory.toString());
+        var compiler = new JmmCompiler();
+
+        var compiled = compiler.compile(CODE, config);
+        assertTrue(compiled.isSuccess());
+        assertFalse(compiled.isFromCache());
+
+        var cached = compiler.compile(CODE, config);
+        assertTrue(cached.isFromCache());
+        assertFalse(cached.getPhases().stream().map(PhaseMetrics::getName).toList().contains("parsing"));
+        assertEquals(compiled.getClassName(), cached.getClassName());
+        assertEquals(compiled.getOllirCode(), cached.getOllirCode());
+        assertEquals(compiled.getJasminCode(), cached.getJasminCode());
+
+        // Another input, or other options, are compiled
+        assertFalse(compiler.compile(CODE.replace("a + 1", "a + 2"), config).isFromCache());
+        config.put("optimize", "true");
+        assertFalse(compiler.compile(CODE, config).isFromCache());
+    }
+
+    @Test
+    public void reportsAreCached() {
+        var config = CompilerConfig.getDefault();
+        config.put("cacheDir", directory.toString());
+        var compiler = new JmmCompiler();
+        var code = CODE.replace("a + 1", "a + b");
+
+        var compiled = compiler.compile(code, config);
+        var cached = compiler.compile(code, config);
+
+        assertTrue(cached.isFromCache());
+        assertFalse(cached.isSuccess());
+        assertEquals(compiled.getReports().toString(), cached.getReports().toString());
+    }
+
+    @Test
+    public void keysDependOnSourceAndOptions() {
+        var cache = new CompilationCache(directory.toFile(), CompilationCache.DEFAULT_MAX_BYTES);
+        var config = CompilerConfig.getDefault();
+
+        var key = cache.getKey(CODE.getBytes(), config);
+        assertEquals(key, cache.getKey(CODE.getBytes(), CompilerConfig.getDefault()));
+        assertNotEquals(key, cache.getKey((CODE + " ").getBytes(), config));
+
+        config.put("registerAllocation", "2");
+        assertNotEquals(key, cache.getKey(CODE.getBytes(), config));
+    }
+
+    @Test
+    public void unreadableEntriesAreMissing() throws IOException {
+        var cache = new CompilationCache(directory.toFile(), CompilationCache.DEFAULT_MAX_BYTES);
+        var key = cache.getKey(CODE.getBytes(), CompilerConfig.getDefault());
+        cache.put(key, new CompilationResult("A", "ollir", "jasmin", List.of()));
+        assertTrue(cache.get(key).isPresent());
+
+        SpecsIo.write(getEntries().get(0).toFile(), "{ not json");
+        assertTrue(cache.get(key).isEmpty());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntriesAreEvicted() throws IOException {
+        var result = new CompilationResult("A", "x".repeat(1000), "y".repeat(1000), List.of());
+        var cache = new CompilationCache(directory.toFile(), 5000);
+
+        for (var code : List.of("a", "b")) {
+            var key = cache.getKey(code.getBytes(), CompilerConfig.getDefault());
+            cache.put(key, result);
+        }
+
+        // Makes the entry of 'a' the most recently used
+        var keyA = cache.getKey("a".getBytes(), CompilerConfig.getDefault());
+        var keyB = cache.getKey("b".getBytes(), CompilerConfig.getDefault());
+        for (var entry : getEntries()) {
+            var time = entry.toString().contains(keyA) ? 2_000_000 : 1_000_000;
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(time * 1000L));
+        }
+        assertTrue(cache.get(keyA).isPresent());
+
+        cache.put(cache.getKey("c".getBytes(), CompilerConfig.getDefault()), result);
+        cache.evict();
+
+        assertEquals(2, getEntries().size());
+        assertTrue(cache.get(keyA).isPresent());
+        assertTrue(cache.get(keyB).isEmpty());
+    }
+}
@@ -0,0 +1,180 @@
+package pt.up.fe.comp2024;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompilerServerTest {
+
+    private static final String CODE = """
+            class A {
+                public int foo(int a) {
+                    return a + 1;
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    private Path directory;
+    private Path tokenFile;
+    private int port;
+    private CompilerServer server;
+    private Thread serverThread;
+
+    @Before
+    public void startServer() throws Exception {
+        directory = Files.createTempDirectory("jmm-server");
+        tokenFile = directory.resolve("tokens").resolve("server.token");
+        Files.writeString(directory.resolve("A.jmm"), CODE);
+
+        try (var socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = socket.getLocalPort();
+        }
+
+        server = new CompilerServer(port, tokenFile);
+        serverThread = new Thread(server::run);
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        // The token is written once the server listens
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!Files.exists(tokenFile) || Files.size(tokenFile) == 0) {
+            assertTrue("The server did not start", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @After
+    public void stopServer() throws Exception {
+        server.stop();
+        serverThread.join(10_000);
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (var file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private List<String> send(String... lines) throws IOException {
+        try (var socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             var out = new PrintStream(socket.getOutputStream(), false, StandardCharsets.UTF_8)) {
+
+            for (var line : lines) {
+                out.println(line);
+            }
+            out.flush();
+            socket.shutdownOutput();
+
+            List<String> answer = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                answer.add(line);
+            }
+
+            return answer;
+        }
+    }
+
+    private String getToken() throws IOException {
+        return Files.readString(tokenFile).strip();
+    }
+
+    @Test
+    public void compilesRequests() throws IOException {
+        // The input is relative to the working directory of the client
+        var answer = send(getToken(), directory.toString(), "-i=A.jmm", "");
+
+        assertEquals(CompilerServer.EXIT_PREFIX + 0, answer.get(answer.size() - 1));
+        assertTrue(answer.contains(CompilerServer.OLLIR_HEADER));
+        assertTrue(answer.contains(CompilerServer.JASMIN_HEADER));
+    }
+
+    @Test
+    public void compilationsDoNotWriteToTheServerConsole() throws IOException {
+        var console = new ByteArrayOutputStream();
+        var previousOut = System.out;
+        System.setOut(new PrintStream(console, true, StandardCharsets.UTF_8));
+        try {
+            // With -o, to also run the optimizations of the AST
+            var answer = send(getToken(), directory.toString(), "-i=A.jmm", "-o", "");
+            assertEquals(CompilerServer.EXIT_PREFIX + 0, answer.get(answer.size() - 1));
+        } finally {
+            System.setOut(previousOut);
+        }
+
+        // The code is only sent to the client
+        assertEquals("", console.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void failedCompilations() throws IOException {
+        var answer = send(getToken(), directory.toString(), "-i=Missing.jmm", "");
+
+        assertEquals(CompilerServer.EXIT_PREFIX + 1, answer.get(answer.size() - 1));
+        assertFalse(answer.contains(CompilerServer.OLLIR_HEADER));
+    }
+
+    @Test
+    public void requestsWithoutInputsAreRejected() throws IOException {
+        var answer = send(getToken(), directory.toString(), "-o", "");
+        assertEquals(CompilerServer.EXIT_PREFIX + 1, answer.get(answer.size() - 1));
+        assertTrue(answer.toString(), answer.get(0).startsWith("Expected an input file"));
+
+        // With '-s', the input is not checked when the arguments are parsed
+        answer = send(getToken(), directory.toString(), "-s=" + port, "");
+        assertEquals(CompilerServer.EXIT_PREFIX + 1, answer.get(answer.size() - 1));
+        assertEquals("Option '-s' cannot be used in a request to the compiler server", answer.get(0));
+
+        answer = send(getToken(), directory.toString(), "-i=A.jmm", "-s=" + port, "");
+        assertEquals(CompilerServer.EXIT_PREFIX + 1, answer.get(answer.size() - 1));
+        assertFalse(answer.contains(CompilerServer.OLLIR_HEADER));
+    }
+
+    @Test
+    public void requestsWithoutTheTokenAreRefused() throws IOException {
+        var answer = send("not-the-token", directory.toString(), "-i=A.jmm", "");
+
+        assertEquals(CompilerServer.EXIT_PREFIX + 1, answer.get(answer.size() - 1));
+        assertFalse(answer.contains(CompilerServer.OLLIR_HEADER));
+
+        if (Files.getFileStore(tokenFile).supportsFileAttributeView("posix")) {
+            assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(tokenFile)));
+            assertEquals("rwx------",
+                    PosixFilePermissions.toString(Files.getPosixFilePermissions(tokenFile.getParent())));
+        }
+    }
+
+    @Test
+    public void emptyRequestsAreIgnored() throws IOException {
+        // The client closes the connection without sending anything
+        assertTrue(send().isEmpty());
+        assertTrue(send(getToken()).isEmpty());
+
+        var answer = send(getToken(), directory.toString(), "-i=A.jmm", "");
+        assertEquals(CompilerServer.EXIT_PREFIX + 0, answer.get(answer.size() - 1));
+    }
+}
@@ -0,0 +1,111 @@
+package pt.up.fe.comp2024;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp2024.backend.JasminGenerator;
+import pt.up.fe.comp2024.optimization.OllirGeneratorVisitor;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class MethodCodeCacheTest {
+
+    private static final String CODE = """
+            class A {
+                int x;
+                public int foo(int a) {
+                    int b;
+                    b = 0;
+                    while (b < a) {
+                        b = b + 1;
+                    }
+                    return b;
+                }
+                public int bar(int a) {
+                    if (a < 1) {
+                        a = 1;
+                    } else {
+                        a = 2;
+                    }
+                    return a * x;
+                }
+            }
+            """;
+
+    // 'foo' moved down two lines, and 'bar' changed
+    private static final String EDITED_CODE = """
+            class A {
+                int x;
+
+
+                public int foo(int a) {
+                    int b;
+                    b = 0;
+                    while (b < a) {
+                        b = b + 1;
+                    }
+                    return b;
+                }
+                public int bar(int a) {
+                    if (a < 1) {
+                        a = 1;
+                    } else {
+                        a = 3;
+                    }
+                    return a * x;
+                }
+            }
+            """;
+
+    private static String compile(String code, boolean incremental) {
+        var config = CompilerConfig.getDefault();
+        config.put("incremental", Boolean.toString(incremental));
+
+        var ollirResult = TestUtils.optimize(code, config);
+        return ollirResult.getOllirCode() + TestUtils.backend(ollirResult).getJasminCode();
+    }
+
+    @Test
+    public void sameCodeAsFullGeneration() {
+        MethodCodeCache.getOllirShared().clear();
+        MethodCodeCache.getJasminShared().clear();
+
+        assertEquals(compile(CODE, false), compile(CODE, true));
+        assertEquals(compile(EDITED_CODE, false), compile(EDITED_CODE, true));
+        // Now from the cache
+        assertEquals(compile(CODE, false), compile(CODE, true));
+    }
+
+    @Test
+    public void onlyChangedMethodsAreGenerated() {
+        var ollirCache = new MethodCodeCache(16);
+        var jasminCache = new MethodCodeCache(16);
+
+        for (var code : new String[]{CODE, EDITED_CODE}) {
+            var semanticsResult = TestUtils.analyse(code);
+            var ollirCode = new OllirGeneratorVisitor(semanticsResult.getSymbolTable(), ollirCache)
+                    .visit(semanticsResult.getRootNode());
+            var ollirResult = new OllirResult(semanticsResult, ollirCode, Collections.emptyList());
+            new JasminGenerator(ollirResult, jasminCache).build();
+        }
+
+        // The code of 'foo' did not depend on its position, only 'bar' was generated again
+        assertEquals(3, ollirCache.size());
+        assertEquals(3, jasminCache.size());
+    }
+
+    @Test
+    public void methodsDependOnTheClass() {
+        var ollirCache = new MethodCodeCache(16);
+
+        for (var code : new String[]{CODE, CODE.replace("int x;", "int y; int x;")}) {
+            var semanticsResult = TestUtils.analyse(code);
+            new OllirGeneratorVisitor(semanticsResult.getSymbolTable(), ollirCache)
+                    .visit(semanticsResult.getRootNode());
+        }
+
+        assertEquals(4, ollirCache.size());
+    }
+}
@@ -0,0 +1,115 @@
+package pt.up.fe.comp2024.analysis;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.ast.NodeUtils;
+import pt.up.fe.comp2024.parser.JmmParserImpl;
+import pt.up.fe.comp2024.symboltable.JmmSymbolTableBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class AnalysisCacheTest {
+
+    private static final String CODE = """
+            class A {
+                int x;
+                public int foo(int a) {
+                    return a + b;
+                }
+                public int bar(int a) {
+                    return a + c;
+                }
+            }
+            """;
+
+    // 'foo' moved down two lines, and 'bar' changed
+    private static final String EDITED_CODE = """
+            class A {
+                int x;
+
+
+                public int foo(int a) {
+                    return a + b;
+                }
+                public int bar(int a) {
+                    return a + d;
+                }
+            }
+            """;
+
+    private static List<String> analyse(String code, boolean incremental) {
+        var config = CompilerConfig.getDefault();
+        config.put("incremental", Boolean.toString(incremental));
+
+        return TestUtils.analyse(code, config).getReports().stream().map(Report::toString).toList();
+    }
+
+    private static List<Report> analyse(String code, FusedAnalysis analysis, AnalysisCache cache) {
+        var root = new JmmParserImpl().parse(code, CompilerConfig.getDefault()).getRootNode();
+        return analysis.analyze(root, JmmSymbolTableBuilder.build(root), cache);
+    }
+
+    @Test
+    public void sameReportsAsFullAnalysis() {
+        AnalysisCache.getShared().clear();
+
+        assertEquals(analyse(CODE, false), analyse(CODE, true));
+        assertEquals(analyse(EDITED_CODE, false), analyse(EDITED_CODE, true));
+    }
+
+    @Test
+    public void onlyChangedMethodsAreVisited() {
+        var pass = new UndeclaredVariablePass();
+        var analysis = new FusedAnalysis(List.of(pass));
+        var cache = new AnalysisCache(1);
+
+        analyse(CODE, analysis, cache);
+        assertEquals(List.of("foo", "bar"), pass.visitedMethods);
+
+        pass.visitedMethods.clear();
+        var reports = analyse(EDITED_CODE, analysis, cache);
+        assertEquals(List.of("bar"), pass.visitedMethods);
+
+        // The reports of 'foo' follow it to its new line
+        assertEquals(List.of("b@6", "d@9"), reports.stream().map(r -> r.getMessage() + "@" + r.getLine()).toList());
+
+        // A change outside the method bodies analyses all of them again
+        pass.visitedMethods.clear();
+        analyse(EDITED_CODE.replace("int x;", "boolean x;"), analysis, cache);
+        assertEquals(List.of("foo", "bar"), pass.visitedMethods);
+    }
+
+    private static class UndeclaredVariablePass extends AnalysisVisitor {
+
+        private final List<String> visitedMethods = new ArrayList<>();
+
+        @Override
+        protected void buildVisitor() {
+            addVisit(Kind.METHOD_DECL, this::visitMethodDecl);
+            addVisit(Kind.VAR_REF_EXPR, this::visitVarRefExpr);
+        }
+
+        private Void visitMethodDecl(JmmNode method, SymbolTable table) {
+            visitedMethods.add(method.get("name"));
+            return null;
+        }
+
+        private Void visitVarRefExpr(JmmNode varRef, SymbolTable table) {
+            var name = varRef.get("name");
+            if (!name.equals("a")) {
+                addReport(Report.newError(Stage.SEMANTIC, NodeUtils.getLine(varRef), NodeUtils.getColumn(varRef), name,
+                        null));
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package pt.up.fe.comp2024.analysis;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that every {@link AnalysisMode} gives the same reports, in the same order, as running the passes one after
+ * the other.
+ */
+@RunWith(Parameterized.class)
+public class AnalysisModesTest {
+
+    private static final List<String> INPUTS = List.of("ArrayAccessOnInt", "ArrayInWhileCondition", "ArrayIndexNotInt",
+            "ArrayPlusInt", "AssignIntToBool", "BoolTimesInt", "CallToMethodAssumedInImport", "CallToUndeclaredMethod",
+            "ClassNotImported", "IncompatibleArguments", "IncompatibleReturn", "IntInIfCondition", "IntPlusObject",
+            "ObjectAssignmentFail", "ObjectAssignmentPassExtends", "VarNotDeclared", "Varargs", "VarargsWrong");
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<Object[]> getInputs() {
+        return INPUTS.stream().map(input -> new Object[]{input}).toList();
+    }
+
+    private final String input;
+
+    public AnalysisModesTest(String input) {
+        this.input = input;
+    }
+
+    static List<String> analyse(String code, AnalysisMode mode) {
+        var config = CompilerConfig.getDefault();
+        config.put("analysisMode", mode.getName());
+
+        return TestUtils.analyse(code, config).getReports().stream().map(Report::toString).toList();
+    }
+
+    @Test
+    public void sameReportsAsSeparatePasses() {
+        var code = SpecsIo.getResource("pt/up/fe/comp/cp2/semanticanalysis/" + input + ".jmm");
+        var expected = analyse(code, AnalysisMode.PASSES);
+
+        assertEquals(expected, analyse(code, AnalysisMode.FUSED));
+
+        // Several times, so parallel passes finish in different orders
+        for (int i = 0; i < 5; i++) {
+            assertEquals(expected, analyse(code, AnalysisMode.PARALLEL));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package pt.up.fe.comp2024.analysis;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.junit.Test;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.antlr.AntlrToJmmNodeConverter;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.JavammLexer;
+import pt.up.fe.comp2024.JavammParser;
+import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.ast.nodes.CompactJmmNode;
+import pt.up.fe.comp2024.parser.JmmParserImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AnalysisVisitorTest {
+
+    private static final String CODE = """
+            class A {
+                int x;
+                public int foo(int a, int b) {
+                    x = a + b * 2;
+                    return this.foo(x, a - 1);
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    private static final Set<String> VISITED_KINDS = Set.of("MethodDecl", "BinaryExpr", "VarRefExpr");
+
+    /**
+     * Records the nodes of the kinds it has a visit for.
+     */
+    private static class RecordingVisitor extends AnalysisVisitor {
+
+        private final List<JmmNode> visited = new ArrayList<>();
+
+        @Override
+        public void buildVisitor() {
+            addVisit(Kind.METHOD_DECL, this::record);
+            addVisit(Kind.BINARY_EXPR, this::record);
+            addVisit(Kind.VAR_REF_EXPR, this::record);
+        }
+
+        private Void record(JmmNode node, SymbolTable table) {
+            visited.add(node);
+            return null;
+        }
+    }
+
+    private static void collect(JmmNode node, List<JmmNode> nodes) {
+        if (VISITED_KINDS.contains(node.getKind())) {
+            nodes.add(node);
+        }
+        for (var child : node.getChildren()) {
+            collect(child, nodes);
+        }
+    }
+
+    private static void assertVisitsRegisteredKinds(JmmNode root) {
+        List<JmmNode> expected = new ArrayList<>();
+        collect(root, expected);
+        assertFalse(expected.isEmpty());
+
+        // Visits twice, the second time the visit methods come from the table
+        for (int i = 0; i < 2; i++) {
+            var visitor = new RecordingVisitor();
+            visitor.analyze(root, null);
+            assertEquals(expected, visitor.visited);
+        }
+    }
+
+    @Test
+    public void parsedNodesAreDispatchedByKind() {
+        var root = new JmmParserImpl().parse(CODE, CompilerConfig.getDefault()).getRootNode();
+        assertTrue(root.getJmmChild(0) instanceof CompactJmmNode);
+
+        assertVisitsRegisteredKinds(root);
+    }
+
+    @Test
+    public void genericNodesAreDispatchedByHierarchy() {
+        var parser = new JavammParser(new CommonTokenStream(new JavammLexer(new ANTLRInputStream(CODE))));
+        var root = AntlrToJmmNodeConverter.convert(parser.program(), parser);
+        assertFalse(root.getJmmChild(0) instanceof CompactJmmNode);
+
+        assertVisitsRegisteredKinds(root);
+    }
+
+    @Test
+    public void kindsWithoutVisitGetTheDefaultVisit() {
+        var root = new JmmParserImpl().parse(CODE, CompilerConfig.getDefault()).getRootNode();
+        var visitor = new RecordingVisitor();
+        visitor.analyze(root, null);
+
+        for (var node : root.getDescendants()) {
+            var kindVisit = visitor.getKindVisit(node);
+            assertEquals(node.getKind(), VISITED_KINDS.contains(node.getKind()), kindVisit != null);
+        }
+        assertNull(visitor.getKindVisit(root));
+    }
+}
@@ -0,0 +1,65 @@
+package pt.up.fe.comp2024.analysis;
+
+import org.junit.Test;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.parser.JmmParserImpl;
+import pt.up.fe.comp2024.symboltable.JmmSymbolTableBuilder;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FusedAnalysisTest {
+
+    @Test
+    public void failingPassIsReplacedByError() {
+        var code = """
+                class A {
+                    public int foo(int a) {
+                        return a + b;
+                    }
+                }
+                """;
+        var root = new JmmParserImpl().parse(code, CompilerConfig.getDefault()).getRootNode();
+        var table = JmmSymbolTableBuilder.build(root);
+
+        var reports = new FusedAnalysis(List.of(new FailingPass(), new ReportingPass())).analyze(root, table);
+
+        assertEquals(2, reports.size());
+        assertTrue(reports.get(0).getMessage().contains(FailingPass.class.getName()));
+        assertEquals("b", reports.get(1).getMessage());
+    }
+
+    private static class FailingPass extends AnalysisVisitor {
+
+        @Override
+        protected void buildVisitor() {
+            addVisit(Kind.METHOD_DECL, this::visitMethodDecl);
+        }
+
+        private Void visitMethodDecl(JmmNode method, SymbolTable table) {
+            throw new IllegalStateException("Failed on '" + method.get("name") + "'");
+        }
+    }
+
+    private static class ReportingPass extends AnalysisVisitor {
+
+        @Override
+        protected void buildVisitor() {
+            addVisit(Kind.VAR_REF_EXPR, this::visitVarRefExpr);
+        }
+
+        private Void visitVarRefExpr(JmmNode varRef, SymbolTable table) {
+            if (varRef.get("name").equals("b")) {
+                addReport(Report.newError(Stage.SEMANTIC, 0, 0, "b", null));
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package pt.up.fe.comp2024.analysis;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp.jmm.report.Stage;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.metrics.Metrics;
+import pt.up.fe.comp2024.metrics.PhaseMetrics;
+import pt.up.fe.comp2024.utils.JmmProgramGenerator;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JmmAnalysisImplTest {
+
+    @Test
+    public void parallelPassesOnLargeInput() {
+        var code = new JmmProgramGenerator().setMethods(200).setImports(3).generate("Generated");
+
+        assertEquals(AnalysisModesTest.analyse(code, AnalysisMode.PASSES),
+                AnalysisModesTest.analyse(code, AnalysisMode.PARALLEL));
+    }
+
+    private static List<String> getPhases(Map<String, String> config) {
+        Metrics.enable();
+        TestUtils.analyse("class A {}", config);
+
+        return Metrics.collect().stream().map(PhaseMetrics::getName).toList();
+    }
+
+    @Test
+    public void passesAreTimedByDefault() {
+        var config = CompilerConfig.getDefault();
+        assertEquals(AnalysisMode.PASSES, CompilerConfig.getAnalysisMode(config));
+        assertTrue(getPhases(config).contains("analysis/UndeclaredVariable"));
+
+        // The incremental analysis is fused, unless another mode is chosen
+        config.put("incremental", "true");
+        assertEquals(AnalysisMode.FUSED, CompilerConfig.getAnalysisMode(config));
+        assertTrue(getPhases(config).contains("analysis/fused"));
+        config.put("analysisMode", "parallel");
+        assertEquals(AnalysisMode.PARALLEL, CompilerConfig.getAnalysisMode(config));
+    }
+
+    /**
+     * Marks the variable references, a pass that changes the AST.
+     */
+    private static class Marker extends AnalysisVisitor {
+
+        @Override
+        public boolean isReadOnly() {
+            return false;
+        }
+
+        @Override
+        public void buildVisitor() {
+            addVisit(Kind.PROGRAM, (program, table) -> {
+                addReport(Report.newError(Stage.SEMANTIC, -1, -1, "marker", null));
+                return null;
+            });
+            addVisit(Kind.VAR_REF_EXPR, (varRef, table) -> {
+                varRef.put("marked", "true");
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Reports the variable references that are marked, or not, by {@link Marker}.
+     */
+    private static class MarkChecker extends AnalysisVisitor {
+
+        private final boolean isMarkExpected;
+
+        private MarkChecker(boolean isMarkExpected) {
+            this.isMarkExpected = isMarkExpected;
+        }
+
+        @Override
+        public void buildVisitor() {
+            addVisit(Kind.VAR_REF_EXPR, (varRef, table) -> {
+                if (varRef.hasAttribute("marked") != isMarkExpected) {
+                    addReport(Report.newError(Stage.SEMANTIC, -1, -1, "wrong mark", null));
+                }
+                return null;
+            });
+        }
+    }
+
+    @Test
+    public void passesThatChangeTheAstRunAlone() {
+        var code = new JmmProgramGenerator().setMethods(50).generate("Generated");
+        List<Supplier<AnalysisVisitor>> passes = List.of(() -> new MarkChecker(false), () -> new MarkChecker(false),
+                Marker::new, () -> new MarkChecker(true), () -> new MarkChecker(true));
+
+        var config = CompilerConfig.getDefault();
+        config.put("analysisMode", AnalysisMode.PARALLEL.getName());
+
+        // The passes before the marker see no marks, and the ones after see all of them
+        for (int i = 0; i < 5; i++) {
+            var reports = new JmmAnalysisImpl(passes).semanticAnalysis(TestUtils.parse(code, config)).getReports();
+            assertEquals(List.of("marker"), reports.stream().map(Report::getMessage).toList());
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void unknownMode() {
+        CompilerConfig.getAnalysisMode(Map.of("analysisMode", "threads"));
+    }
+}
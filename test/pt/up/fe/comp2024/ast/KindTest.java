@@ -0,0 +1,48 @@
+package pt.up.fe.comp2024.ast;
+
+import org.junit.Test;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.ast.nodes.CompactJmmNode;
+import pt.up.fe.comp2024.parser.JmmParserImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class KindTest {
+
+    @Test
+    public void kindsRoundTripThroughTheirNames() {
+        for (var kind : Kind.values()) {
+            assertSame(kind, Kind.fromString(kind.getNodeName()));
+            assertSame(kind, Kind.fromString(kind.toString()));
+        }
+    }
+
+    @Test
+    public void unknownNamesAreRejected() {
+        // Same exception and message as the search over all kinds
+        for (var name : new String[]{"Unknown", "assignStmt", "ASSIGN_STMT", ""}) {
+            try {
+                Kind.fromString(name);
+                fail("Expected an exception for '" + name + "'");
+            } catch (RuntimeException e) {
+                assertEquals("Could not convert string '" + name + "' to a Kind", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void kindsOfGenericAndParsedNodes() {
+        var root = new JmmParserImpl().parse("class A { }", CompilerConfig.getDefault()).getRootNode();
+        var classDecl = root.getJmmChild(0);
+        assertTrue(classDecl instanceof CompactJmmNode);
+        assertSame(Kind.CLASS_DECL, Kind.of(classDecl));
+        assertSame(Kind.PROGRAM, Kind.of(root));
+
+        // Nodes made elsewhere are looked up by their name
+        assertSame(Kind.RETURN_STMT, Kind.of(new JmmNodeImpl("ReturnStmt")));
+    }
+}
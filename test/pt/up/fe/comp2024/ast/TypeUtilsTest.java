@@ -0,0 +1,57 @@
+package pt.up.fe.comp2024.ast;
+
+import org.junit.Test;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.parser.JmmParserImpl;
+import pt.up.fe.comp2024.symboltable.JmmSymbolTableBuilder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class TypeUtilsTest {
+
+    private static final String CODE = """
+            class A {
+                int[] a;
+                public int foo(int x) {
+                    return a[x] + this.foo(x);
+                }
+            }
+            """;
+
+    private static JmmNode parse() {
+        return new JmmParserImpl().parse(CODE, CompilerConfig.getDefault()).getRootNode();
+    }
+
+    @Test
+    public void typesAreComputedOnce() {
+        var root = parse();
+        var table = JmmSymbolTableBuilder.build(root);
+        var call = root.getDescendants(Kind.FUNCTION_CALL).get(0);
+
+        var type = TypeUtils.getExprType(call, table);
+        assertEquals("int", type.getName());
+        assertSame(type, TypeUtils.getExprType(call, table));
+
+        // Types computed with another table are not reused
+        var otherTable = JmmSymbolTableBuilder.build(root);
+        assertNotSame(type, TypeUtils.getExprType(call, otherTable));
+    }
+
+    @Test
+    public void clearedTypesAreComputedAgain() {
+        var root = parse();
+        var table = JmmSymbolTableBuilder.build(root);
+        var access = root.getDescendants(Kind.ARRAY_SUBS).get(0);
+
+        var type = TypeUtils.getExprType(access, table);
+        assertEquals("int", type.getName());
+
+        TypeUtils.clearExprTypes(root);
+        var newType = TypeUtils.getExprType(access, table);
+        assertNotSame(type, newType);
+        assertEquals(type, newType);
+    }
+}
@@ -0,0 +1,97 @@
+package pt.up.fe.comp2024.ast.nodes;
+
+import org.junit.Test;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.JmmNodeImpl;
+import pt.up.fe.comp2024.ast.Kind;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompactJmmNodeTest {
+
+    private static MethodDeclNode newMethod() {
+        var method = new MethodDeclNode(List.of("MethodDecl"), Kind.METHOD_DECL, "foo", true, false, null);
+        method.setPosition(3, 4, 5, 6);
+        return method;
+    }
+
+    @Test
+    public void typedAttributesCanBeOverwritten() {
+        var method = newMethod();
+        var attributes = List.copyOf(method.getAttributes());
+
+        assertEquals("3", method.put("lineStart", "7"));
+        assertEquals(7, method.getLineStart());
+        assertEquals("7", method.get("lineStart"));
+
+        assertEquals("foo", method.put("name", "bar"));
+        assertEquals("bar", method.getName());
+        assertEquals("bar", method.get("name"));
+
+        // Typed attributes keep their type, their previous value is given in string form by put
+        assertEquals(true, method.putObject("isPublic", false));
+        assertFalse(method.isPublic());
+        assertEquals("false", method.put("isPublic", "true"));
+        assertTrue(method.isPublic());
+
+        // Overwriting does not add them to the map of the node
+        assertEquals(attributes, List.copyOf(method.getAttributes()));
+    }
+
+    @Test
+    public void typedAndMapAttributesHaveTheOrderOfAGenericNode() {
+        var method = newMethod();
+        method.put("type", "int");
+        method.putObject("visited", 1);
+
+        // The generic conversion puts the position first, then the attributes of the parser, then the ones added later
+        JmmNode expected = new JmmNodeImpl("MethodDecl");
+        expected.put("lineStart", "3");
+        expected.put("colStart", "4");
+        expected.put("lineEnd", "5");
+        expected.put("colEnd", "6");
+        expected.putObject("isPublic", true);
+        expected.putObject("isMain", false);
+        expected.put("name", "foo");
+        expected.put("type", "int");
+        expected.putObject("visited", 1);
+
+        assertEquals(List.copyOf(expected.getAttributes()), List.copyOf(method.getAttributes()));
+        for (var attribute : expected.getAttributes()) {
+            assertTrue(attribute, method.hasAttribute(attribute));
+            assertEquals(attribute, expected.getObject(attribute), method.getObject(attribute));
+        }
+        assertFalse(method.hasAttribute("arg"));
+
+        // Attributes in the map can be overwritten too
+        assertEquals("int", method.put("type", "boolean"));
+        assertEquals("boolean", method.get("type"));
+    }
+
+    @Test
+    public void settingTheHierarchyForgetsTheKind() {
+        var node = new CompactJmmNode(List.of("ReturnStmt"), Kind.RETURN_STMT);
+        assertSame(Kind.RETURN_STMT, node.getNodeKind());
+        assertTrue(Kind.RETURN_STMT.check(node));
+
+        node.setHierarchy(List.of("ExprStmt"));
+        var generic = new JmmNodeImpl("ReturnStmt");
+        generic.setHierarchy(List.of("ExprStmt"));
+
+        // The kind is now checked through the hierarchy, as for a generic node
+        assertNull(node.getNodeKind());
+        assertFalse(Kind.RETURN_STMT.check(node));
+        assertTrue(Kind.EXPR_STMT.check(node));
+        assertEquals(Kind.EXPR_STMT.check(generic), Kind.EXPR_STMT.check(node));
+
+        // The name of the node does not change, so neither does the kind found from it
+        assertEquals(generic.getKind(), node.getKind());
+        assertSame(Kind.of(generic), Kind.of(node));
+    }
+}
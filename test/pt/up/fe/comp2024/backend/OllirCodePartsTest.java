@@ -0,0 +1,112 @@
+package pt.up.fe.comp2024.backend;
+
+import org.junit.Test;
+import org.specs.comp.ollir.Method;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp2024.CompilerConfig;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OllirCodePartsTest {
+
+    private static final String CODE = """
+            import io;
+            class A {
+                int x;
+                public int foo(int a) {
+                    int b;
+                    b = 0;
+                    while (b < a) {
+                        if (b < x) {
+                            b = b + 2;
+                        } else {
+                            b = b + 1;
+                        }
+                    }
+                    return b;
+                }
+                public int bar(int[] a) {
+                    io.println(a.length);
+                    return this.foo(a[0]);
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    // Braces in strings, as in the names of the methods that are called
+    private static final String OLLIR_CODE = """
+            A {
+                .construct A().V {
+                    invokespecial(this, "<init>").V;
+                }
+
+                .method public foo(a.i32).i32 {
+                    invokestatic(io, "}").V;
+                    invokestatic(io, "{{").V;
+                    ret.i32 a.i32;
+                }
+
+                .method public static $bar_1(a.i32).i32 {
+                    ret.i32 a.i32;
+                }
+            }
+            """;
+
+    @Test
+    public void generatedCodeIsSplitByMethod() {
+        var ollirResult = TestUtils.optimize(CODE, CompilerConfig.getDefault());
+        var ollirCode = ollirResult.getOllirCode();
+        var parts = OllirCodeParts.split(ollirCode).orElseThrow();
+
+        // The same methods as the class unit, with the constructor in the header
+        var methodNames = ollirResult.getOllirClass().getMethods().stream()
+                .filter(method -> !method.isConstructMethod())
+                .map(Method::getMethodName)
+                .toList();
+        assertEquals(methodNames, List.copyOf(parts.methods().keySet()));
+
+        for (var methodCode : parts.methods().values()) {
+            assertTrue(methodCode, methodCode.stripLeading().startsWith(".method "));
+            assertTrue(methodCode, methodCode.stripTrailing().endsWith("}"));
+        }
+
+        // No line is lost or repeated, each part ends with a new line
+        var joined = parts.methods().values().stream().collect(Collectors.joining("", parts.header(), ""));
+        assertEquals(ollirCode.length() + 1, joined.length());
+    }
+
+    @Test
+    public void bracesInStringsAreIgnored() {
+        var parts = OllirCodeParts.split(OLLIR_CODE).orElseThrow();
+
+        assertEquals(List.of("foo", "$bar_1"), List.copyOf(parts.methods().keySet()));
+        var foo = parts.methods().get("foo");
+        assertTrue(foo, foo.contains("invokestatic(io, \"{{\").V;"));
+        assertTrue(foo, foo.stripTrailing().endsWith("ret.i32 a.i32;\n    }"));
+
+        assertTrue(parts.header(), parts.header().contains(".construct A().V {"));
+        assertFalse(parts.header(), parts.header().contains(".method"));
+    }
+
+    @Test
+    public void repeatedNamesAreNotSplit() {
+        var code = OLLIR_CODE.replace("$bar_1", "foo");
+
+        assertTrue(OllirCodeParts.split(code).isEmpty());
+    }
+
+    @Test
+    public void unclosedMethodsAreInTheHeader() {
+        var code = OLLIR_CODE.substring(0, OLLIR_CODE.lastIndexOf("    }"));
+        var parts = OllirCodeParts.split(code).orElseThrow();
+
+        assertEquals(List.of("foo"), List.copyOf(parts.methods().keySet()));
+        assertTrue(parts.header(), parts.header().contains("$bar_1"));
+    }
+}
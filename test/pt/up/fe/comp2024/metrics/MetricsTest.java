@@ -0,0 +1,80 @@
+package pt.up.fe.comp2024.metrics;
+
+import org.junit.After;
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsTest {
+
+    @After
+    public void stopRecording() {
+        Metrics.collect();
+    }
+
+    private static List<String> getNames(List<PhaseMetrics> phases) {
+        return phases.stream().map(PhaseMetrics::getName).toList();
+    }
+
+    @Test
+    public void phasesAreNested() {
+        Metrics.enable();
+        try (var outer = Metrics.start("outer")) {
+            try (var first = Metrics.start("first")) {
+                try (var inner = Metrics.start("inner")) {
+                    TestUtils.parse("class A {}");
+                }
+            }
+            try (var second = Metrics.start("second")) {
+                TestUtils.parse("class B {}");
+            }
+        }
+
+        var phases = Metrics.collect();
+        // The phases of the parser are recorded too, inside 'inner' and 'second'
+        var names = getNames(phases);
+        assertEquals("outer", names.get(0));
+        assertEquals("first", names.get(1));
+        assertEquals("inner", names.get(2));
+        assertTrue(names.contains("second"));
+
+        var outer = phases.get(0);
+        assertEquals(0, outer.getDepth());
+        assertEquals(1, phases.get(1).getDepth());
+        assertEquals(2, phases.get(2).getDepth());
+        assertEquals(1, phases.get(names.indexOf("second")).getDepth());
+        assertTrue(outer.getWallNanos() >= phases.get(1).getWallNanos());
+    }
+
+    @Test
+    public void collectClearsThePhases() {
+        Metrics.enable();
+        try (var phase = Metrics.start("phase")) {
+            assertEquals(1, Metrics.collect().size());
+        }
+
+        assertTrue(Metrics.collect().isEmpty());
+    }
+
+    @Test
+    public void phasesOutsideARecordingAreNotKept() {
+        try (var phase = Metrics.start("before")) {
+            TestUtils.parse("class A {}");
+        }
+
+        Metrics.enable();
+        try (var phase = Metrics.start("recorded")) {
+        }
+        assertEquals(List.of("recorded"), getNames(Metrics.collect()));
+
+        // collect() stopped the recording
+        try (var phase = Metrics.start("after")) {
+        }
+        Metrics.enable();
+        assertTrue(Metrics.collect().isEmpty());
+    }
+}
@@ -0,0 +1,123 @@
+package pt.up.fe.comp2024.optimization;
+
+import org.junit.Test;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.specs.util.SpecsIo;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConstantPropagationTest {
+
+    private static String getCode(String filename) {
+        return SpecsIo.getResource("pt/up/fe/comp2024/optimization/" + filename);
+    }
+
+    private static String optimize(String filename) {
+        return optimize(filename, PropagationMode.SCCP);
+    }
+
+    private static String optimize(String filename, PropagationMode mode) {
+        var config = CompilerConfig.getDefault();
+        config.put("optimize", "true");
+        config.put("propagationMode", mode.getName());
+
+        return TestUtils.optimize(getCode(filename), config).getOllirCode();
+    }
+
+    @Test
+    public void chainsOfConstants() {
+        var ollir = optimize("constantpropagation/ChainsOfConstants.jmm");
+
+        assertTrue(ollir, ollir.contains("ret.i32 21.i32;"));
+        // Both variables are no longer needed
+        assertFalse(ollir, ollir.contains("a.i32"));
+        assertFalse(ollir, ollir.contains("b.i32"));
+    }
+
+    @Test
+    public void sameConstantInAllBranches() {
+        var ollir = optimize("constantpropagation/SameConstantInAllBranches.jmm");
+
+        assertTrue(ollir, ollir.contains("putfield(this, f.i32, 1.i32).V;"));
+        assertTrue(ollir, ollir.contains("ret.i32 b.i32;"));
+    }
+
+    @Test
+    public void assignedInLoop() {
+        var ollir = optimize("constantpropagation/AssignedInLoop.jmm");
+
+        assertTrue(ollir, ollir.contains("<.bool 10.i32"));
+        assertTrue(ollir, ollir.contains("i.i32 *.i32 10.i32"));
+        assertTrue(ollir, ollir.contains("i.i32 +.i32 1.i32"));
+    }
+
+    @Test
+    public void effectsAreKept() {
+        var ollir = optimize("constantpropagation/EffectsAreKept.jmm");
+
+        assertTrue(ollir, ollir.contains("/.i32 0.i32"));
+        assertTrue(ollir, ollir.contains("1.i32 /.i32 0.i32"));
+    }
+
+    @Test
+    public void constantBranchesAreFolded() {
+        var ollir = optimize("constantpropagation/ConstantBranchesAreFolded.jmm");
+
+        assertTrue(ollir, ollir.contains("ret.i32 3.i32;"));
+        assertFalse(ollir, ollir.contains("if ("));
+        assertFalse(ollir, ollir.contains("i.i32"));
+    }
+
+    @Test
+    public void branchesThatNeverRunAreIgnored() {
+        var ollir = optimize("constantpropagation/BranchesThatNeverRunAreIgnored.jmm");
+
+        // 'a' only changes in the branch that never runs, so it is always 1
+        assertTrue(ollir, ollir.contains("ret.i32 1.i32;"));
+        assertFalse(ollir, ollir.contains("a.i32"));
+    }
+
+    @Test
+    public void reachingDefinitionsPropagateChains() {
+        var ollir = optimize("constantpropagation/ChainsOfConstants.jmm", PropagationMode.REACHING);
+
+        assertTrue(ollir, ollir.contains("ret.i32 21.i32;"));
+        assertFalse(ollir, ollir.contains("a.i32"));
+        assertFalse(ollir, ollir.contains("b.i32"));
+
+        ollir = optimize("constantpropagation/SameConstantInAllBranches.jmm", PropagationMode.REACHING);
+        assertTrue(ollir, ollir.contains("putfield(this, f.i32, 1.i32).V;"));
+    }
+
+    @Test
+    public void reachingDefinitionsAssumeAllBranchesRun() {
+        var ollir = optimize("constantpropagation/BranchesThatNeverRunAreIgnored.jmm", PropagationMode.REACHING);
+
+        // The assignment in the branch that never runs reaches the return
+        assertTrue(ollir, ollir.contains("ret.i32 a.i32;"));
+    }
+
+    @Test
+    public void divisionsByConstantsAreRemoved() {
+        var ollir = optimize("constantpropagation/DivisionsByConstantsAreRemoved.jmm");
+
+        // Dividing by 2 cannot fail, so the assignment of 'a' goes once its use is replaced
+        assertTrue(ollir, ollir.contains("3.i32 +.i32 p.i32"));
+        assertFalse(ollir, ollir.contains("a.i32"));
+    }
+
+    @Test
+    public void oneRoundIsEnough() {
+        var config = CompilerConfig.getDefault();
+        config.put("optimize", "true");
+        var semanticsResult = TestUtils.analyse(getCode("constantpropagation/OneRoundIsEnough.jmm"), config);
+
+        semanticsResult = new JmmOptimizationImpl().optimize(semanticsResult);
+
+        // Nothing is left for another round of propagation and folding
+        assertFalse(new ConstantPropagation().optimize(semanticsResult).b);
+        assertFalse(new ConstantFolding().optimize(semanticsResult).b);
+    }
+}
@@ -0,0 +1,67 @@
+package pt.up.fe.comp2024.optimization;
+
+import org.junit.Test;
+import org.specs.comp.ollir.AssignInstruction;
+import org.specs.comp.ollir.BinaryOpInstruction;
+import org.specs.comp.ollir.Method;
+import org.specs.comp.ollir.Operand;
+import org.specs.comp.ollir.ReturnInstruction;
+import pt.up.fe.comp.CpUtils;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CopyPropagationTest {
+
+    private static Method optimize(String filename) {
+        var ollirResult = new OllirResult(SpecsIo.getResource("pt/up/fe/comp2024/optimization/" + filename),
+                Collections.emptyMap());
+        new CopyPropagation().optimize(ollirResult.getOllirClass());
+
+        return CpUtils.getMethod(ollirResult, "foo");
+    }
+
+    private static String getName(Object element) {
+        return ((Operand) element).getName();
+    }
+
+    @Test
+    public void temporariesAreCoalesced() {
+        var method = optimize("copypropagation/TemporariesAreCoalesced.ollir");
+
+        // The temporaries take the name of the variable they are copied to, and the copies are removed
+        assertEquals(3, method.getInstructions().size());
+        assertEquals("b", getName(((AssignInstruction) method.getInstructions().get(0)).getDest()));
+        assertEquals("b", getName(((AssignInstruction) method.getInstructions().get(1)).getDest()));
+        assertFalse(method.getVarTable().containsKey("tmp0"));
+        assertFalse(method.getVarTable().containsKey("tmp1"));
+    }
+
+    @Test
+    public void parametersKeepTheirNames() {
+        var method = optimize("copypropagation/ParametersKeepTheirNames.ollir");
+
+        assertEquals(1, method.getInstructions().size());
+        assertEquals("p", getName(((ReturnInstruction) method.getInstructions().get(0)).getOperand()));
+        assertTrue(method.getVarTable().containsKey("p"));
+        assertFalse(method.getVarTable().containsKey("a"));
+    }
+
+    @Test
+    public void copiesArePropagatedWhileAvailable() {
+        var method = optimize("copypropagation/CopiesArePropagatedWhileAvailable.ollir");
+
+        // 'b' holds the old value of 'a' after 'a' is assigned, so the copy is kept
+        var instructions = method.getInstructions();
+        assertEquals(6, instructions.size());
+        var c = (BinaryOpInstruction) ((AssignInstruction) instructions.get(1)).getRhs();
+        assertEquals("a", getName(c.getLeftOperand()));
+        var d = (BinaryOpInstruction) ((AssignInstruction) instructions.get(3)).getRhs();
+        assertEquals("b", getName(d.getRightOperand()));
+    }
+}
@@ -0,0 +1,57 @@
+package pt.up.fe.comp2024.optimization;
+
+import org.junit.Test;
+import org.specs.comp.ollir.InstructionType;
+import org.specs.comp.ollir.Method;
+import pt.up.fe.comp.CpUtils;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.specs.util.SpecsIo;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DeadCodeEliminationTest {
+
+    private static Method optimize(String filename) {
+        var ollirResult = new OllirResult(SpecsIo.getResource("pt/up/fe/comp2024/optimization/" + filename),
+                Collections.emptyMap());
+        new DeadCodeElimination().optimize(ollirResult.getOllirClass());
+
+        return CpUtils.getMethod(ollirResult, "foo");
+    }
+
+    private static List<InstructionType> getTypes(Method method) {
+        return method.getInstructions().stream().map(instruction -> instruction.getInstType()).toList();
+    }
+
+    @Test
+    public void deadAssignmentsAndUnreachableCode() {
+        var method = optimize("deadcode/DeadAssignments.ollir");
+
+        // Only the last assignment of 't' is read, and the jump to the next instruction does nothing
+        assertEquals(List.of(InstructionType.ASSIGN, InstructionType.RETURN), getTypes(method));
+        assertTrue(method.getLabels().isEmpty());
+    }
+
+    @Test
+    public void effectsAreKept() {
+        var method = optimize("deadcode/EffectsAreKept.ollir");
+
+        assertEquals(List.of(InstructionType.ASSIGN, InstructionType.ASSIGN, InstructionType.RETURN),
+                getTypes(method));
+    }
+
+    @Test
+    public void labelsOfRemovedInstructions() {
+        var method = optimize("deadcode/LabelsOfRemovedInstructions.ollir");
+
+        assertEquals(5, method.getInstructions().size());
+        assertEquals(2, method.getLabels().size());
+        // The label of the dead assignment moves to the instruction after it
+        assertSame(method.getInstructions().get(4), method.getLabels().get("END"));
+    }
+}
@@ -0,0 +1,116 @@
+package pt.up.fe.comp2024.optimization;
+
+import org.junit.Test;
+import org.specs.comp.ollir.Descriptor;
+import pt.up.fe.comp.TestUtils;
+import pt.up.fe.comp.jmm.ollir.OllirResult;
+import pt.up.fe.comp.jmm.report.ReportType;
+
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RegisterAllocationTest {
+
+    private static final String CODE = """
+            class A {
+                public int foo(int p) {
+                    int a;
+                    int b;
+                    int c;
+                    a = p + 1;
+                    b = a * 2;
+                    c = b + a;
+                    return a + b + c;
+                }
+                public static void main(String[] args) {
+                    A x;
+                    x = new A();
+                    io.println(x.foo(3));
+                }
+            }
+            """;
+
+    private static OllirResult allocate(String code, int maxRegisters) {
+        var config = new HashMap<String, String>();
+        config.put("registerAllocation", String.valueOf(maxRegisters));
+
+        return TestUtils.optimize("import io;\n" + code, config);
+    }
+
+    private static int getRegister(OllirResult ollirResult, String variable) {
+        var method = ollirResult.getOllirClass().getMethods().stream()
+                .filter(m -> m.getMethodName().equals("foo"))
+                .findFirst()
+                .orElseThrow();
+
+        return method.getVarTable().get(variable).getVirtualReg();
+    }
+
+    @Test
+    public void liveVariablesDoNotShareLocals() {
+        var ollirResult = allocate(CODE, 0);
+
+        // 'a', 'b' and 'c' are live together at the return, 'this' and 'p' are dead after the first assignment
+        assertEquals(1, getRegister(ollirResult, "p"));
+        assertNotEquals(getRegister(ollirResult, "a"), getRegister(ollirResult, "b"));
+        assertNotEquals(getRegister(ollirResult, "a"), getRegister(ollirResult, "c"));
+        assertNotEquals(getRegister(ollirResult, "b"), getRegister(ollirResult, "c"));
+
+        var jasminResult = TestUtils.backend(ollirResult);
+        var foo = jasminResult.getJasminCode().split("\\.method public foo")[1];
+        assertTrue(foo, foo.contains(".limit locals 3"));
+        assertEquals("24", jasminResult.run().strip());
+    }
+
+    @Test
+    public void variablesReadBeforeAssigned() {
+        var ollirResult = allocate("""
+                class A {
+                    public int foo(int p) {
+                        int a;
+                        int b;
+                        b = p + 2;
+                        return a + b;
+                    }
+                    public static void main(String[] args) {
+                    }
+                }
+                """, 0);
+
+        // 'a' is live when the method starts, so it cannot share the local of 'p', nor of 'b'
+        int a = getRegister(ollirResult, "a");
+        assertTrue(a > 1);
+        assertNotEquals(a, getRegister(ollirResult, "b"));
+
+        var jasminCode = TestUtils.backend(ollirResult).getJasminCode();
+        assertFalse(jasminCode, jasminCode.contains("-1"));
+    }
+
+    @Test
+    public void tooFewLocals() {
+        var ollirResult = allocate(CODE, 2);
+
+        var errors = ollirResult.getReports().stream()
+                .filter(report -> report.getType() == ReportType.ERROR)
+                .toList();
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).getMessage(), errors.get(0).getMessage().contains("'foo' needs at least 3 locals"));
+    }
+
+    @Test
+    public void withoutAllocation() {
+        var ollirResult = allocate(CODE, -1);
+
+        // Each variable keeps its own local
+        var varTable = ollirResult.getOllirClass().getMethods().stream()
+                .filter(m -> m.getMethodName().equals("foo"))
+                .findFirst()
+                .orElseThrow()
+                .getVarTable();
+        assertEquals(varTable.size(), varTable.values().stream().map(Descriptor::getVirtualReg).distinct().count());
+    }
+}
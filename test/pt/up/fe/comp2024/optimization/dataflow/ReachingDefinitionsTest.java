@@ -0,0 +1,122 @@
+package pt.up.fe.comp2024.optimization.dataflow;
+
+import org.junit.Test;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.parser.JmmParserImpl;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReachingDefinitionsTest {
+
+    private static final String CODE = """
+            class A {
+                public int foo(int p) {
+                    int a;
+                    int i;
+                    a = 1;
+                    i = 0;
+                    while (i < p) {
+                        if (i < 5) {
+                            a = 2;
+                        } else {
+                            i = i + 1;
+                        }
+                    }
+                    return a + i;
+                }
+            }
+            """;
+
+    private static JmmNode parseMethod(String code) {
+        var root = new JmmParserImpl().parse(code, CompilerConfig.getDefault()).getRootNode();
+        return root.getDescendants(Kind.METHOD_DECL).get(0);
+    }
+
+    @Test
+    public void blocksOfLoopsAndConditions() {
+        var graph = ControlFlowGraph.build(parseMethod(CODE)).orElseThrow();
+
+        assertEquals("""
+                B0 -> [B1]: AssignStmt AssignStmt
+                B1 -> [B2, B6]: BinaryExpr
+                B2 -> [B3, B4]: BinaryExpr
+                B3 -> [B5]: AssignStmt
+                B4 -> [B5]: AssignStmt
+                B5 -> [B1]:
+                B6 -> [B8]: ReturnStmt
+                B7 -> [B8]:
+                B8 -> []:
+                """, graph.toString());
+        assertEquals(graph.getNodes().get(8), graph.getExit());
+        assertTrue(graph.getNodes().get(7).getPredecessors().isEmpty());
+    }
+
+    @Test
+    public void definitionsThatReachEachUse() {
+        var graph = ControlFlowGraph.build(parseMethod(CODE)).orElseThrow();
+        var reaching = ReachingDefinitions.solve(graph, List.of("p", "a", "i"));
+
+        // Uses: 'i' and 'p' in the loop, 'i' in the if, 'i' in the else, and 'a' and 'i' in the return
+        List<String> uses = new ArrayList<>();
+        for (var use : reaching.getUses()) {
+            uses.add(use.get("name") + reaching.getReachingDefinitions(use).cardinality());
+        }
+
+        assertEquals(List.of("i2", "p1", "i2", "i2", "a2", "i2"), uses);
+
+        // The parameter is only defined at the entry
+        var p = reaching.getUses().get(1);
+        var pDefinition = reaching.getReachingDefinitions(p).nextSetBit(0);
+        assertTrue(reaching.getDefinition(pDefinition).isEmpty());
+    }
+
+    @Test
+    public void backwardProblems() {
+        var graph = ControlFlowGraph.build(parseMethod(CODE)).orElseThrow();
+
+        // Blocks from which the return can be reached, each block is its own fact
+        var result = DataflowSolver.solve(graph, new BitVectorProblem<>() {
+            @Override
+            public Direction getDirection() {
+                return Direction.BACKWARD;
+            }
+
+            @Override
+            public Meet getMeet() {
+                return Meet.UNION;
+            }
+
+            @Override
+            public int getSize() {
+                return graph.getNodes().size();
+            }
+
+            @Override
+            public BitSet getGen(BasicBlock block) {
+                var gen = new BitSet();
+                if (block.getId() == 6) {
+                    gen.set(6);
+                }
+                return gen;
+            }
+
+            @Override
+            public BitSet getKill(BasicBlock block) {
+                return new BitSet();
+            }
+        });
+
+        for (var block : graph.getNodes()) {
+            boolean reachesReturn = block.getId() <= 6;
+            assertEquals(block.toString(), reachesReturn, result.getIn(block).get(6));
+        }
+        assertTrue(result.getOut(graph.getExit()).isEmpty());
+    }
+}
@@ -0,0 +1,107 @@
+package pt.up.fe.comp2024.optimization.dataflow;
+
+import org.junit.Test;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.parser.JmmParserImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SsaFormTest {
+
+    private static final String CODE = """
+            class A {
+                public int foo(int p) {
+                    int a;
+                    int i;
+                    a = 1;
+                    i = 0;
+                    while (i < p) {
+                        if (a < 5) {
+                            a = 1;
+                        } else {
+                            a = 2;
+                        }
+                        i = i + 1;
+                    }
+                    return a + i;
+                }
+            }
+            """;
+
+    private static ControlFlowGraph buildGraph(String code) {
+        var root = new JmmParserImpl().parse(code, CompilerConfig.getDefault()).getRootNode();
+        return ControlFlowGraph.build(root.getDescendants(Kind.METHOD_DECL).get(0)).orElseThrow();
+    }
+
+    @Test
+    public void dominators() {
+        var graph = buildGraph(CODE);
+        var dominators = DominatorTree.build(graph);
+        var blocks = graph.getNodes();
+
+        // The loop header dominates the whole loop, the if does not dominate where its branches join
+        assertEquals(Optional.of(blocks.get(1)), dominators.getImmediateDominator(blocks.get(2)));
+        assertEquals(Optional.of(blocks.get(2)), dominators.getImmediateDominator(blocks.get(5)));
+        assertTrue(dominators.dominates(blocks.get(1), blocks.get(4)));
+        assertFalse(dominators.dominates(blocks.get(3), blocks.get(5)));
+
+        assertEquals(List.of(blocks.get(5)), List.copyOf(dominators.getFrontier(blocks.get(3))));
+        assertEquals(List.of(blocks.get(1)), List.copyOf(dominators.getFrontier(blocks.get(5))));
+
+        // The block after the return cannot be reached
+        assertFalse(dominators.isReachable(blocks.get(7)));
+        assertTrue(dominators.getImmediateDominator(blocks.get(7)).isEmpty());
+    }
+
+    @Test
+    public void phisWhereValuesJoin() {
+        var graph = buildGraph(CODE);
+        var ssa = SsaForm.build(graph, graph.getVariables());
+
+        List<String> loopPhis = new ArrayList<>();
+        for (var phi : ssa.getPhis(graph.getNodes().get(1))) {
+            loopPhis.add(phi.getVariable() + phi.getOperands());
+        }
+        assertEquals(List.of("a[a_6, a_0]", "i[i_7, i_10]"), loopPhis);
+
+        // The phis are numbered first, then the values at the entry, then the assignments
+        var ifPhis = ssa.getPhis(graph.getNodes().get(5));
+        assertEquals(1, ifPhis.size());
+        assertEquals("[a_9, a_8]", ifPhis.get(0).getOperands().toString());
+
+        // Each use reads the value of the closest assignment or phi
+        List<String> uses = new ArrayList<>();
+        for (var use : ssa.getUses()) {
+            uses.add(ssa.getUseValue(use).toString());
+        }
+        assertEquals(List.of("i_2", "p_3", "a_1", "i_2", "a_1", "i_2"), uses);
+    }
+
+    @Test
+    public void constantsOfTheBranchesThatRun() {
+        var graph = buildGraph(CODE);
+        var ssa = SsaForm.build(graph, graph.getVariables());
+        var constants = SparseConditionalConstants.solve(ssa);
+        var blocks = graph.getNodes();
+
+        // 'a' is always 1, so the else never runs, and the loop keeps it as 1
+        assertEquals(Optional.of("true"), constants.getConditionConstant(blocks.get(2)));
+        assertTrue(constants.isExecutable(blocks.get(3)));
+        assertFalse(constants.isExecutable(blocks.get(4)));
+        assertFalse(constants.isExecutable(blocks.get(7)));
+
+        List<String> useConstants = new ArrayList<>();
+        for (var use : ssa.getUses()) {
+            useConstants.add(use.get("name") + "=" + constants.getUseConstant(use).orElse("?"));
+        }
+        assertEquals(List.of("i=?", "p=?", "a=1", "i=?", "a=1", "i=?"), useConstants);
+    }
+}
@@ -0,0 +1,174 @@
+package pt.up.fe.comp2024.parser;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.junit.Test;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.ast.antlr.AntlrToJmmNodeConverter;
+import pt.up.fe.comp2024.JavammLexer;
+import pt.up.fe.comp2024.JavammParser;
+import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.ast.nodes.BinaryExprNode;
+import pt.up.fe.comp2024.ast.nodes.CompactJmmNode;
+import pt.up.fe.comp2024.ast.nodes.IntegerLiteralNode;
+import pt.up.fe.comp2024.ast.nodes.MethodDeclNode;
+import pt.up.fe.comp2024.ast.nodes.Operator;
+import pt.up.fe.comp2024.utils.JmmProgramGenerator;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class JmmAstBuilderTest {
+
+    private static final String CODE = """
+            import a.b.C;
+            class A extends C {
+                int x;
+                public int foo(int a, int[] b) {
+                    x = a + 2147483647;
+                    return x;
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    private static JmmNode build(String code) {
+        var parser = new JavammParser(new CommonTokenStream(new JavammLexer(new ANTLRInputStream(code))));
+        return JmmAstBuilder.build(parser.program(), parser.getTokenStream());
+    }
+
+    private static void assertSameNode(JmmNode expected, JmmNode actual) {
+        // The generic conversion keeps assignments as 'ExprStmt' nodes with two children
+        var isAssignment = expected.getKind().equals("ExprStmt") && expected.getNumChildren() == 2;
+        assertEquals(isAssignment ? "AssignStmt" : expected.getKind(), actual.getKind());
+        if (!isAssignment) {
+            assertEquals(List.copyOf(expected.getHierarchy()), List.copyOf(actual.getHierarchy()));
+        }
+
+        assertEquals(List.copyOf(expected.getAttributes()), List.copyOf(actual.getAttributes()));
+        for (var attribute : expected.getAttributes()) {
+            assertEquals(expected.getObject(attribute), actual.getObject(attribute));
+        }
+
+        assertEquals(expected.getNumChildren(), actual.getNumChildren());
+        for (int i = 0; i < expected.getNumChildren(); i++) {
+            assertSameNode(expected.getJmmChild(i), actual.getJmmChild(i));
+        }
+    }
+
+    private static void assertSameTree(String code) {
+        var parser = new JavammParser(new CommonTokenStream(new JavammLexer(new ANTLRInputStream(code))));
+        var tree = parser.program();
+
+        var expected = AntlrToJmmNodeConverter.convert(tree, parser);
+        assertSameNode(expected, JmmAstBuilder.build(tree, parser.getTokenStream()));
+    }
+
+    @Test
+    public void sameTreeAsGenericConversion() {
+        assertSameTree(CODE);
+        assertSameTree(new JmmProgramGenerator().setMethods(5).setImports(2).generate("Generated"));
+    }
+
+    @Test
+    public void typedAttributes() {
+        var root = build(CODE);
+
+        var importStmt = root.getJmmChild(0);
+        assertEquals(List.of("a", "b", "C"), importStmt.getObjectAsList("name", String.class));
+        assertEquals("C", importStmt.get("ID"));
+
+        var classDecl = root.getJmmChild(1);
+        assertEquals("C", classDecl.get("superclass"));
+
+        var method = (MethodDeclNode) classDecl.getJmmChild(1);
+        assertTrue(method.isPublic());
+        assertEquals(Boolean.TRUE, method.getObject("isPublic"));
+        assertFalse(method.hasAttribute("arg"));
+        assertEquals("args", classDecl.getJmmChild(2).get("arg"));
+
+        var assign = method.getChildren("AssignStmt").get(0);
+        var binaryExpr = (BinaryExprNode) assign.getJmmChild(1);
+        assertEquals(Operator.ADD, binaryExpr.getOp());
+        assertEquals("+", binaryExpr.get("op"));
+        assertEquals(Integer.MAX_VALUE, ((IntegerLiteralNode) binaryExpr.getJmmChild(1)).getValue());
+        assertEquals("5", binaryExpr.get("lineStart"));
+    }
+
+    @Test
+    public void putUpdatesTypedAttributes() {
+        var root = build(CODE);
+        var classDecl = root.getJmmChild(1);
+        var binaryExpr = (BinaryExprNode) classDecl.getJmmChild(1).getChildren("AssignStmt").get(0).getJmmChild(1);
+
+        assertEquals("+", binaryExpr.put("op", "*"));
+        assertEquals(Operator.MUL, binaryExpr.getOp());
+
+        var literal = (IntegerLiteralNode) binaryExpr.getJmmChild(1);
+        literal.put("value", "3");
+        assertEquals(3, literal.getValue());
+
+        // Other attributes are kept as in any node
+        literal.put("type", "int");
+        assertEquals("int", literal.get("type"));
+        assertTrue(literal.getAttributes().containsAll(List.of("value", "type", "lineStart")));
+    }
+
+    @Test
+    public void putReturnsTypedAttributesAsStrings() {
+        var root = build(CODE);
+        var method = root.getJmmChild(1).getJmmChild(1);
+
+        assertEquals("true", method.put("isPublic", "false"));
+        assertFalse(((MethodDeclNode) method).isPublic());
+
+        var importStmt = root.getJmmChild(0);
+        assertEquals("[a, b, C]", importStmt.putObject("name", List.of("d", "E")).toString());
+        assertEquals(List.of("d", "E"), importStmt.getObjectAsList("name", String.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void importedNamesAreOnlySetAsLists() {
+        build(CODE).getJmmChild(0).put("name", "a.b.C");
+    }
+
+    @Test
+    public void emptyProgramsStartAtTheFirstToken() {
+        var root = build("");
+
+        assertEquals("1", root.get("lineStart"));
+        assertEquals("0", root.get("colStart"));
+        assertEquals("1", root.get("lineEnd"));
+        assertEquals("0", root.get("colEnd"));
+    }
+
+    @Test
+    public void nodesKnowTheirKind() {
+        var root = build(CODE);
+        var method = root.getJmmChild(1).getJmmChild(1);
+        var assign = (CompactJmmNode) method.getChildren("AssignStmt").get(0);
+
+        assertEquals(Kind.ASSIGN_STMT, assign.getNodeKind());
+        assertTrue(Kind.ASSIGN_STMT.check(assign));
+        assertFalse(Kind.EXPR_STMT.check(assign));
+        assertEquals(Kind.IMPORT_STMT, ((CompactJmmNode) root.getJmmChild(0)).getNodeKind());
+
+        // Changing the hierarchy falls back to checking the kind by name
+        assign.setHierarchy(List.of("ExprStmt", "Stmt"));
+        assertTrue(Kind.EXPR_STMT.check(assign));
+    }
+
+    @Test
+    public void identifiersAreShared() {
+        var method = build(CODE).getJmmChild(1).getJmmChild(1);
+        var assigned = method.getChildren("AssignStmt").get(0).getJmmChild(0);
+        var returned = method.getChildren("ReturnStmt").get(0).getJmmChild(0);
+
+        assertSame(assigned.get("name"), returned.get("name"));
+    }
+}
@@ -0,0 +1,196 @@
+package pt.up.fe.comp2024.parser;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.junit.After;
+import org.junit.Test;
+import pt.up.fe.comp.jmm.ast.JmmNode;
+import pt.up.fe.comp.jmm.parser.JmmParserResult;
+import pt.up.fe.comp.jmm.report.Report;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.JavammLexer;
+import pt.up.fe.comp2024.JavammParser;
+import pt.up.fe.comp2024.ast.Kind;
+import pt.up.fe.comp2024.metrics.Metrics;
+import pt.up.fe.comp2024.metrics.PhaseMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JmmParserImplTest {
+
+    private static final String CODE = """
+            class A {
+                public int foo(int[] a) {
+                    return a[0] + this.foo(a);
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    // The closing parenthesis of the call is missing
+    private static final String WRONG_CODE = """
+            class A {
+                public int foo(int[] a) {
+                    return a[0] + this.foo(a;
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    private static final String STMT_CODE = """
+            class A {
+                public int foo(int a, int[] b, boolean c) {
+                    a = a;
+                    b[a] = a;
+                    this.foo(a, b, c);
+                    return a;
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    // Every overlap left in expr: 'this' as Object and FieldCall, FunctionCall and Length, 'length' as a name
+    private static final String OVERLAPS_CODE = """
+            class A {
+                int[] length;
+                public int foo(int[] a) {
+                    length = a;
+                    a[0] = this.length.length + a.length + this.foo(a) + length[0];
+                    return this.foo(this.length).foo(a);
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    @After
+    public void stopRecording() {
+        Metrics.collect();
+    }
+
+    private static JmmParserResult parse(String code, String predictionMode) {
+        var config = CompilerConfig.getDefault();
+        config.put("predictionMode", predictionMode);
+
+        return new JmmParserImpl().parse(code, config);
+    }
+
+    private static List<String> getPhases(String code, String predictionMode) {
+        Metrics.enable();
+        parse(code, predictionMode);
+
+        return Metrics.collect().stream().map(PhaseMetrics::getName).toList();
+    }
+
+    private static List<String> getMessages(JmmParserResult result) {
+        return result.getReports().stream().map(Report::toString).toList();
+    }
+
+    @Test
+    public void validInputsAreOnlyParsedWithSll() {
+        assertFalse(getPhases(CODE, "sll").contains("ll-fallback"));
+
+        var sll = parse(CODE, "sll");
+        var ll = parse(CODE, "ll");
+        assertTrue(sll.getReports().isEmpty());
+        assertEquals(ll.getRootNode().toTree(), sll.getRootNode().toTree());
+    }
+
+    @Test
+    public void syntaxErrorsFallBackToLl() {
+        // SLL stops at the first error, without reporting it, so the input is parsed again with full LL
+        assertTrue(getPhases(WRONG_CODE, "sll").contains("ll-fallback"));
+        assertFalse(getPhases(WRONG_CODE, "ll").contains("ll-fallback"));
+
+        var sll = parse(WRONG_CODE, "sll");
+        var ll = parse(WRONG_CODE, "ll");
+        assertNull(sll.getRootNode());
+        assertFalse(sll.getReports().isEmpty());
+        assertEquals(getMessages(ll), getMessages(sll));
+    }
+
+    @Test
+    public void fallbacksAreCounted() {
+        long sllParses = JmmParserImpl.getSllParses();
+        long llFallbacks = JmmParserImpl.getLlFallbacks();
+
+        parse(WRONG_CODE, "sll");
+
+        // Other tests may parse at the same time, so only a lower bound is checked
+        assertTrue(JmmParserImpl.getSllParses() > sllParses);
+        assertTrue(JmmParserImpl.getLlFallbacks() > llFallbacks);
+    }
+
+    @Test
+    public void assignmentsAndExpressionStatementsKeepTheirKind() {
+        var method = parse(STMT_CODE, "sll").getRootNode().getDescendants(Kind.METHOD_DECL).get(0);
+
+        // The grammar parses both as 'expr (EQUALS expr)?', the assignments are restored after parsing
+        var stmts = method.getChildren().stream()
+                .filter(child -> Kind.ASSIGN_STMT.check(child) || Kind.EXPR_STMT.check(child))
+                .toList();
+        assertEquals(List.of("AssignStmt", "AssignStmt", "ExprStmt"), stmts.stream().map(JmmNode::getKind).toList());
+        assertTrue(Kind.VAR_REF_EXPR.check(stmts.get(0).getJmmChild(0)));
+        assertTrue(Kind.ARRAY_SUBS.check(stmts.get(1).getJmmChild(0)));
+        assertEquals(1, stmts.get(2).getNumChildren());
+    }
+
+    @Test
+    public void paramsAreNested() {
+        var method = parse(STMT_CODE, "sll").getRootNode().getDescendants(Kind.METHOD_DECL).get(0);
+
+        // Each param holds its type and, if there are more, the next param
+        var param = method.getChildren(Kind.PARAM).get(0);
+        List<String> names = new ArrayList<>();
+        while (true) {
+            names.add(param.get("name"));
+            assertTrue(Kind.TYPE.check(param.getJmmChild(0)));
+
+            var next = param.getChildren(Kind.PARAM);
+            if (next.isEmpty()) {
+                assertEquals(1, param.getNumChildren());
+                break;
+            }
+            assertEquals(2, param.getNumChildren());
+            param = next.get(0);
+        }
+
+        assertEquals(List.of("a", "b", "c"), names);
+    }
+
+    /**
+     * @return the largest lookahead of the decisions of the expr rule, checking that none falls back to full LL
+     */
+    private static long getExprMaxLookahead(String code) {
+        var parser = new JavammParser(new CommonTokenStream(new JavammLexer(new ANTLRInputStream(code))));
+        parser.setProfile(true);
+        parser.program();
+        assertEquals(0, parser.getNumberOfSyntaxErrors());
+
+        long maxLook = 0;
+        for (var info : parser.getParseInfo().getDecisionInfo()) {
+            assertEquals(0, info.LL_Fallback);
+            if (parser.getATN().getDecisionState(info.decision).ruleIndex == JavammParser.RULE_expr) {
+                maxLook = Math.max(maxLook, info.SLL_MaxLook);
+            }
+        }
+
+        return maxLook;
+    }
+
+    @Test
+    public void exprOverlapsNeedShortLookahead() {
+        // See src/profile/parser-profile.txt, only expressions starting with 'this' need more than 2 tokens
+        assertEquals(4, getExprMaxLookahead(OVERLAPS_CODE));
+        assertTrue(getExprMaxLookahead(OVERLAPS_CODE.replace("this.", "a.")) <= 2);
+    }
+}
@@ -0,0 +1,110 @@
+package pt.up.fe.comp2024.parser;
+
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pt.up.fe.comp2024.CompilerConfig;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MappedCharStreamTest {
+
+    private static final String CODE = """
+            class A {
+                public int foo(int a) {
+                    // %s
+                    return a + 1;
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    private Path file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = Files.createTempFile("jmm-mapped", ".jmm");
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        Files.delete(file);
+    }
+
+    private String write(String comment) throws IOException {
+        var code = CODE.formatted(comment);
+        Files.write(file, code.getBytes(StandardCharsets.UTF_8));
+
+        return code;
+    }
+
+    @Test
+    public void asciiFilesAreMapped() throws IOException {
+        var code = write("ascii");
+        var stream = MappedCharStream.open(file.toFile());
+
+        assertTrue(stream instanceof MappedCharStream);
+        assertEquals(code.length(), stream.size());
+        assertEquals(code, stream.toString());
+        assertEquals(file.toString(), stream.getSourceName());
+
+        assertEquals('c', stream.LA(1));
+        stream.seek(code.length());
+        assertEquals(IntStream.EOF, stream.LA(1));
+        assertEquals('\n', stream.LA(-1));
+    }
+
+    @Test
+    public void otherFilesAreDecodedAsUtf8() throws IOException {
+        // Each of these characters takes more than one byte in UTF-8
+        var code = write("cache \u00e9 r\u00e1pida \u2192 \ud83d\ude80");
+        var stream = MappedCharStream.open(file.toFile());
+
+        assertTrue(stream instanceof ANTLRInputStream);
+        assertEquals(code.length(), stream.size());
+        assertEquals(code, stream.getText(Interval.of(0, stream.size() - 1)));
+        assertEquals(file.toString(), stream.getSourceName());
+    }
+
+    @Test
+    public void stringsUseTheSameStreamsAsFiles() {
+        var ascii = CODE.formatted("ascii");
+        var stream = MappedCharStream.fromString(ascii);
+        assertTrue(stream instanceof MappedCharStream);
+        assertEquals(ascii, stream.toString());
+        assertEquals(IntStream.UNKNOWN_SOURCE_NAME, stream.getSourceName());
+
+        var other = CODE.formatted("cache \u00e9 r\u00e1pida");
+        stream = MappedCharStream.fromString(other);
+        assertTrue(stream instanceof ANTLRInputStream);
+        assertEquals(other, stream.getText(Interval.of(0, stream.size() - 1)));
+    }
+
+    @Test
+    public void sameTreeForBothStreams() throws IOException {
+        var parser = new JmmParserImpl();
+        var config = CompilerConfig.getDefault();
+
+        write("ascii");
+        var mapped = parser.parse(file.toFile(), config);
+        write("\u00e9\u00e9\u00e9\u00e9\u00e9");
+        var decoded = parser.parse(file.toFile(), config);
+
+        assertTrue(mapped.getReports().isEmpty());
+        assertTrue(decoded.getReports().isEmpty());
+        // The comment has the same number of characters, so the positions are the same too
+        assertEquals(mapped.getRootNode().toTree(), decoded.getRootNode().toTree());
+        assertEquals(parser.parse(CODE.formatted("ascii"), config).getRootNode().toTree(),
+                mapped.getRootNode().toTree());
+    }
+}
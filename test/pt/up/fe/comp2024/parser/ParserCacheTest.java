@@ -0,0 +1,77 @@
+package pt.up.fe.comp2024.parser;
+
+import org.junit.Test;
+import pt.up.fe.comp2024.CompilerConfig;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParserCacheTest {
+
+    private static final String CODE = """
+            class A {
+                public int foo(int a) {
+                    return a + 1;
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    private static String parse(ParserCache cache) {
+        var result = new JmmParserImpl(cache).parse(CODE, CompilerConfig.getDefault());
+        assertTrue(result.getReports().isEmpty());
+
+        return result.getRootNode().toTree();
+    }
+
+    @Test
+    public void predictionsAreKept() {
+        // Each cache starts empty, so the shared one is not used
+        var cache = new ParserCache();
+        assertEquals(0, cache.getNumDfaStates());
+
+        parse(cache);
+        int numStates = cache.getNumDfaStates();
+        assertTrue(numStates > 0);
+
+        // The same input needs no new predictions
+        parse(cache);
+        assertEquals(numStates, cache.getNumDfaStates());
+
+        cache.warmUp();
+        assertTrue(cache.getNumDfaStates() > numStates);
+    }
+
+    @Test
+    public void clearDiscardsThePredictions() {
+        var cache = new ParserCache();
+        var tree = parse(cache);
+        cache.warmUp();
+
+        cache.clear();
+        assertEquals(0, cache.getNumDfaStates());
+
+        // Parsers created after clearing fill the new caches, with the same result
+        assertEquals(tree, parse(cache));
+        assertTrue(cache.getNumDfaStates() > 0);
+    }
+
+    @Test
+    public void cachesAboveTheLimitAreCleared() {
+        var cache = new ParserCache();
+        cache.setMaxDfaStates(Integer.MAX_VALUE);
+        cache.warmUp();
+        int numStates = cache.getNumDfaStates();
+
+        // The limit is checked after each parse, and the parse that exceeded it still succeeds
+        cache.setMaxDfaStates(numStates - 1);
+        var tree = parse(cache);
+        assertEquals(0, cache.getNumDfaStates());
+
+        // Without a limit, the caches are kept
+        cache.setMaxDfaStates(-1);
+        assertEquals(tree, parse(cache));
+        assertTrue(cache.getNumDfaStates() > 0);
+    }
+}
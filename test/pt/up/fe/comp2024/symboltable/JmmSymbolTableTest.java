@@ -0,0 +1,124 @@
+package pt.up.fe.comp2024.symboltable;
+
+import org.junit.Test;
+import pt.up.fe.comp.jmm.analysis.table.Symbol;
+import pt.up.fe.comp.jmm.analysis.table.SymbolTable;
+import pt.up.fe.comp.jmm.analysis.table.Type;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.parser.JmmParserImpl;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class JmmSymbolTableTest {
+
+    private static final String CODE = """
+            import a.b.Lib;
+            import Other;
+            class A {
+                int x;
+                boolean y;
+                public int foo(int y, int z) {
+                    int[] x;
+                    return 0;
+                }
+                public static void main(String[] args) {
+                }
+            }
+            """;
+
+    private static JmmSymbolTable build() {
+        var result = new JmmParserImpl().parse(CODE, CompilerConfig.getDefault());
+        return JmmSymbolTableBuilder.build(result.getRootNode());
+    }
+
+    @Test
+    public void localsAndParametersShadowFields() {
+        var table = build();
+
+        var local = table.resolve("foo", "x").orElseThrow();
+        assertEquals(ResolvedSymbol.Scope.LOCAL, local.scope());
+        assertTrue(local.symbol().getType().isArray());
+
+        var param = table.resolve("foo", "y").orElseThrow();
+        assertEquals(ResolvedSymbol.Scope.PARAMETER, param.scope());
+        assertEquals("int", param.symbol().getType().getName());
+
+        var field = table.resolve("main", "y").orElseThrow();
+        assertEquals(ResolvedSymbol.Scope.FIELD, field.scope());
+        assertEquals("boolean", field.symbol().getType().getName());
+    }
+
+    @Test
+    public void importsAreResolvedBySimpleName() {
+        var table = build();
+
+        var lib = table.resolve("foo", "Lib").orElseThrow();
+        assertEquals(ResolvedSymbol.Scope.IMPORT, lib.scope());
+        assertEquals("Lib", lib.symbol().getType().getName());
+
+        assertEquals(Set.of("Lib", "Other"), table.getImportedNames());
+        assertTrue(table.isImported("Other"));
+        assertFalse(table.isImported("b"));
+    }
+
+    @Test
+    public void unknownNames() {
+        var table = build();
+
+        assertTrue(table.resolve("foo", "w").isEmpty());
+        // Outside methods, only fields and imports are visible
+        assertEquals(ResolvedSymbol.Scope.FIELD, table.resolve(null, "x").orElseThrow().scope());
+        assertTrue(table.resolve(null, "z").isEmpty());
+    }
+
+    @Test
+    public void otherTablesAreCopiedOnce() {
+        var table = build();
+        // A table of another type, with the same contents
+        SymbolTable other = new SymbolTable() {
+            public List<String> getImports() {
+                return table.getImports();
+            }
+
+            public String getClassName() {
+                return table.getClassName();
+            }
+
+            public String getSuper() {
+                return table.getSuper();
+            }
+
+            public List<Symbol> getFields() {
+                return table.getFields();
+            }
+
+            public List<String> getMethods() {
+                return table.getMethods();
+            }
+
+            public Type getReturnType(String methodSignature) {
+                return table.getReturnType(methodSignature);
+            }
+
+            public List<Symbol> getParameters(String methodSignature) {
+                return table.getParameters(methodSignature);
+            }
+
+            public List<Symbol> getLocalVariables(String methodSignature) {
+                return table.getLocalVariables(methodSignature);
+            }
+        };
+
+        assertSame(table, JmmSymbolTable.from(table));
+
+        var copy = JmmSymbolTable.from(other);
+        assertSame(copy, JmmSymbolTable.from(other));
+        assertEquals(ResolvedSymbol.Scope.PARAMETER, copy.resolve("foo", "y").orElseThrow().scope());
+    }
+}
@@ -0,0 +1,54 @@
+package pt.up.fe.comp2024.utils;
+
+import org.junit.Test;
+import pt.up.fe.comp2024.CompilerConfig;
+import pt.up.fe.comp2024.JmmCompiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JmmProgramGeneratorTest {
+
+    private static void assertCompiles(String code) {
+        var result = new JmmCompiler().compile(code, CompilerConfig.getDefault());
+        assertTrue("Generated program does not compile: " + result.getReports() + "\n" + code, result.isSuccess());
+    }
+
+    @Test
+    public void defaultProgram() {
+        assertCompiles(new JmmProgramGenerator().generate("Default"));
+    }
+
+    @Test
+    public void deepNestingAndExpressions() {
+        assertCompiles(new JmmProgramGenerator()
+                .setMethods(3)
+                .setNestingDepth(9)
+                .setExpressionDepth(50)
+                .generate("Deep"));
+    }
+
+    @Test
+    public void noFieldsNorImports() {
+        assertCompiles(new JmmProgramGenerator()
+                .setFields(0)
+                .setImports(0)
+                .setLocals(1)
+                .generate("Minimal"));
+    }
+
+    @Test
+    public void manyMethods() {
+        var code = new JmmProgramGenerator().setMethods(500).generate("Large");
+
+        assertEquals(500, code.split("public int method", -1).length - 1);
+        assertCompiles(code);
+    }
+
+    @Test
+    public void sameSeedSameProgram() {
+        var generator = new JmmProgramGenerator().setSeed(42);
+
+        assertEquals(generator.generate("Seeded"), generator.generate("Seeded"));
+    }
+}